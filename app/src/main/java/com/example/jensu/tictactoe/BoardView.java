@@ -0,0 +1,197 @@
+/**
+ * This view draws the game board: the grid lines and the marks of both players. It is one view no
+ * matter how big the board is, so a 15 x 15 board does not need 225 buttons. Everything it draws
+ * comes straight from the board model, and touches are turned into cell indexes.
+ *
+ * All paints and the grid path are made when the view is created or resized, so onDraw() does not
+ * allocate anything.
+ */
+package com.example.jensu.tictactoe;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+public class BoardView extends View {
+
+    // The widths of the lines in dp on a 3 x 3 board. Bigger boards use thinner lines.
+    private static final float GRID_WIDTH = 4;
+    private static final float MARK_WIDTH = 8;
+    // How much of a cell a mark leaves empty on each side.
+    private static final float MARK_PADDING = 0.2f;
+
+    /**
+     * This interface is told which cell the user touched.
+     */
+    public interface OnCellClickListener {
+        void onCellClick(int cell);
+    }
+
+    private final Paint gridPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint player1Paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint player2Paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path gridPath = new Path();
+    private final float density;
+
+    private GridBoard board = new GridBoard(Variant.CLASSIC);
+    private OnCellClickListener listener;
+    // The size of a cell and where the grid starts, so it is centred in the view.
+    private float cellSize;
+    private float left;
+    private float top;
+    private int touchedCell = -1;
+
+    public BoardView(Context context){
+        this(context, null);
+    }
+
+    public BoardView(Context context, AttributeSet attrs){
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setColor(Color.DKGRAY);
+        player1Paint.setStyle(Paint.Style.STROKE);
+        player1Paint.setColor(Color.BLUE);
+        player2Paint.setStyle(Paint.Style.STROKE);
+        player2Paint.setStrokeCap(Paint.Cap.ROUND);
+        player2Paint.setColor(Color.RED);
+    }
+
+    /**
+     * This method sets the board the view shows. The view does not change the board.
+     * @param board the board model
+     */
+    public void setBoard(GridBoard board){
+        boolean resized = board.getRows() != this.board.getRows()
+                || board.getCols() != this.board.getCols();
+        this.board = board;
+        if (resized){
+            layoutGrid(getWidth(), getHeight());
+        }
+        invalidate();
+    }
+
+    public void setOnCellClickListener(OnCellClickListener listener){
+        this.listener = listener;
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight){
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        layoutGrid(width, height);
+    }
+
+    /**
+     * This method works out the cell size and builds the grid path for the current size and
+     * board. It only runs when one of them changes.
+     */
+    private void layoutGrid(int width, int height){
+        int rows = board.getRows();
+        int cols = board.getCols();
+        cellSize = Math.min((float) width / cols, (float) height / rows);
+        left = (width - cellSize * cols) / 2;
+        top = (height - cellSize * rows) / 2;
+
+        float scale = 3f / Math.max(rows, cols);
+        gridPaint.setStrokeWidth(Math.max(1, GRID_WIDTH * density * scale));
+        player1Paint.setStrokeWidth(Math.max(1, MARK_WIDTH * density * scale));
+        player2Paint.setStrokeWidth(Math.max(1, MARK_WIDTH * density * scale));
+
+        // only the inner lines, like a Tic-Tac-Toe board drawn on paper
+        gridPath.rewind();
+        for (int x = 1; x < rows; x++){
+            gridPath.moveTo(left, top + x * cellSize);
+            gridPath.lineTo(left + cols * cellSize, top + x * cellSize);
+        }
+        for (int y = 1; y < cols; y++){
+            gridPath.moveTo(left + y * cellSize, top);
+            gridPath.lineTo(left + y * cellSize, top + rows * cellSize);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas){
+        super.onDraw(canvas);
+        canvas.drawPath(gridPath, gridPaint);
+        float padding = cellSize * MARK_PADDING;
+        for (int cell = 0; cell < board.getCells(); cell++){
+            int side = board.get(cell);
+            if (side == GridBoard.EMPTY){
+                continue;
+            }
+            float cellLeft = left + (cell % board.getCols()) * cellSize;
+            float cellTop = top + (cell / board.getCols()) * cellSize;
+            if (side == GridBoard.PLAYER_1){
+                canvas.drawCircle(cellLeft + cellSize / 2, cellTop + cellSize / 2,
+                        cellSize / 2 - padding, player1Paint);
+            }
+            else {
+                float cellRight = cellLeft + cellSize - padding;
+                float cellBottom = cellTop + cellSize - padding;
+                canvas.drawLine(cellLeft + padding, cellTop + padding, cellRight, cellBottom,
+                        player2Paint);
+                canvas.drawLine(cellRight, cellTop + padding, cellLeft + padding, cellBottom,
+                        player2Paint);
+            }
+        }
+    }
+
+    /**
+     * A touch counts as a click on a cell if it goes down and up on the same cell.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event){
+        if (!isEnabled()){
+            return false;
+        }
+        switch (event.getActionMasked()){
+            case MotionEvent.ACTION_DOWN:
+                touchedCell = getCellAt(event.getX(), event.getY());
+                return touchedCell >= 0;
+            case MotionEvent.ACTION_UP:
+                if (touchedCell >= 0 && touchedCell == getCellAt(event.getX(), event.getY())){
+                    performClick();
+                    if (listener != null){
+                        listener.onCellClick(touchedCell);
+                    }
+                }
+                touchedCell = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                touchedCell = -1;
+                return true;
+            default:
+                return touchedCell >= 0;
+        }
+    }
+
+    @Override
+    public boolean performClick(){
+        return super.performClick();
+    }
+
+    /**
+     * @param x the x coordinate in the view
+     * @param y the y coordinate in the view
+     * @return int the index of the cell at that point, or -1 if it is outside the board
+     */
+    private int getCellAt(float x, float y){
+        if (cellSize <= 0){
+            return -1;
+        }
+        int row = (int) Math.floor((y - top) / cellSize);
+        int col = (int) Math.floor((x - left) / cellSize);
+        if (row < 0 || row >= board.getRows() || col < 0 || col >= board.getCols()){
+            return -1;
+        }
+        return board.index(row, col);
+    }
+}
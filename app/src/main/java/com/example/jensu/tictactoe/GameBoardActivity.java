@@ -9,6 +9,8 @@ package com.example.jensu.tictactoe;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.content.Intent;
 import android.view.View;
 import android.view.View.OnClickListener;
@@ -16,19 +18,94 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.Editor;
+import android.util.Log;
+
+import com.example.jensu.tictactoe.ai.AiExecutor;
+import com.example.jensu.tictactoe.ai.BigBoardSearch;
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.Difficulty;
+import com.example.jensu.tictactoe.ai.MctsEngine;
+import com.example.jensu.tictactoe.ai.NegamaxEngine;
+import com.example.jensu.tictactoe.ai.ParallelMctsEngine;
+import com.example.jensu.tictactoe.ai.Ponderer;
+import com.example.jensu.tictactoe.ai.SearchResult;
+import com.example.jensu.tictactoe.ai.SolutionTable;
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GameRecord;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Series;
+import com.example.jensu.tictactoe.game.SeriesCalculator;
+import com.example.jensu.tictactoe.game.SeriesOdds;
+import com.example.jensu.tictactoe.game.Variant;
+import com.example.jensu.tictactoe.history.RoundRecord;
+import com.example.jensu.tictactoe.history.StatsIndex;
+
+import java.util.Random;
+import java.util.concurrent.Executor;
 
 public class GameBoardActivity extends Activity {
 
-    private Button[][] boardButtons = new Button[3][3];
+    private static final String TAG = "GameBoardActivity";
+
+    // The SharedPreferences key of the saved game record.
+    static final String GAME_KEY = "game";
+    // The keys games were saved under before the record, apart from one key per board button.
+    private static final String[] LEGACY_KEYS = {"p1Turn", "p1Points", "p2Points", "message",
+            "roundNumber", "turnNumber"};
+
+    // How long the computer spends guessing the human's likely moves before pondering on big boards.
+    private static final long PONDER_PREDICT_MILLIS = 200;
+    // The smallest tree of the guessing search, so that a few playouts still have room to grow.
+    private static final int MIN_PREDICT_CAPACITY = 1024;
+
+    private BoardView boardView;
+    private OnClickListener buttonEventListener;
+    // The board model is the actual state of the game, the board view only displays it.
+    private GridBoard board = new GridBoard(Variant.CLASSIC);
+    // How strong the computer plays, chosen in the options menu. Every level is a budget for the
+    // same engines, with a time ceiling that no move goes over.
+    private Difficulty difficulty = Difficulty.PERFECT;
+    // Classic games are solved on the 3 x 3 bitboard. The engine keeps its transposition table for
+    // as long as the activity lives and the difficulty does not change, so positions searched in
+    // earlier moves and rounds are remembered.
+    private Board classicBoard = new Board();
+    private NegamaxEngine engine = difficulty.createEngine();
+    // Decides the computer's random moves on the easier levels. Only used on the background thread.
+    private Random random = new Random();
+    // Bigger boards can not be solved, so the computer searches them with iterative deepening
+    // until its time is up, and always has the best move of the deepest search that finished.
+    // With four to six in a row, a short search of only the computer's threats comes first, and
+    // finds forced wins far deeper than the full search can look. Their tables take megabytes
+    // that classic games never use, so they are made on the background thread for the level of
+    // the first bigger board, and again when the level changes. Only used on that thread.
+    private BigBoardSearch bigBoardSearch;
+    // Monte Carlo Tree Search guesses the human's likely moves before pondering, with one thread
+    // per core. With a single core there is nothing to share, so each thread keeps its own tree;
+    // otherwise all threads grow one tree. The trees and threads are made on the background thread
+    // for the level of the first bigger board, and let go once a classic game is pondered. Only
+    // used on that thread, and read by onDestroy after it is told to stop.
+    private int computerThreads = Runtime.getRuntime().availableProcessors();
+    private volatile ParallelMctsEngine mctsEngine;
+    private Difficulty mctsLevel;
+    // The engines only ever run on the executor's background thread, and its results are posted
+    // back to the UI thread.
+    private AiExecutor aiExecutor;
+    // While the human thinks, the computer searches its replies to the human's possible moves.
+    private Ponderer ponderer = new Ponderer();
+    // Every finished round is added to the match history, and counted in the statistics of every
+    // player. The files are opened and written on the history's own thread.
+    private MatchHistory matchHistory;
     private TextView player1NameLabel, player1PointLabel, player2NameLabel, player2PointLabel;
-    private Button newGameButton;
+    private Button newGameButton, undoButton, redoButton;
     private TextView winnerMessage;
+    // The chances of each player taking the series, shown while a best of or first one to series
+    // is being played.
+    private TextView seriesOddsLabel;
     // This variable keeps track if the game has already started so when the app boots up, it will
     // go straight to this activity.
     private boolean newGame;
 
     private boolean player1Turn = true;
-    private int turnCount;
 
     private int player1Points;
     private int player2Points;
@@ -49,6 +126,16 @@ public class GameBoardActivity extends Activity {
 
         setInitialValues();
         setWidgets();
+
+        final Handler uiHandler = new Handler(Looper.getMainLooper());
+        aiExecutor = new AiExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command){
+                uiHandler.post(command);
+            }
+        });
+
+        matchHistory = MatchHistory.get(this);
     }
 
     /**
@@ -56,7 +143,7 @@ public class GameBoardActivity extends Activity {
      */
     private void setInitialValues(){
         newGame = true;
-        turnCount = 0;
+        board.clear();
         player1Points = 0;
         player2Points = 0;
         message = "Round 1";
@@ -71,15 +158,11 @@ public class GameBoardActivity extends Activity {
     private void setWidgets(){
         Intent intent = getIntent();
 
-        OnClickListener buttonEventListener = new ButtonEventListener();
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++) {
-                String name = "boardButton" + x + y;
-                int res = getResources().getIdentifier(name, "id", getPackageName());
-                boardButtons[x][y] = findViewById(res);
-                boardButtons[x][y].setOnClickListener(buttonEventListener);
-            }
-        }
+        buttonEventListener = new ButtonEventListener();
+        boardView = findViewById(R.id.boardView);
+        boardView.setBoard(board);
+        boardView.setOnCellClickListener(new BoardEventListener());
+
         player1NameLabel = findViewById(R.id.playerOneNameLabel);
         player1PointLabel = findViewById(R.id.playerOnePointAmout);
 
@@ -87,9 +170,15 @@ public class GameBoardActivity extends Activity {
         player2PointLabel = findViewById(R.id.playerTwoPointAmount);
 
         winnerMessage = findViewById(R.id.winnerMessageLabel);
+        seriesOddsLabel = findViewById(R.id.seriesOddsLabel);
 
         newGameButton = findViewById(R.id.newGameButton);
         newGameButton.setOnClickListener(buttonEventListener);
+
+        undoButton = findViewById(R.id.undoButton);
+        undoButton.setOnClickListener(buttonEventListener);
+        redoButton = findViewById(R.id.redoButton);
+        redoButton.setOnClickListener(buttonEventListener);
     }
 
     /**
@@ -99,39 +188,107 @@ public class GameBoardActivity extends Activity {
     class ButtonEventListener implements OnClickListener{
         @Override
         public void onClick(View v) {
+            // The board has its own listener
+            if (v.getId() == R.id.undoButton){
+                undoMove();
+            }
+            else if (v.getId() == R.id.redoButton){
+                redoMove();
+            }
             // When new game button is pressed
-            if (v.getId() == R.id.newGameButton){
+            else {
+                // stop the computer if it is thinking
+                aiExecutor.cancel();
                 // Start the options activity
                 Intent intent = new Intent(getActivity(), OptionsActivity.class);
                 newGame = false;
                 startActivity(intent);
             }
+        }
+    }
 
-            // If a board button was pressed check if it is occupies. If it is not, then proceed
-            // with the move
-            else if(((Button) v).getText().toString().equals("")){
-                // Change the text to the current player symbol
-                if (player1Turn) {
-                    ((Button) v).setText("O");
-                }
-                // This is just for player vs player games.
-                else {
-                    ((Button) v).setText("X");
-                }
-                // change player turns
-                player1Turn = !player1Turn;
-                // add to turn count
-                turnCount += 1;
-                // check for winner
-                winnerCheck();
+    /**
+     * This class takes care of the cells touched on the board.
+     * @see BoardView.OnCellClickListener
+     */
+    class BoardEventListener implements BoardView.OnCellClickListener{
+        @Override
+        public void onCellClick(int cell) {
+            // Check if the cell is occupied. If it is not, then proceed with the move. The board
+            // can not be played on while the computer is thinking.
+            if(!aiExecutor.isThinking() && board.isEmpty(cell)){
+                makeMove(cell);
                 // if there is a computer, check if someone already won. If there has not been
                 // a winner yet, call the computer move method.
-                if (isComputer && !player1Turn && (turnCount != 0) &&
-                        (message.equals("Round " + (numberOfRounds + 1)))) {
+                if (isComputerTurn()) {
                     computerMove();
                 }
+                // if the move ended the round, the human starts the next one
+                else if (isHumanTurn()){
+                    startPondering();
+                }
+            }
+        }
+    }
+
+    /**
+     * This method plays the current player's mark on the board model, shows it on the board view
+     * and checks for a winner.
+     * @param cell the cell index of the move
+     */
+    private void makeMove(int cell){
+        board.play(cell);
+        // change player turns
+        player1Turn = board.getSideToMove() == GridBoard.PLAYER_1;
+        // Draw the mark of the player who just moved
+        boardView.invalidate();
+        // check for winner
+        winnerCheck();
+    }
+
+    /**
+     * This method takes back the last move of the round. Against the computer it takes back the
+     * computer's reply together with the human's move, so that it is the human's turn again. If the
+     * computer is still thinking, its search is stopped and only the human's move is taken back.
+     */
+    private void undoMove(){
+        if (isGameOver() || !board.canUndo()){
+            return;
+        }
+        aiExecutor.cancel();
+        board.undo();
+        if (isComputer && board.getSideToMove() == GridBoard.PLAYER_2){
+            board.undo();
+        }
+        player1Turn = board.getSideToMove() == GridBoard.PLAYER_1;
+        boardView.invalidate();
+        if (isHumanTurn()){
+            startPondering();
+        }
+    }
+
+    /**
+     * This method plays the last move that was taken back again. Against the computer the
+     * computer's reply is redone as well, or searched again if it was never played.
+     */
+    private void redoMove(){
+        if (isGameOver() || !board.canRedo() || aiExecutor.isThinking()){
+            return;
+        }
+        // playing the redo move keeps the rest of the moves that can be redone
+        makeMove(board.getRedoMove());
+        if (isComputerTurn()){
+            if (board.canRedo()){
+                makeMove(board.getRedoMove());
+            }
+            else {
+                computerMove();
+                return;
             }
         }
+        if (isHumanTurn()){
+            startPondering();
+        }
     }
 
     /**
@@ -157,29 +314,21 @@ public class GameBoardActivity extends Activity {
             return;
         }
 
+        // otherwise, keep the round in the match history
+        recordRound();
+
         // otherwise, update the points
         updatePoints();
 
         // if playType is not infinitely, then check the playType and check if the principle has
         // been met
-        if (playType != 0){
+        if (playType != Series.INFINITE){
             // for the playType principle for the best of type, since the round has not been reset
             // yet and that is where the numberOfRounds variable updates, add by one.
-            if ((playType == 1 && principle == numberOfRounds + 1) ||
-                    (playType == 2 && (principle == (player1Points) ||
-                            principle == (player2Points)))){
+            if (Series.isOver(playType, principle, numberOfRounds + 1, player1Points,
+                    player2Points)){
                 // if the principle was met, find the overall winner
-                // this would be true for best of type and first one to, so there is no point in
-                // checking for the winner any way
-                if (player1Points > player2Points){
-                    winner = "O";
-                }
-                else if (player1Points < player2Points){
-                    winner = "X";
-                }
-                else{
-                    winner = "TIE";
-                }
+                winner = getOverallWinner();
                 // end the game
                 endGame();
             }
@@ -195,71 +344,252 @@ public class GameBoardActivity extends Activity {
     }
 
     /**
-     * This method controls the computer's move. In this game, the computer move is not that smart
-     * and is simply just randomly finding a spot to move on
+     * This method finds the overall winner from the points. This would be true for best of type and
+     * first one to, so there is no point in checking for the winner any way.
+     * @return String "O" for player 1, "X" for player 2 and "TIE" if the points are equal
+     */
+    private String getOverallWinner(){
+        if (player1Points > player2Points){
+            return "O";
+        }
+        else if (player1Points < player2Points){
+            return "X";
+        }
+        return "TIE";
+    }
+
+    /**
+     * This method checks if the game has ended. While it is going on, the message is the round.
+     * @return boolean true if there is an overall winner
+     */
+    private boolean isGameOver(){
+        return !message.equals("Round " + (numberOfRounds + 1));
+    }
+
+    /**
+     * This method adds the round that just ended to the match history and counts it in the
+     * statistics. It is only buffered here, the log is written when the activity is paused.
+     */
+    private void recordRound(){
+        String player1 = getPlayerName(player1NameLabel);
+        String player2 = getPlayerName(player2NameLabel);
+        RoundRecord record = RoundRecord.of(System.currentTimeMillis(), player1, player2,
+                isComputer, playType, principle, board);
+        matchHistory.record(record);
+    }
+
+    /**
+     * This method checks if it is the computer's turn in a round that is still being played.
+     * @return boolean true if the computer should move
+     */
+    private boolean isComputerTurn(){
+        return isComputer && !player1Turn && (board.getTurnCount() != 0) && !isGameOver();
+    }
+
+    /**
+     * This method checks if it is the human's turn against the computer in a round that is still
+     * being played.
+     * @return boolean true if the computer can ponder
+     */
+    private boolean isHumanTurn(){
+        return isComputer && player1Turn && !isGameOver();
+    }
+
+    /**
+     * This method starts the computer's move. The search runs on a background thread, on a copy of
+     * the board, and the move is played when the result comes back to the UI thread. If the
+     * computer already pondered the human's move, the stored reply is played straight away. In
+     * classic games the computer looks its move up in the solved game table, and only searches for
+     * the best move if the table is not loaded. Either way it never loses on the perfect level. On
+     * bigger boards it searches for as long as the difficulty allows. On the easier levels it
+     * sometimes plays a random move instead of searching.
      */
     private void computerMove(){
-        int x = 0;
-        int y = 0;
-        do{
-            // find random spot
-            x = (int)(Math.random()*3);
-            y = (int)(Math.random()*3);
-            // check if it is free
-            if (boardButtons[x][y].getText().toString().equals("")){
-                // set symbol
-                if (player1Turn) {
-                    boardButtons[x][y].setText("O");
+        final GridBoard position = new GridBoard(board.getVariant());
+        position.copyFrom(board);
+        final Difficulty level = difficulty;
+        AiExecutor.Search search;
+        if (!board.getVariant().isClassic()){
+            search = new AiExecutor.Search() {
+                @Override
+                public SearchResult run(CancelToken token){
+                    if (level.isRandomMove(random)){
+                        return new SearchResult(Difficulty.randomMove(position, random), 0, 0, 0,
+                                true);
+                    }
+                    SearchResult reply = ponderer.lookup(position);
+                    if (reply != null){
+                        return reply;
+                    }
+                    return searchBigBoard(position, level, token);
                 }
-                else {
-                    boardButtons[x][y].setText("X");
+            };
+        }
+        else {
+            search = new AiExecutor.Search() {
+                @Override
+                public SearchResult run(CancelToken token){
+                    if (level.isRandomMove(random)){
+                        return new SearchResult(Difficulty.randomMove(position, random), 0, 0, 0,
+                                true);
+                    }
+                    setClassicBoard(position);
+                    SolutionTable table = level.isPerfect() ? SolutionTable.getLoaded() : null;
+                    if (table != null){
+                        int cell = table.getBestMove(classicBoard);
+                        if (cell >= 0){
+                            return new SearchResult(cell, 0, 0, 0, true);
+                        }
+                    }
+                    SearchResult reply = ponderer.lookup(position);
+                    if (reply != null){
+                        return reply;
+                    }
+                    return engine.search(classicBoard, token);
+                }
+            };
+        }
+        aiExecutor.submit(search, new AiExecutor.Callback() {
+            @Override
+            public void onMove(SearchResult result, long queueDelayNanos, long thinkNanos){
+                Log.d(TAG, "Computer move: " + result + " think: " + thinkNanos / 1000
+                        + " us, queue: " + queueDelayNanos / 1000 + " us, nodes/s: "
+                        + result.getNodesPerSecond() + ", ponder hits: " + ponderer.getHits()
+                        + ", misses: " + ponderer.getMisses() + ", saved: "
+                        + ponderer.getSavedNanos() / 1000000 + " ms");
+                makeMove(result.getMove());
+                if (isHumanTurn()){
+                    startPondering();
                 }
-                // switch turns
-                player1Turn = !player1Turn;
-                // add to player count
-                turnCount += 1;
-                // check if someone won
-                winnerCheck();
-                //break
-                break;
             }
-            // keep going until there is a valid move
-        } while (true);
+        });
     }
 
     /**
-     * This method checks if anyone has won the round. It returns "O" for player 1, "X" for player
-     * 2, "N" for when all spots are taken (tie), and "" for if there was no winner.
-     * @return String the winner, if there was none, ""
+     * This method finds the computer's move on a board bigger than the classic one, the same way
+     * the tournament tool does. Only called on the background thread.
      */
-    private String hasWon(){
+    private SearchResult searchBigBoard(GridBoard position, Difficulty level, CancelToken token){
+        if (bigBoardSearch == null || bigBoardSearch.getLevel() != level){
+            // the old tables are dropped first, so both sets are never held at once
+            bigBoardSearch = null;
+            bigBoardSearch = new BigBoardSearch(level);
+        }
+        return bigBoardSearch.search(position, token);
+    }
 
-        // Set up string array
-        String[][] grid = new String[3][3];
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++){
-                grid[x][y] = boardButtons[x][y].getText().toString();
+    /**
+     * This method lets the computer search on the human's time. On a classic board it searches
+     * the reply to every human move, which also fills the engine's transposition table; with the
+     * solved game table loaded there is nothing left to search. On bigger boards there is not
+     * enough time for every move, so a short search from the human's side first guesses which
+     * moves are most likely, and those are pondered first. Pondering stops when the human moves.
+     */
+    private void startPondering(){
+        final GridBoard position = new GridBoard(board.getVariant());
+        position.copyFrom(board);
+        final Difficulty level = difficulty;
+        if (position.getVariant().isClassic()){
+            aiExecutor.ponder(new AiExecutor.Ponder() {
+                @Override
+                public void run(CancelToken token){
+                    dropMctsEngine();
+                    if (level.isPerfect() && SolutionTable.getLoaded() != null){
+                        return;
+                    }
+                    ponderer.ponder(position, null, new Ponderer.ReplySearch() {
+                        @Override
+                        public SearchResult search(GridBoard reply, CancelToken token){
+                            setClassicBoard(reply);
+                            return engine.search(classicBoard, token);
+                        }
+                    }, token);
+                }
+            });
+            return;
+        }
+        aiExecutor.ponder(new AiExecutor.Ponder() {
+            @Override
+            public void run(CancelToken token){
+                ParallelMctsEngine guesser = getMctsEngine(position, level);
+                SearchResult guess = guesser.search(position, PONDER_PREDICT_MILLIS, token);
+                long[] priority = new long[position.getCells()];
+                guesser.addRootVisits(priority);
+                if (guess.getNodes() == 0){
+                    // the human has a forced move, which has no visits but comes first
+                    priority[guess.getMove()] = 1;
+                }
+                ponderer.ponder(position, priority, new Ponderer.ReplySearch() {
+                    @Override
+                    public SearchResult search(GridBoard reply, CancelToken token){
+                        return searchBigBoard(reply, level, token);
+                    }
+                }, token);
             }
+        });
+    }
+
+    /**
+     * This method makes the guessing search for the level. Each of the level's nodes adds at most
+     * one tree node per cell, so the tree never needs more than that. Only called on the
+     * background thread.
+     * @param position the position to guess the moves of
+     * @param level the level of the computer
+     * @return ParallelMctsEngine the search, kept until the level changes
+     */
+    private ParallelMctsEngine getMctsEngine(GridBoard position, Difficulty level){
+        if (mctsEngine == null || mctsLevel != level){
+            // the old trees are dropped first, so both sets are never held at once
+            dropMctsEngine();
+            long nodes = Math.max(MIN_PREDICT_CAPACITY, level.getNodeLimit() * position.getCells());
+            int mode = computerThreads == 1
+                    ? ParallelMctsEngine.MODE_ROOT : ParallelMctsEngine.MODE_TREE;
+            mctsEngine = new ParallelMctsEngine(computerThreads, mode,
+                    (int) Math.min(MctsEngine.DEFAULT_CAPACITY, nodes));
+            mctsLevel = level;
         }
+        return mctsEngine;
+    }
 
-        // check all columns and rows for a winner.
-        for (int x = 0; x < 3; x++){
-            if (grid[x][0].equals(grid[x][1]) && grid[x][1].equals(grid[x][2]) && !grid[x][0].equals("")){
-                return grid[x][0];
-            }
-            if (grid[0][x].equals(grid[1][x]) && grid[1][x].equals(grid[2][x]) && !grid[0][x].equals("")){
-                return grid[0][x];
-            }
+    /**
+     * This method stops the guessing search's threads and lets go of its trees. Only called on
+     * the background thread.
+     */
+    private void dropMctsEngine(){
+        if (mctsEngine != null){
+            mctsEngine.shutdown();
+            mctsEngine = null;
+            mctsLevel = null;
         }
-        // check diagonals
-        if (grid[0][0].equals(grid[1][1]) && grid[1][1].equals(grid[2][2]) && !grid[0][0].equals("")){
-            return grid[0][0];
+    }
+
+    /**
+     * This method copies a classic position onto the 3 x 3 bitboard. It is only called on the
+     * background thread.
+     * @param position a classic board
+     */
+    private void setClassicBoard(GridBoard position){
+        // a classic board has 9 cells, so each side fits in the first word
+        classicBoard.setMasks((int) position.getBits(GridBoard.PLAYER_1, 0),
+                (int) position.getBits(GridBoard.PLAYER_2, 0));
+    }
+
+    /**
+     * This method checks if anyone has won the round. It returns "O" for player 1, "X" for player
+     * 2, "N" for when all spots are taken (tie), and "" for if there was no winner.
+     * @return String the winner, if there was none, ""
+     */
+    private String hasWon(){
+        // the board model checks for a line through every move as it is played.
+        int side = board.getWinner();
+        if (side == GridBoard.PLAYER_1){
+            return "O";
         }
-        if (grid[2][0].equals(grid[1][1]) && grid[1][1].equals(grid[0][2]) && !grid[2][0].equals("")){
-            return grid[2][0];
+        if (side == GridBoard.PLAYER_2){
+            return "X";
         }
         // check if there are any spots left
-        if (turnCount == 9){
+        if (board.isFull()){
             return "N";
         }
         // if nothing in met above, no one won
@@ -267,16 +597,12 @@ public class GameBoardActivity extends Activity {
     }
 
     /**
-     * This method ends the game when there is an overall winner. It disables all board buttons so
-     * that they are unclickable and changes the message to a winner message
+     * This method ends the game when there is an overall winner. It disables the board so that it
+     * is unclickable and changes the message to a winner message
      */
     private void endGame(){
-        // disable all game board buttons
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++){
-                boardButtons[x][y].setClickable(false);
-            }
-        }
+        // disable the game board
+        boardView.setEnabled(false);
 
         // find the winner and change the label accordingly
         if (winner.equals("O")){
@@ -308,15 +634,9 @@ public class GameBoardActivity extends Activity {
         // make it player 1 turn again
         player1Turn = true;
 
-        // reset turn count
-        turnCount = 0;
-
-        // update all board buttons so that there is nothing in them
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++){
-                boardButtons[x][y].setText("");
-            }
-        }
+        // empty the board and update the board view so that there is nothing in it
+        board.clear();
+        boardView.invalidate();
     }
 
     /**
@@ -343,62 +663,174 @@ public class GameBoardActivity extends Activity {
         player1PointLabel.setText(String.valueOf(player1Points));
         player2PointLabel.setText(String.valueOf(player2Points));
         winnerMessage.setText(message);
+        updateSeriesOdds();
+    }
+
+    /**
+     * This method shows the exact chances of each player taking the series from the current score.
+     * Playing forever has no end, so there is nothing to show then or once the game is over.
+     */
+    private void updateSeriesOdds(){
+        if (playType == Series.INFINITE || isGameOver()){
+            seriesOddsLabel.setVisibility(View.INVISIBLE);
+            return;
+        }
+        String player1 = getPlayerName(player1NameLabel);
+        String player2 = getPlayerName(player2NameLabel);
+        double[] chances = getRoundChances(player1, player2);
+        SeriesOdds odds = new SeriesCalculator(playType, principle, chances[0], chances[1])
+                .getOdds(numberOfRounds, player1Points, player2Points);
+        seriesOddsLabel.setText(getString(R.string.series_odds, player1,
+                Math.round(odds.getPlayer1() * 100), player2, Math.round(odds.getPlayer2() * 100),
+                Math.round(odds.getNeither() * 100),
+                Math.max(0, odds.getExpectedRounds() - numberOfRounds)));
+        seriesOddsLabel.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * This method guesses the chances of a round from the history of both players: player 1's wins
+     * and player 2's losses count as wins for player 1, and so on. One round of each result is
+     * added, so that players without a history start out even.
+     * @return double[] the chance that player 1 wins a round and the chance of a tie
+     */
+    private double[] getRoundChances(String player1, String player2){
+        long[] counts = {1, 1, 1};
+        // the statistics are not there yet for the first moments after the app starts
+        StatsIndex statsIndex = matchHistory.getStats();
+        if (statsIndex != null){
+            int first = statsIndex.findPlayer(player1);
+            int second = statsIndex.findPlayer(player2);
+            if (first >= 0){
+                counts[0] += statsIndex.getResults(first, StatsIndex.WIN);
+                counts[1] += statsIndex.getResults(first, StatsIndex.TIE);
+                counts[2] += statsIndex.getResults(first, StatsIndex.LOSS);
+            }
+            if (second >= 0){
+                counts[0] += statsIndex.getResults(second, StatsIndex.LOSS);
+                counts[1] += statsIndex.getResults(second, StatsIndex.TIE);
+                counts[2] += statsIndex.getResults(second, StatsIndex.WIN);
+            }
+        }
+        double total = counts[0] + counts[1] + counts[2];
+        return new double[]{counts[0] / total, counts[1] / total};
+    }
+
+    /**
+     * @param label a name label, which ends with a colon
+     * @return String the name of the player
+     */
+    private static String getPlayerName(TextView label){
+        String name = label.getText().toString();
+        return name.substring(0, name.length()-1);
     }
 
     @Override
     public void onResume() {
         String name;
-        player1Turn = savedPref.getBoolean("p1Turn", true);
-        player1Points = savedPref.getInt("p1Points", 0);
-
         name = savedPref.getString("p1Name", "Player 1") + ":";
         player1NameLabel.setText(name);
-        player2Points = savedPref.getInt("p2Points", 0);
 
         name = savedPref.getString("p2Name", "Player 2") + ":";
         player2NameLabel.setText(name);
         isComputer = player2NameLabel.getText().toString().equals("Computer:");
-        numberOfRounds = savedPref.getInt("roundNumber", 0);
-        turnCount = savedPref.getInt("turnNumber", 0);
-        message = savedPref.getString("message", "Round" + numberOfRounds + 1);
-        playType = savedPref.getInt("playType", 0);
-        principle = savedPref.getInt("principle", 0);
-
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++){
-                boardButtons[x][y].setText(savedPref.getString("button" + x + y, ""));
-            }
+
+        // make a new engine if a different difficulty was chosen in the options menu
+        Difficulty level = Difficulty.fromPreset(savedPref.getInt("difficulty",
+                Difficulty.DEFAULT_PRESET));
+        if (level != difficulty){
+            difficulty = level;
+            engine = difficulty.createEngine();
+        }
+
+        // the whole game is saved in one record. If there is none, or it is from an older version,
+        // a new game starts with the rules from the options menu.
+        GameRecord record = GameRecord.decode(savedPref.getString(GAME_KEY, null));
+        if (record == null){
+            record = GameRecord.newGame(Variant.fromPreset(savedPref.getInt("variant", 0)),
+                    savedPref.getInt("playType", 0), savedPref.getInt("principle", 0));
+        }
+        player1Points = record.getPlayer1Points();
+        player2Points = record.getPlayer2Points();
+        numberOfRounds = record.getRounds();
+        message = "Round " + (numberOfRounds + 1);
+        playType = record.getPlayType();
+        principle = record.getPrinciple();
+
+        // make a new board if a different variant was chosen in the options menu
+        if (!record.getVariant().equals(board.getVariant())){
+            board = new GridBoard(record.getVariant());
+            boardView.setBoard(board);
+        }
+        record.loadBoard(board);
+        player1Turn = board.getSideToMove() == GridBoard.PLAYER_1;
+        boardView.invalidate();
+        if (record.isOver()){
+            // this also disables the board and shows the winner message
+            winner = getOverallWinner();
+            endGame();
+        }
+        else {
+            boardView.setEnabled(true);
+            updateTextFields();
         }
-        updateTextFields();
         super.onResume();
+
+        // if the computer was thinking when the app was paused, start its move again
+        if (isComputerTurn()){
+            computerMove();
+        }
+        else if (isHumanTurn()){
+            startPondering();
+        }
+    }
+
+    /**
+     * Games saved before the record used a key for every value and every board button. They are
+     * removed the first time the game is saved, so they stop taking up space in the file.
+     * @param prefEditor the editor the removals are added to
+     */
+    private void removeLegacyKeys(Editor prefEditor){
+        if (!savedPref.contains("turnNumber")){
+            return;
+        }
+        for (String key : savedPref.getAll().keySet()){
+            if (key.startsWith("button")){
+                prefEditor.remove(key);
+            }
+        }
+        for (String key : LEGACY_KEYS){
+            prefEditor.remove(key);
+        }
+    }
+
+    @Override
+    protected void onDestroy(){
+        aiExecutor.shutdown();
+        ParallelMctsEngine engine = mctsEngine;
+        if (engine != null){
+            engine.shutdown();
+        }
+        // the history stays open for the other screens, it was flushed when the activity paused
+        super.onDestroy();
     }
 
     @Override
     public void onPause(){
-        Editor prefEditor = savedPref.edit();
+        // the computer's move and pondering are started again when the activity comes back
+        aiExecutor.cancel();
 
-        String name;
+        // The names are only read here, the options menu saves them. Everything else about the
+        // game is one record, and apply() writes it to disk in the background.
+        Editor prefEditor = savedPref.edit();
         prefEditor.putBoolean("newGame", newGame);
-        prefEditor.putBoolean("p1Turn", player1Turn);
-        prefEditor.putString("p1Name", player1NameLabel.getText().toString().substring(0,
-                player1NameLabel.getText().toString().length()-1));
-        prefEditor.putInt("p1Points", player1Points);
-        prefEditor.putString("p2Name", player2NameLabel.getText().toString().substring(0,
-                player2NameLabel.getText().toString().length()-1));
-        prefEditor.putInt("p2Points", player2Points);
-        prefEditor.putString("message", message);
-        prefEditor.putInt("roundNumber", numberOfRounds);
-        prefEditor.putInt("turnNumber", turnCount);
-        prefEditor.putInt("playType", playType);
-        prefEditor.putInt("principle", principle);
-
-        for (int x = 0; x < 3; x++){
-            for (int y = 0; y < 3; y++){
-                prefEditor.putString("button" + x + y, boardButtons[x][y].getText().toString());
-            }
-        }
-
-        prefEditor.commit();
+        GameRecord record = new GameRecord(board, numberOfRounds, player1Points, player2Points,
+                playType, principle, isGameOver());
+        prefEditor.putString(GAME_KEY, record.encode());
+        removeLegacyKeys(prefEditor);
+        prefEditor.apply();
+
+        // the rounds of this session are written in one go, without forcing them to the disk
+        matchHistory.flush();
 
         super.onPause();
     }
@@ -0,0 +1,162 @@
+/**
+ * This class owns the match log and the stats index of the app. There is one for the whole
+ * process, so every screen sees the same counters, and it does all of its disk work on one
+ * background thread: opening the log reads it through to check its end, and opening the index can
+ * count every round of the log again, which must not freeze the screen. Rounds are written on the
+ * same thread in the order they were recorded.
+ *
+ * The files are never closed. The log is flushed whenever the game screen is paused, and the
+ * system writes the mapped counters of the index back on its own.
+ */
+package com.example.jensu.tictactoe;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.jensu.tictactoe.history.MatchLog;
+import com.example.jensu.tictactoe.history.RoundRecord;
+import com.example.jensu.tictactoe.history.StatsIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+class MatchHistory {
+
+    private static final String TAG = "MatchHistory";
+
+    /**
+     * This interface reads the statistics on the history's thread.
+     */
+    interface StatsReader {
+        /**
+         * @param stats the statistics, or null if they could not be opened
+         */
+        void read(StatsIndex stats);
+    }
+
+    private static MatchHistory instance;
+
+    private final ExecutorService worker;
+    // Only used on the worker thread. It is null if the log could not be opened, and then rounds
+    // are simply not recorded.
+    private MatchLog log;
+    // Set on the worker thread once the index is open and up to date. It is null until then, or if
+    // it could not be opened, and then there are no statistics.
+    private volatile StatsIndex stats;
+
+    /**
+     * @param context any context of the app
+     * @return MatchHistory the history of the app, which starts opening the files the first time
+     */
+    static synchronized MatchHistory get(Context context){
+        if (instance == null){
+            instance = new MatchHistory(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    private MatchHistory(final File directory){
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable){
+                Thread thread = new Thread(runnable, "match-history");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                open(directory);
+            }
+        });
+    }
+
+    private void open(File directory){
+        File logFile = new File(directory, MatchLog.FILE_NAME);
+        try {
+            log = MatchLog.open(logFile);
+        }
+        catch (IOException e){
+            Log.w(TAG, "Could not open the match history, rounds will not be recorded", e);
+            return;
+        }
+        try {
+            stats = StatsIndex.open(new File(directory, StatsIndex.FILE_NAME), logFile);
+        }
+        catch (IOException e){
+            Log.w(TAG, "Could not open the statistics, rounds are recorded but not counted", e);
+        }
+    }
+
+    /**
+     * This method adds a round to the log and counts it in the statistics. It is only buffered,
+     * the log is written by flush().
+     * @param record the round that just ended
+     */
+    void record(final RoundRecord record){
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                if (log == null){
+                    return;
+                }
+                try {
+                    log.append(record);
+                    if (stats != null){
+                        stats.add(record, log.getSize());
+                    }
+                }
+                catch (IOException e){
+                    Log.w(TAG, "Could not record the round", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method writes the buffered rounds to the log, after any rounds recorded before it.
+     */
+    void flush(){
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                if (log == null){
+                    return;
+                }
+                try {
+                    log.flush();
+                }
+                catch (IOException e){
+                    Log.w(TAG, "Could not write the match history", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method reads the statistics on the history's thread, once they are open and every round
+     * recorded before has been counted.
+     * @param reader what to do with them
+     */
+    void readStats(final StatsReader reader){
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                reader.read(stats);
+            }
+        });
+    }
+
+    /**
+     * The index can be read on any thread while the worker counts rounds.
+     * @return StatsIndex the statistics, or null while they are being opened or if they could not
+     * be opened
+     */
+    StatsIndex getStats(){
+        return stats;
+    }
+}
@@ -8,7 +8,9 @@ import android.app.Activity;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.Editor;
+import android.content.res.AssetFileDescriptor;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.View.OnClickListener;
@@ -24,16 +26,30 @@ import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.TextView.OnEditorActionListener;
 
+import com.example.jensu.tictactoe.ai.Difficulty;
+import com.example.jensu.tictactoe.ai.SolutionTable;
+import com.example.jensu.tictactoe.game.GameRecord;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
 public class OptionsActivity extends Activity {
 
-    private Spinner playTypeSpinner;
-    private TextView player2GetNameLabel, gameEndPrincipleLabel;
+    private static final String TAG = "OptionsActivity";
+
+    private Spinner playTypeSpinner, variantSpinner, difficultySpinner;
+    private TextView player2GetNameLabel, gameEndPrincipleLabel, difficultyLabel;
     private EditText player1GetNameInput, player2GetNameInput, gameEndPrincipleInput;
     private Switch isComputerSwitch;
-    private Button startButton;
+    private Button startButton, statsButton;
 
     private boolean isComputer;
     private int playType;
+    private int variant;
+    private int difficulty;
     private boolean newGame;
 
     private SharedPreferences savedPref;
@@ -50,12 +66,15 @@ public class OptionsActivity extends Activity {
         newGame = false;
         isComputer = false;
         playType = 0;
+        variant = 0;
+        difficulty = Difficulty.DEFAULT_PRESET;
 
         setEditors();
         setOthers();
 
         player2GetNameLabel = findViewById(R.id.playerTwoGetNameLabel);
         gameEndPrincipleLabel = findViewById(R.id.gameEndPrincipleLabel);
+        difficultyLabel = findViewById(R.id.difficultyLabel);
 
 
     }
@@ -73,11 +92,30 @@ public class OptionsActivity extends Activity {
             playTypeSpinner.setAdapter(adapter);
             playTypeSpinner.setOnItemSelectedListener(new SpinnerEventListener());
 
+            variantSpinner = findViewById(R.id.variantSpinner);
+            ArrayAdapter<CharSequence> variantAdapter = ArrayAdapter.createFromResource(this,
+                    R.array.variant_array, android.R.layout.simple_spinner_item);
+
+            variantAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            variantSpinner.setAdapter(variantAdapter);
+            variantSpinner.setOnItemSelectedListener(new SpinnerEventListener());
+
+            difficultySpinner = findViewById(R.id.difficultySpinner);
+            ArrayAdapter<CharSequence> difficultyAdapter = ArrayAdapter.createFromResource(this,
+                    R.array.difficulty_array, android.R.layout.simple_spinner_item);
+
+            difficultyAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            difficultySpinner.setAdapter(difficultyAdapter);
+            difficultySpinner.setOnItemSelectedListener(new SpinnerEventListener());
+
             isComputerSwitch = findViewById(R.id.isComputerSwitch);
             isComputerSwitch.setOnCheckedChangeListener(new SwitchEventListener());
 
             startButton = findViewById(R.id.gameStartButton);
             startButton.setOnClickListener(new ButtonEventListener());
+
+            statsButton = findViewById(R.id.statsButton);
+            statsButton.setOnClickListener(new ButtonEventListener());
     }
 
     /**
@@ -113,7 +151,7 @@ public class OptionsActivity extends Activity {
             else if(((EditText)v).getId() == player2GetNameInput.getId()){
                 Editor prefEditor = savedPref.edit();
                 prefEditor.putString("cP2Name", player2GetNameInput.getText().toString());
-                prefEditor.commit();
+                prefEditor.apply();
             }
             return false;
         }
@@ -130,9 +168,12 @@ public class OptionsActivity extends Activity {
             // they play against a computer or not.
             // if it isn't checked there is no computer
             if (!isChecked){
-                // if it is not checked make all player 2 customs visible
+                // if it is not checked make all player 2 customs visible, and the computer's
+                // difficulty takes their place otherwise
                 player2GetNameLabel.setVisibility(View.VISIBLE);
                 player2GetNameInput.setVisibility(View.VISIBLE);
+                difficultyLabel.setVisibility(View.INVISIBLE);
+                difficultySpinner.setVisibility(View.INVISIBLE);
                 // just so that they don't need to type, if there was a name that was used before
                 // make it that name
                 player2GetNameInput.setText(savedPref.getString("cP2Name", "Player 2"));
@@ -142,11 +183,41 @@ public class OptionsActivity extends Activity {
             else{
                 player2GetNameLabel.setVisibility(View.INVISIBLE);
                 player2GetNameInput.setVisibility(View.INVISIBLE);
+                difficultyLabel.setVisibility(View.VISIBLE);
+                difficultySpinner.setVisibility(View.VISIBLE);
                 isComputer = true;
+                loadSolutionTable();
             }
         }
     }
 
+    /**
+     * This method loads the solved game table from the assets the first time the computer is
+     * turned on. The table is memory-mapped, so it is not copied onto the heap. If the asset is stale
+     * or damaged, the computer will search for its moves instead.
+     */
+    private void loadSolutionTable(){
+        if (SolutionTable.getLoaded() != null){
+            return;
+        }
+        try {
+            AssetFileDescriptor descriptor = getAssets().openFd(SolutionTable.ASSET_NAME);
+            FileInputStream input = descriptor.createInputStream();
+            try {
+                // the mapping stays valid after the file is closed
+                MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                        descriptor.getStartOffset(), descriptor.getLength());
+                SolutionTable.setLoaded(SolutionTable.load(buffer));
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (IOException e){
+            Log.w(TAG, "Could not load the solution table, the computer will search instead", e);
+        }
+    }
+
     /**
      * This class handles all actions made in a Spinner
      */
@@ -154,7 +225,18 @@ public class OptionsActivity extends Activity {
 
         @Override
         public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-            // There is only one spinner, so the playType will change if the user changed it.
+            // The variant spinner only changes which board is played.
+            if (parent.getId() == R.id.variantSpinner){
+                variant = position;
+                return;
+            }
+            // The difficulty spinner only changes how strong the computer plays.
+            if (parent.getId() == R.id.difficultySpinner){
+                difficulty = position;
+                return;
+            }
+            // Otherwise it is the play type spinner, so the playType will change if the user
+            // changed it.
             playType = position;
 
             changeType(position);
@@ -201,25 +283,22 @@ public class OptionsActivity extends Activity {
 
         @Override
         public void onClick(View v) {
-            // There is only one button, so when clicked it switches to the game activity with all
-            // the customs made in the options menu.
+            // The stats button only shows the statistics screen.
+            if (v.getId() == R.id.statsButton){
+                startActivity(new Intent(getActivity(), StatsActivity.class));
+                return;
+            }
+            // Otherwise it is the start button, so it switches to the game activity with all the
+            // customs made in the options menu.
             Intent intent = new Intent(getActivity(), GameBoardActivity.class);
-            // I couldn't find any other way to reset the entire game board, so I just changes all
-            // the variables that the game activity would use into the default values of the first
-            // game
+            // The game activity loads the saved game record, so replacing it with the record of a
+            // new game resets the entire game board.
             Editor prefEditor = savedPref.edit();
-            prefEditor.putInt("p1Points", 0);
-            prefEditor.putInt("p2Points", 0);
-            prefEditor.putString("message", "Round 1");
-            prefEditor.putInt("roundNumber", 0);
-            prefEditor.putInt("turnNumber", 0);
-            prefEditor.putBoolean("p1Turn", true);
-            for (int x = 0; x < 3; x++){
-                for (int y = 0; y < 3; y++){
-                    prefEditor.putString("button" + x + y, "");
-                }
-            }
-            prefEditor.commit();
+            GameRecord record = GameRecord.newGame(Variant.fromPreset(variant), playType,
+                    Integer.parseInt(gameEndPrincipleInput.getText().toString()));
+            prefEditor.putString(GameBoardActivity.GAME_KEY, record.encode());
+            prefEditor.putInt("variant", variant);
+            prefEditor.apply();
             // the game has started so if the user reboots, it takes it them to the game board
             // automatically.
             newGame = true;
@@ -241,19 +320,28 @@ public class OptionsActivity extends Activity {
         player1GetNameInput.setText(savedPref.getString("p1Name", "Player 1"));
         isComputer = savedPref.getBoolean("isComputer", false);
         if(isComputer) {
+            loadSolutionTable();
             isComputerSwitch.setChecked(true);
             player2GetNameLabel.setVisibility(View.INVISIBLE);
             player2GetNameInput.setVisibility(View.INVISIBLE);
+            difficultyLabel.setVisibility(View.VISIBLE);
+            difficultySpinner.setVisibility(View.VISIBLE);
         }
         else{
             isComputerSwitch.setChecked(false);
             player2GetNameInput.setVisibility(View.VISIBLE);
             player2GetNameInput.setText(savedPref.getString("p2Name", "Player 2"));
             player2GetNameLabel.setVisibility(View.VISIBLE);
+            difficultyLabel.setVisibility(View.INVISIBLE);
+            difficultySpinner.setVisibility(View.INVISIBLE);
         }
         playType = savedPref.getInt("playType", 0);
         playTypeSpinner.setSelection(playType);
         changeType(playType);
+        variant = savedPref.getInt("variant", 0);
+        variantSpinner.setSelection(variant);
+        difficulty = savedPref.getInt("difficulty", Difficulty.DEFAULT_PRESET);
+        difficultySpinner.setSelection(difficulty);
 
         if (savedPref.getBoolean("newGame", false)){
             Intent intent = new Intent(getActivity(), GameBoardActivity.class);
@@ -278,9 +366,10 @@ public class OptionsActivity extends Activity {
 
         prefEditor.putBoolean("newGame", newGame);
         prefEditor.putInt("playType", playType);
+        prefEditor.putInt("difficulty", difficulty);
         prefEditor.putInt("principle", Integer.parseInt(gameEndPrincipleInput.getText().toString()));
 
-        prefEditor.commit();
+        prefEditor.apply();
         super.onPause();
     }
 }
@@ -0,0 +1,102 @@
+/**
+ * This activity shows the statistics of every player who has finished a round: their wins, losses
+ * and ties in total, by type of play, against the computer and by opening move on the classic
+ * board. The numbers come from the stats index, so the screen opens instantly no matter how many
+ * rounds have been played. The index is shared with the game screen and read on the history's own
+ * thread, and the text is shown once it is ready.
+ */
+package com.example.jensu.tictactoe;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.TextView;
+
+import com.example.jensu.tictactoe.game.Variant;
+import com.example.jensu.tictactoe.history.StatsIndex;
+
+public class StatsActivity extends Activity {
+
+    private TextView statsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stats);
+
+        statsText = findViewById(R.id.statsText);
+    }
+
+    @Override
+    public void onResume(){
+        super.onResume();
+        MatchHistory.get(this).readStats(new MatchHistory.StatsReader() {
+            @Override
+            public void read(StatsIndex index){
+                final String text = index == null ? getString(R.string.no_stats) : describe(index);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run(){
+                        statsText.setText(text);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * This method writes out the statistics of every player.
+     * @param index the stats index
+     * @return String the text of the screen
+     */
+    private String describe(StatsIndex index){
+        if (index.getRounds() == 0){
+            return getString(R.string.no_stats);
+        }
+        String[] playTypes = getResources().getStringArray(R.array.play_type_array);
+        StringBuilder text = new StringBuilder();
+        text.append("Rounds: ").append(index.getRounds()).append("\n");
+        for (int player = 0; player < index.getPlayerCount(); player++){
+            text.append("\n").append(index.getPlayerName(player)).append("\n");
+            text.append("  Total: ").append(results(index, player, -1)).append("\n");
+            for (int playType = 0; playType < StatsIndex.PLAY_TYPES; playType++){
+                text.append("  ").append(playTypes[playType]).append(": ")
+                        .append(results(index, player, playType)).append("\n");
+            }
+            if (index.getComputerResults(player, StatsIndex.WIN)
+                    + index.getComputerResults(player, StatsIndex.LOSS)
+                    + index.getComputerResults(player, StatsIndex.TIE) > 0){
+                text.append("  Against the computer: ")
+                        .append(index.getComputerResults(player, StatsIndex.WIN)).append(" W / ")
+                        .append(index.getComputerResults(player, StatsIndex.LOSS)).append(" L / ")
+                        .append(index.getComputerResults(player, StatsIndex.TIE)).append(" T\n");
+            }
+            // the opening moves are only listed for the classic board, bigger boards have too many
+            for (int cell = 0; cell < Variant.CLASSIC.getCells(); cell++){
+                int wins = index.getOpeningResults(player, Variant.CLASSIC, cell, StatsIndex.WIN);
+                int losses = index.getOpeningResults(player, Variant.CLASSIC, cell,
+                        StatsIndex.LOSS);
+                int ties = index.getOpeningResults(player, Variant.CLASSIC, cell, StatsIndex.TIE);
+                if (wins + losses + ties > 0){
+                    text.append("  Opening ").append(cell / 3 + 1).append(",").append(cell % 3 + 1)
+                            .append(": ").append(wins).append(" W / ").append(losses)
+                            .append(" L / ").append(ties).append(" T\n");
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @param playType the type of play, or -1 for all of them
+     * @return String the wins, losses and ties of the player
+     */
+    private static String results(StatsIndex index, int player, int playType){
+        int[] counts = new int[3];
+        for (int result = StatsIndex.WIN; result <= StatsIndex.TIE; result++){
+            counts[result] = playType < 0 ? index.getResults(player, result)
+                    : index.getPlayTypeResults(player, playType, result);
+        }
+        return counts[StatsIndex.WIN] + " W / " + counts[StatsIndex.LOSS] + " L / "
+                + counts[StatsIndex.TIE] + " T";
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * This class measures evaluations per second the way the search uses them: a move is made, the
+ * position is scored and the move is taken back. The full rescan reads every window of the board
+ * for each score, while the incremental evaluator only updates the windows through the move. Both
+ * make the move on the board too, so the difference is the evaluation alone.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.IncrementalEvaluator;
+import com.example.jensu.tictactoe.ai.WindowEvaluator;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EvaluatorBenchmark {
+
+    private static final int POSITIONS = 256;
+
+    @State(Scope.Thread)
+    public static class Evaluations {
+
+        @Param({Positions.GOMOKU, Positions.CONNECT_FOUR})
+        public String variant;
+
+        GridBoard[] boards;
+        // moves[i] is an empty cell of boards[i] that does not end the game
+        int[] moves;
+        WindowEvaluator rescan;
+        IncrementalEvaluator[] incremental;
+
+        @Setup
+        public void setUp(){
+            boards = Positions.openPositions(Variant.parse(variant), POSITIONS);
+            moves = new int[POSITIONS];
+            rescan = new WindowEvaluator();
+            incremental = new IncrementalEvaluator[POSITIONS];
+            Random random = new Random(Positions.SEED);
+            for (int i = 0; i < POSITIONS; i++){
+                GridBoard board = boards[i];
+                int cell;
+                do {
+                    cell = random.nextInt(board.getCells());
+                }
+                while (!board.isEmpty(cell) || board.isLineThrough(cell, board.getSideToMove()));
+                moves[i] = cell;
+                // each evaluator follows one board, the way each search has its own
+                incremental[i] = new IncrementalEvaluator();
+                incremental[i].reset(board);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int fullRescan(Evaluations state){
+        int total = 0;
+        for (int i = 0; i < POSITIONS; i++){
+            GridBoard board = state.boards[i];
+            board.play(state.moves[i]);
+            total += state.rescan.evaluate(board);
+            board.undo();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int incremental(Evaluations state){
+        int total = 0;
+        for (int i = 0; i < POSITIONS; i++){
+            GridBoard board = state.boards[i];
+            IncrementalEvaluator evaluator = state.incremental[i];
+            int side = board.getSideToMove();
+            int cell = state.moves[i];
+            board.play(cell);
+            evaluator.play(cell, side);
+            total += evaluator.evaluate(board);
+            board.undo();
+            evaluator.undo(cell, side);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * This class keeps the original win check of the game screen, which read the text of the nine
+ * board buttons into a String grid and compared the strings. It is only kept so the benchmarks can
+ * show how it compares with the bitboard.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+final class LegacyWinCheck {
+
+    private LegacyWinCheck(){
+    }
+
+    /**
+     * This method checks if anyone has won the round. It returns "O" for player 1, "X" for player
+     * 2, "N" for when all spots are taken (tie), and "" for if there was no winner.
+     * @param grid the marks of the board, "O", "X" or ""
+     * @param turnCount how many marks are on the board
+     * @return String the winner, if there was none, ""
+     */
+    static String hasWon(String[][] grid, int turnCount){
+        // check all columns and rows for a winner.
+        for (int x = 0; x < 3; x++){
+            if (grid[x][0].equals(grid[x][1]) && grid[x][1].equals(grid[x][2]) && !grid[x][0].equals("")){
+                return grid[x][0];
+            }
+            if (grid[0][x].equals(grid[1][x]) && grid[1][x].equals(grid[2][x]) && !grid[0][x].equals("")){
+                return grid[0][x];
+            }
+        }
+        // check diagonals
+        if (grid[0][0].equals(grid[1][1]) && grid[1][1].equals(grid[2][2]) && !grid[0][0].equals("")){
+            return grid[0][0];
+        }
+        if (grid[2][0].equals(grid[1][1]) && grid[1][1].equals(grid[0][2]) && !grid[2][0].equals("")){
+            return grid[2][0];
+        }
+        // check if there are any spots left
+        if (turnCount == 9){
+            return "N";
+        }
+        // if nothing in met above, no one won
+        return "";
+    }
+}
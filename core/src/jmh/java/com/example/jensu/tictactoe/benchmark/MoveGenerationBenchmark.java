@@ -0,0 +1,127 @@
+/**
+ * This class measures how long it takes to list the empty cells of a position, once by looking at
+ * every cell and once by scanning the bitsets of both sides a word at a time. The classic bitboard
+ * is measured on its own. The time reported is for a single position.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveGenerationBenchmark {
+
+    private static final int POSITIONS = 256;
+
+    @State(Scope.Benchmark)
+    public static class GridPositions {
+
+        @Param({Positions.CLASSIC, Positions.FOUR, Positions.CONNECT_FOUR, Positions.GOMOKU})
+        public String variant;
+
+        GridBoard[] boards;
+        int[] moves;
+
+        @Setup
+        public void setUp(){
+            Variant parsed = Variant.parse(variant);
+            boards = Positions.openPositions(parsed, POSITIONS);
+            moves = new int[parsed.getCells()];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ClassicPositions {
+
+        Board[] boards = new Board[POSITIONS];
+        int[] moves = new int[Board.CELLS];
+
+        @Setup
+        public void setUp(){
+            GridBoard[] positions = Positions.openPositions(Variant.CLASSIC, POSITIONS);
+            for (int i = 0; i < POSITIONS; i++){
+                boards[i] = new Board();
+                boards[i].setMasks((int) positions[i].getBits(GridBoard.PLAYER_1, 0),
+                        (int) positions[i].getBits(GridBoard.PLAYER_2, 0));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int gridCellScan(GridPositions positions){
+        int total = 0;
+        int[] moves = positions.moves;
+        for (GridBoard board : positions.boards){
+            int count = 0;
+            for (int cell = 0; cell < board.getCells(); cell++){
+                if (board.isEmpty(cell)){
+                    moves[count] = cell;
+                    count += 1;
+                }
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int gridBitScan(GridPositions positions){
+        int total = 0;
+        int[] moves = positions.moves;
+        for (GridBoard board : positions.boards){
+            int count = 0;
+            int cells = board.getCells();
+            for (int word = 0; word < board.getWords(); word++){
+                long empty = ~(board.getBits(GridBoard.PLAYER_1, word)
+                        | board.getBits(GridBoard.PLAYER_2, word));
+                int base = word * 64;
+                // the bits past the last cell are empty too, so the last word stops at the edge
+                while (empty != 0){
+                    int cell = base + Long.numberOfTrailingZeros(empty);
+                    if (cell >= cells){
+                        break;
+                    }
+                    moves[count] = cell;
+                    count += 1;
+                    empty &= empty - 1;
+                }
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int classicBitboard(ClassicPositions positions){
+        int total = 0;
+        int[] moves = positions.moves;
+        for (Board board : positions.boards){
+            int count = 0;
+            int empty = board.getEmptyMask();
+            while (empty != 0){
+                moves[count] = Integer.numberOfTrailingZeros(empty);
+                count += 1;
+                empty &= empty - 1;
+            }
+            total += count;
+        }
+        return total;
+    }
+}
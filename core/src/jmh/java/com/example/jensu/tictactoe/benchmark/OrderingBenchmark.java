@@ -0,0 +1,89 @@
+/**
+ * This class measures how much the killer moves and the history table save when the iterative
+ * deepening engine solves a position. Each position is solved to the end of the game from a cleared
+ * transposition table, once with the cells tried only from the centre outwards and once with the
+ * history ordering. Besides the time, the counters give the positions visited and the solves run;
+ * every solve of a position visits the same nodes, so nodes over solves is the size of its tree.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.AlphaBetaEngine;
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.DeepeningResult;
+import com.example.jensu.tictactoe.ai.TranspositionTable;
+import com.example.jensu.tictactoe.ai.WindowEvaluator;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+public class OrderingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Solve {
+
+        // The board size, then the moves played so far. All of them are draws with best play, so
+        // the whole tree has to be searched to prove it.
+        @Param({"4x4/4:5,6", "5x5/4:6,12,18,8,16,14,10", "5x5/4:12,13,7,17,11,6,18"})
+        public String position;
+
+        @Param({"centre", "history"})
+        public String ordering;
+
+        GridBoard board;
+        TranspositionTable table;
+
+        @Setup
+        public void setUp(){
+            String[] parts = position.split(":");
+            board = new GridBoard(Variant.parse(parts[0]));
+            for (String move : parts[1].split(",")){
+                board.play(Integer.parseInt(move));
+            }
+            table = new TranspositionTable(20);
+        }
+
+        @Setup(Level.Invocation)
+        public void clearTable(){
+            table.clear();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long nodes;
+        public long solves;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            nodes = 0;
+            solves = 0;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DeepeningResult solve(Solve state, Counters counters){
+        // a new engine each time, so no history is left over from the last solve
+        AlphaBetaEngine engine = new AlphaBetaEngine(state.table, new WindowEvaluator());
+        engine.setUseHistory(state.ordering.equals("history"));
+        DeepeningResult result = engine.search(state.board, Long.MAX_VALUE, CancelToken.NONE);
+        counters.nodes += result.getNodes();
+        counters.solves += 1;
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * This class measures how the parallel MCTS scales with threads. Each search runs a fixed number of
+ * playouts from the empty board, shared out evenly between the threads, and the result is reported
+ * as playouts per second. Root parallel threads share nothing, while tree parallel threads share one
+ * tree, so the two modes are measured at every thread count.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.ParallelMctsEngine;
+import com.example.jensu.tictactoe.ai.SearchResult;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelMctsBenchmark {
+
+    // divides evenly between 1, 2, 4 and 8 threads
+    private static final int PLAYOUTS = 16384;
+    // long enough that only the playout limit stops the search
+    private static final long NO_TIME_LIMIT = 60000;
+
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        @Param({"root", "tree"})
+        public String mode;
+
+        @Param({Positions.CONNECT_FOUR, Positions.GOMOKU})
+        public String variant;
+
+        ParallelMctsEngine engine;
+        GridBoard board;
+
+        @Setup
+        public void setUp(){
+            int parallelMode = mode.equals("root") ? ParallelMctsEngine.MODE_ROOT
+                    : ParallelMctsEngine.MODE_TREE;
+            engine = new ParallelMctsEngine(threads, parallelMode);
+            board = new GridBoard(Variant.parse(variant));
+        }
+
+        @TearDown
+        public void tearDown(){
+            engine.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PLAYOUTS)
+    public SearchResult playouts(Search state){
+        return state.engine.search(state.board, NO_TIME_LIMIT, PLAYOUTS, CancelToken.NONE);
+    }
+}
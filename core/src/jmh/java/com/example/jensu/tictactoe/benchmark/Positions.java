@@ -0,0 +1,64 @@
+/**
+ * This class makes the random positions the benchmarks run on. The seed is fixed, so every run and
+ * every commit measures exactly the same positions.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.util.Random;
+
+final class Positions {
+
+    static final long SEED = 20180115L;
+
+    // The preset board sizes, written the way Variant.parse reads them.
+    static final String CLASSIC = "3x3/3";
+    static final String FOUR = "4x4/4";
+    static final String CONNECT_FOUR = "7x6/4";
+    static final String GOMOKU = "15x15/5";
+
+    private Positions(){
+    }
+
+    /**
+     * This method plays random moves from the empty board until the given number of moves have been
+     * played or the game is over.
+     * @param variant the board size
+     * @param random the random numbers
+     * @param moves the most moves to play
+     * @return GridBoard the position
+     */
+    static GridBoard random(Variant variant, Random random, int moves){
+        GridBoard board = new GridBoard(variant);
+        while (board.getTurnCount() < moves && !board.isGameOver()){
+            int cell = random.nextInt(board.getCells());
+            if (board.isEmpty(cell)){
+                board.play(cell);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * This method makes positions that are not over yet, with between none and half of the board
+     * filled, so there are always moves to generate and search.
+     * @param variant the board size
+     * @param count how many positions to make
+     * @return GridBoard[] the positions
+     */
+    static GridBoard[] openPositions(Variant variant, int count){
+        Random random = new Random(SEED);
+        GridBoard[] positions = new GridBoard[count];
+        int made = 0;
+        while (made < count){
+            GridBoard board = random(variant, random, random.nextInt(variant.getCells() / 2 + 1));
+            if (!board.isGameOver()){
+                positions[made] = board;
+                made += 1;
+            }
+        }
+        return positions;
+    }
+}
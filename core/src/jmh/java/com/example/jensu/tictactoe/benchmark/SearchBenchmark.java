@@ -0,0 +1,87 @@
+/**
+ * This class measures the engines. The negamax benchmarks solve the empty classic board, once with
+ * a cleared transposition table and once with the table left from the last solve. The MCTS
+ * benchmark runs a fixed number of playouts from the empty board of every size and reports
+ * playouts per second.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.MctsEngine;
+import com.example.jensu.tictactoe.ai.NegamaxEngine;
+import com.example.jensu.tictactoe.ai.SearchResult;
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+public class SearchBenchmark {
+
+    private static final int PLAYOUTS = 4096;
+    // long enough that only the playout limit stops the search
+    private static final long NO_TIME_LIMIT = 60000;
+
+    @State(Scope.Thread)
+    public static class Negamax {
+
+        NegamaxEngine engine;
+        Board board;
+
+        @Setup
+        public void setUp(){
+            engine = new NegamaxEngine();
+            board = new Board();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Mcts {
+
+        @Param({Positions.CLASSIC, Positions.FOUR, Positions.CONNECT_FOUR, Positions.GOMOKU})
+        public String variant;
+
+        MctsEngine engine;
+        GridBoard board;
+
+        @Setup
+        public void setUp(){
+            engine = new MctsEngine(MctsEngine.DEFAULT_CAPACITY, MctsEngine.DEFAULT_EXPLORATION,
+                    Positions.SEED);
+            board = new GridBoard(Variant.parse(variant));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SearchResult negamaxColdTable(Negamax state){
+        state.engine.getTable().clear();
+        return state.engine.search(state.board);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SearchResult negamaxWarmTable(Negamax state){
+        return state.engine.search(state.board);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(PLAYOUTS)
+    public SearchResult mctsPlayouts(Mcts state){
+        return state.engine.search(state.board, NO_TIME_LIMIT, PLAYOUTS, CancelToken.NONE);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * This class compares the threat-space search with the full-width alpha-beta engine on 15 x 15
+ * Gomoku positions where the side to move has a forced win in three of its own moves. The threat
+ * search stops at the shortest win. The alpha-beta engine searches the seven plies it takes to see
+ * the five in every line, from a cleared transposition table. That takes minutes per position, so
+ * it is timed just once, which is plenty to tell the two apart.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.AlphaBetaEngine;
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.DeepeningResult;
+import com.example.jensu.tictactoe.ai.ThreatResult;
+import com.example.jensu.tictactoe.ai.ThreatSpaceSearch;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+public class ThreatSearchBenchmark {
+
+    // the plies a full-width search needs to see a win in three attacker moves
+    private static final int ALPHA_BETA_DEPTH = 7;
+
+    @State(Scope.Thread)
+    public static class Position {
+
+        // The moves from the empty board, found by playing random moves near the centre.
+        @Param({"80,141,95,66,154,65,130,127,129,158,143,85,114,145,112,156",
+                "67,130,127,154,115,129,70,114,157,110,144,84,94,124,143,159",
+                "96,141,128,156,129,154,67,125,69,81,155,83,139,84,97,145"})
+        public String moves;
+
+        GridBoard board;
+        ThreatSpaceSearch threats;
+        AlphaBetaEngine alphaBeta;
+
+        @Setup
+        public void setUp(){
+            board = new GridBoard(Variant.parse(Positions.GOMOKU));
+            for (String move : moves.split(",")){
+                board.play(Integer.parseInt(move));
+            }
+            threats = new ThreatSpaceSearch();
+            alphaBeta = new AlphaBetaEngine();
+            alphaBeta.setDepthLimit(ALPHA_BETA_DEPTH);
+        }
+
+        @Setup(Level.Invocation)
+        public void clearTable(){
+            alphaBeta.getTable().clear();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ThreatResult threatSpace(Position state){
+        return state.threats.search(state.board, ThreatSpaceSearch.DEFAULT_DEPTH, Long.MAX_VALUE,
+                CancelToken.NONE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public DeepeningResult alphaBeta(Position state){
+        return state.alphaBeta.search(state.board, Long.MAX_VALUE, CancelToken.NONE);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * This class measures the cost of a transposition table probe that finds its position, a probe
+ * that misses, and a store. The small table fits in the cache and the large one does not, so the
+ * difference shows what the memory access costs. The time reported is for a single operation.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.ai.TranspositionTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TranspositionTableBenchmark {
+
+    private static final int KEYS = 4096;
+
+    @Param({"14", "22"})
+    public int sizeBits;
+
+    private TranspositionTable table;
+    private long[] storedHashes = new long[KEYS];
+    private long[] missingHashes = new long[KEYS];
+
+    @Setup
+    public void setUp(){
+        table = new TranspositionTable(sizeBits);
+        Random random = new Random(Positions.SEED);
+        for (int i = 0; i < KEYS; i++){
+            storedHashes[i] = random.nextLong();
+            missingHashes[i] = random.nextLong();
+        }
+        // stored after all the hashes are made, the ones that lost their slot just miss
+        for (int i = 0; i < KEYS; i++){
+            table.store(storedHashes[i], i % 9, 0, 1, TranspositionTable.BOUND_EXACT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long probeStored(){
+        long sum = 0;
+        for (long hash : storedHashes){
+            sum += table.probe(hash);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long probeMissing(){
+        long sum = 0;
+        for (long hash : missingHashes){
+            sum += table.probe(hash);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void store(){
+        for (int i = 0; i < KEYS; i++){
+            table.store(storedHashes[i], i % 9, 0, 1, TranspositionTable.BOUND_EXACT);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * This class measures how long it takes to find out if a round has been won. On the classic board
+ * the original String grid check is compared with the bitboard masks, and on every board size the
+ * check that only walks the lines through the last move is measured. Each benchmark checks the
+ * same random positions, some of them won, and reports the time of a single check.
+ */
+package com.example.jensu.tictactoe.benchmark;
+
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WinCheckBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @State(Scope.Benchmark)
+    public static class ClassicPositions {
+
+        String[][][] grids = new String[POSITIONS][][];
+        int[] turnCounts = new int[POSITIONS];
+        int[] player1Masks = new int[POSITIONS];
+        int[] player2Masks = new int[POSITIONS];
+
+        @Setup
+        public void setUp(){
+            Random random = new Random(Positions.SEED);
+            for (int i = 0; i < POSITIONS; i++){
+                GridBoard board = Positions.random(Variant.CLASSIC, random, random.nextInt(10));
+                // new Strings, like the button texts were, so equals cannot stop at the reference
+                grids[i] = new String[3][3];
+                for (int x = 0; x < 3; x++){
+                    for (int y = 0; y < 3; y++){
+                        int side = board.get(Board.index(x, y));
+                        grids[i][x][y] = new String(side == GridBoard.PLAYER_1 ? "O"
+                                : side == GridBoard.PLAYER_2 ? "X" : "");
+                    }
+                }
+                turnCounts[i] = board.getTurnCount();
+                player1Masks[i] = (int) board.getBits(GridBoard.PLAYER_1, 0);
+                player2Masks[i] = (int) board.getBits(GridBoard.PLAYER_2, 0);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GridPositions {
+
+        @Param({Positions.CLASSIC, Positions.FOUR, Positions.CONNECT_FOUR, Positions.GOMOKU})
+        public String variant;
+
+        GridBoard[] boards = new GridBoard[POSITIONS];
+
+        @Setup
+        public void setUp(){
+            Random random = new Random(Positions.SEED);
+            Variant parsed = Variant.parse(variant);
+            for (int i = 0; i < POSITIONS; i++){
+                // at least one move, so there is a last move to check through
+                boards[i] = Positions.random(parsed, random, 1 + random.nextInt(parsed.getCells()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void legacyStringGrid(ClassicPositions positions, Blackhole blackhole){
+        for (int i = 0; i < POSITIONS; i++){
+            blackhole.consume(LegacyWinCheck.hasWon(positions.grids[i], positions.turnCounts[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void bitboardMasks(ClassicPositions positions, Blackhole blackhole){
+        for (int i = 0; i < POSITIONS; i++){
+            blackhole.consume(Board.isWinningMask(positions.player1Masks[i])
+                    || Board.isWinningMask(positions.player2Masks[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void gridLinesThroughLastMove(GridPositions positions, Blackhole blackhole){
+        for (GridBoard board : positions.boards){
+            // the last move was made by the side that is not to move
+            blackhole.consume(board.isLineThrough(board.getLastMove(), 1 - board.getSideToMove()));
+        }
+    }
+}
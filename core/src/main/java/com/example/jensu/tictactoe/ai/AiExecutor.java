@@ -0,0 +1,179 @@
+/**
+ * This class runs the computer's searches on a background thread, so the screen never freezes
+ * while the computer thinks. The chosen move is handed back through a callback on the executor
+ * the caller gives (the UI thread in the app).
+ *
+ * Only one search runs at a time. Starting a new one or calling cancel() stops the old one
+ * cooperatively through its CancelToken, and a cancelled search never calls its callback, even if it
+ * had already finished.
+ *
+ * The executor can also ponder: run a task on the same thread while the human is thinking. Pondering
+ * does not count as thinking, and it is stopped as soon as a real search is submitted.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class AiExecutor {
+
+    /**
+     * This interface is the search to run. It should give up soon after the token is cancelled.
+     */
+    public interface Search {
+        SearchResult run(CancelToken token);
+    }
+
+    /**
+     * This interface is work done on the human's time. It should give up soon after the token is
+     * cancelled.
+     */
+    public interface Ponder {
+        void run(CancelToken token);
+    }
+
+    /**
+     * This interface receives the result of a search that was not cancelled.
+     */
+    public interface Callback {
+        /**
+         * @param result what the search found
+         * @param queueDelayNanos how long the search waited before the background thread started it
+         * @param thinkNanos how long the search itself ran
+         */
+        void onMove(SearchResult result, long queueDelayNanos, long thinkNanos);
+    }
+
+    private final ExecutorService worker;
+    private final Executor callbackExecutor;
+    // The search that is running or waiting. It is only read and written on the callback thread.
+    private Job current;
+    private CancelToken ponderToken;
+
+    /**
+     * @param callbackExecutor where callbacks run, and where submit and cancel must be called from
+     */
+    public AiExecutor(Executor callbackExecutor){
+        this.callbackExecutor = callbackExecutor;
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable){
+                Thread thread = new Thread(runnable, "computer-player");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * This method starts a search, cancelling the one that is running if there is one.
+     * @param search the search
+     * @param callback what to do with the result
+     */
+    public void submit(Search search, Callback callback){
+        cancel();
+        final Job job = new Job(search, callback);
+        current = job;
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                job.runSearch();
+            }
+        });
+    }
+
+    /**
+     * This method starts pondering, stopping any earlier pondering. It runs after the searches that
+     * were already submitted.
+     * @param ponder the work to do until it is cancelled
+     */
+    public void ponder(final Ponder ponder){
+        stopPondering();
+        final CancelToken token = new CancelToken();
+        ponderToken = token;
+        worker.execute(new Runnable() {
+            @Override
+            public void run(){
+                if (!token.isCancelled()){
+                    ponder.run(token);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method stops pondering, if the executor is pondering.
+     */
+    public void stopPondering(){
+        if (ponderToken != null){
+            ponderToken.cancel();
+            ponderToken = null;
+        }
+    }
+
+    /**
+     * This method stops the running search and any pondering. The search's callback will not be
+     * called.
+     */
+    public void cancel(){
+        stopPondering();
+        if (current != null){
+            current.token.cancel();
+            current = null;
+        }
+    }
+
+    /**
+     * @return boolean true if a search is running or its result has not been delivered yet
+     */
+    public boolean isThinking(){
+        return current != null;
+    }
+
+    /**
+     * This method cancels the running search and stops the background thread.
+     */
+    public void shutdown(){
+        cancel();
+        worker.shutdown();
+    }
+
+    private class Job {
+
+        private final Search search;
+        private final Callback callback;
+        private final CancelToken token = new CancelToken();
+        private final long submittedAt = System.nanoTime();
+
+        Job(Search search, Callback callback){
+            this.search = search;
+            this.callback = callback;
+        }
+
+        void runSearch(){
+            if (token.isCancelled()){
+                return;
+            }
+            long startedAt = System.nanoTime();
+            final SearchResult result = search.run(token);
+            final long queueDelay = startedAt - submittedAt;
+            final long think = System.nanoTime() - startedAt;
+            if (token.isCancelled()){
+                return;
+            }
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run(){
+                    // the job may have been cancelled while this was waiting to run
+                    if (current != Job.this){
+                        return;
+                    }
+                    current = null;
+                    callback.onMove(result, queueDelay, think);
+                }
+            });
+        }
+    }
+}
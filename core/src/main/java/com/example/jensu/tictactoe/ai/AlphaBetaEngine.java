@@ -0,0 +1,524 @@
+/**
+ * This class finds the computer's move on boards of any size with iterative deepening: it searches
+ * one ply deep, then two, and so on, with negamax and alpha-beta pruning, until the time runs out.
+ * The answer is always the best move of the deepest search that finished, so a search that is
+ * stopped at the deadline still gives back a sound move. Each iteration orders its moves from the
+ * one before: the principal variation, the line the last iteration expected, is tried first, and
+ * the transposition table remembers the best move of every other position. The search at the
+ * root starts with a narrow aspiration window around the last score, which cuts off much more,
+ * and is searched again with the full window if the score falls outside it.
+ *
+ * The rest of the moves are ordered by what caused cutoffs elsewhere in the tree. The history table
+ * adds up, for each side and cell, how often and how deep that move was good enough to cut the
+ * search off, and the moves are tried from the highest count down. Among equal counts the two
+ * killer moves of the ply, the last moves that refuted the opponent's move at that depth, go first,
+ * and the rest follow from the centre outwards. Trying the killers before everything else, as
+ * chess engines do, costs more nodes than it saves here: a cell that blocked one line is rarely
+ * what refutes the next move.
+ *
+ * Positions where the search stops before the game is over are scored by an Evaluator. On big
+ * boards only the empty cells near the marks already played are searched, since moves far from
+ * everything else are almost never good.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.util.Arrays;
+
+public class AlphaBetaEngine {
+
+    // A win is worth less the longer it takes, so the engine prefers quick wins and slow losses.
+    public static final int WIN_SCORE = 30000;
+    private static final int INFINITY = 32000;
+    // Scores this close to WIN_SCORE are wins or losses a number of moves away.
+    private static final int WIN_THRESHOLD = WIN_SCORE - 1000;
+
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+    public static final long UNLIMITED_NODES = Long.MAX_VALUE;
+    // Boards bigger than this only search the cells near the marks.
+    public static final int NEARBY_ONLY_CELLS = 49;
+    public static final int NEARBY_RADIUS = 2;
+
+    // How far either side of the last score the first window of an iteration reaches.
+    private static final int ASPIRATION_WINDOW = 50;
+    // The history counts are halved when one gets this big, so they never overflow.
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private long nodeLimit = UNLIMITED_NODES;
+    private int depthLimit = UNLIMITED_DEPTH;
+    private boolean useHistory = true;
+
+    private GridBoard scratch;
+    // centreOrder lists the cells from the centre outwards, the order moves are tried in
+    private int[] centreOrder;
+    // nearby[cell] counts the marks within NEARBY_RADIUS of the cell, or is unused if radius is 0
+    private int[] nearby;
+    private int radius;
+    // moves[ply] is the move list of the node at that ply
+    private int[][] moves;
+    // killers[ply] holds the two latest moves that caused a cutoff at that ply, or -1
+    private int[][] killers;
+    // history[side][cell] grows with every cutoff the side's move to the cell causes
+    private int[][] history;
+    private int[][] pv;
+    private int[] pvLength;
+    private int[] previousPv = new int[0];
+    // the hash of the position two moves down the last principal variation
+    private long carriedHash;
+
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private CancelToken token = CancelToken.NONE;
+
+    public AlphaBetaEngine(){
+        this(new TranspositionTable(20), new IncrementalEvaluator());
+    }
+
+    /**
+     * @param table the transposition table, it is kept between searches
+     * @param evaluator scores the positions where the search stops
+     */
+    public AlphaBetaEngine(TranspositionTable table, Evaluator evaluator){
+        this.table = table;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * This method searches deeper and deeper until the time runs out, the game is solved, the depth
+     * limit is reached or the token is cancelled. The board is not changed.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param token the token that can cancel the search
+     * @return DeepeningResult the best move of the deepest finished iteration, marked incomplete
+     * only if the search was cancelled
+     */
+    public DeepeningResult search(GridBoard board, long budgetMillis, CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        deadline = budgetMillis >= Long.MAX_VALUE / 1000000L ? Long.MAX_VALUE
+                : start + budgetMillis * 1000000L;
+        this.token = token;
+        nodes = 0;
+        aborted = false;
+        table.newSearch();
+        prepare(board);
+        // the killers were found at other plies, and old history counts should not outweigh new
+        for (int[] slots : killers){
+            Arrays.fill(slots, -1);
+        }
+        ageHistory();
+
+        int empty = board.getCells() - board.getTurnCount();
+        int maxDepth = Math.min(empty, depthLimit);
+        long[] iterationNodes = new long[maxDepth];
+        int bestMove = -1;
+        int bestScore = 0;
+        int depth = 0;
+        int researches = 0;
+        while (depth < maxDepth && !token.isCancelled()){
+            int nextDepth = depth + 1;
+            long iterationStart = System.nanoTime();
+            long nodesBefore = nodes;
+            // each iteration takes several times as long as the one before, so one started in the
+            // second half of the budget would almost never finish and is not started
+            if (depth > 0 && deadline != Long.MAX_VALUE
+                    && iterationStart - start > (deadline - start) / 2){
+                break;
+            }
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (depth > 0 && Math.abs(bestScore) < WIN_THRESHOLD){
+                alpha = bestScore - ASPIRATION_WINDOW;
+                beta = bestScore + ASPIRATION_WINDOW;
+            }
+            int score = negamax(nextDepth, 0, alpha, beta, true);
+            if (!aborted && (score <= alpha || score >= beta)){
+                researches += 1;
+                score = negamax(nextDepth, 0, -INFINITY, INFINITY, true);
+            }
+            if (aborted){
+                break;
+            }
+            depth = nextDepth;
+            bestScore = score;
+            bestMove = pv[0][0];
+            previousPv = Arrays.copyOf(pv[0], pvLength[0]);
+            iterationNodes[depth - 1] = nodes - nodesBefore;
+            // a proven win or loss does not change with more depth
+            if (Math.abs(bestScore) > WIN_THRESHOLD){
+                break;
+            }
+        }
+        if (bestMove < 0){
+            // not even one ply finished, so play the first move that would have been searched
+            generateMoves(0, TranspositionTable.moveOf(table.probe(board.getHash())), -1);
+            bestMove = moves[0][1];
+        }
+        carriedHash = 0;
+        if (previousPv.length >= 3){
+            scratch.play(previousPv[0]);
+            scratch.play(previousPv[1]);
+            carriedHash = scratch.getHash();
+        }
+        return new DeepeningResult(bestMove, bestScore, nodes, System.nanoTime() - start,
+                !token.isCancelled(), depth, Arrays.copyOf(iterationNodes, depth), researches,
+                previousPv.clone());
+    }
+
+    /**
+     * This method copies the board and sets up the move order and the arrays for its variant.
+     */
+    private void prepare(GridBoard board){
+        Variant variant = board.getVariant();
+        if (scratch == null || !scratch.getVariant().equals(variant)){
+            scratch = new GridBoard(variant);
+            centreOrder = centreOrder(variant);
+            nearby = new int[variant.getCells()];
+            moves = new int[variant.getCells() + 1][variant.getCells() + 1];
+            pv = new int[variant.getCells() + 1][variant.getCells() + 1];
+            pvLength = new int[variant.getCells() + 1];
+            killers = new int[variant.getCells() + 1][2];
+            history = new int[2][variant.getCells()];
+            previousPv = new int[0];
+        }
+        scratch.copyFrom(board);
+        evaluator.reset(scratch);
+        radius = variant.getCells() > NEARBY_ONLY_CELLS ? NEARBY_RADIUS : 0;
+        if (radius > 0){
+            Arrays.fill(nearby, 0);
+            for (int cell = 0; cell < scratch.getCells(); cell++){
+                if (!scratch.isEmpty(cell)){
+                    markNearby(cell, 1);
+                }
+            }
+        }
+        // the line from the last search still applies if the moves since were the ones it expected
+        if (board.getHash() != carriedHash || previousPv.length < 3){
+            previousPv = new int[0];
+        }
+        else {
+            previousPv = Arrays.copyOfRange(previousPv, 2, previousPv.length);
+        }
+    }
+
+    /**
+     * @return int[] the cells sorted by their distance from the centre of the board
+     */
+    static int[] centreOrder(Variant variant){
+        final int rows = variant.getRows();
+        final int cols = variant.getCols();
+        Integer[] cells = new Integer[variant.getCells()];
+        for (int cell = 0; cell < cells.length; cell++){
+            cells[cell] = cell;
+        }
+        // doubled coordinates, so the centre of an even board is a whole number
+        Arrays.sort(cells, new java.util.Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b){
+                return distance(a) - distance(b);
+            }
+
+            private int distance(int cell){
+                int dx = 2 * (cell / cols) - (rows - 1);
+                int dy = 2 * (cell % cols) - (cols - 1);
+                return dx * dx + dy * dy;
+            }
+        });
+        int[] order = new int[cells.length];
+        for (int i = 0; i < cells.length; i++){
+            order[i] = cells[i];
+        }
+        return order;
+    }
+
+    private void markNearby(int cell, int change){
+        int cols = scratch.getCols();
+        int x = cell / cols;
+        int y = cell % cols;
+        for (int nx = Math.max(0, x - radius); nx <= Math.min(scratch.getRows() - 1, x + radius);
+             nx++){
+            for (int ny = Math.max(0, y - radius); ny <= Math.min(cols - 1, y + radius); ny++){
+                nearby[nx * cols + ny] += change;
+            }
+        }
+    }
+
+    private void play(int cell){
+        int side = scratch.getSideToMove();
+        scratch.play(cell);
+        evaluator.play(cell, side);
+        if (radius > 0){
+            markNearby(cell, 1);
+        }
+    }
+
+    private void undo(){
+        int cell = scratch.undo();
+        evaluator.undo(cell, scratch.getSideToMove());
+        if (radius > 0){
+            markNearby(cell, -1);
+        }
+    }
+
+    /**
+     * This method fills moves[ply] with the moves to try, in order: the move from the table, the
+     * move of the last principal variation, then the rest by their history counts, with the killer
+     * moves first and then from the centre outwards where the counts are equal.
+     * @return int how many moves there are, they start at moves[ply][1]
+     */
+    private int generateMoves(int ply, int hashMove, int pvMove){
+        int[] list = moves[ply];
+        int count = 0;
+        if (hashMove >= 0 && scratch.isEmpty(hashMove)){
+            count += 1;
+            list[count] = hashMove;
+        }
+        if (pvMove >= 0 && pvMove != hashMove && scratch.isEmpty(pvMove)){
+            count += 1;
+            list[count] = pvMove;
+        }
+        int first = count + 1;
+        int killer1 = -1;
+        int killer2 = -1;
+        if (useHistory){
+            killer1 = killers[ply][0];
+            killer2 = killers[ply][1];
+            if (isCandidate(killer1) && killer1 != hashMove && killer1 != pvMove){
+                count += 1;
+                list[count] = killer1;
+            }
+            if (isCandidate(killer2) && killer2 != hashMove && killer2 != pvMove){
+                count += 1;
+                list[count] = killer2;
+            }
+        }
+        for (int cell : centreOrder){
+            if (isCandidate(cell) && cell != hashMove && cell != pvMove && cell != killer1
+                    && cell != killer2){
+                count += 1;
+                list[count] = cell;
+            }
+        }
+        if (useHistory){
+            // an insertion sort keeps the killers and the centre order among equal counts
+            int[] counts = history[scratch.getSideToMove()];
+            for (int i = first + 1; i <= count; i++){
+                int cell = list[i];
+                int j = i - 1;
+                while (j >= first && counts[list[j]] < counts[cell]){
+                    list[j + 1] = list[j];
+                    j -= 1;
+                }
+                list[j + 1] = cell;
+            }
+        }
+        if (count == 0){
+            // an empty board has no marks to be near, so it starts in the centre
+            count = 1;
+            list[1] = centreOrder[0];
+        }
+        list[0] = count;
+        return count;
+    }
+
+    /**
+     * @return boolean true if the cell is empty and, on big boards, near a mark
+     */
+    private boolean isCandidate(int cell){
+        return cell >= 0 && scratch.isEmpty(cell) && (radius == 0 || nearby[cell] > 0);
+    }
+
+    /**
+     * This method remembers a move that was good enough to cut the search off.
+     */
+    private void addCutoff(int ply, int depth, int cell){
+        if (killers[ply][0] != cell){
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = cell;
+        }
+        int[] counts = history[scratch.getSideToMove()];
+        // deep cutoffs save the most work, so they count the most
+        counts[cell] += depth * depth;
+        if (counts[cell] > HISTORY_LIMIT){
+            ageHistory();
+        }
+    }
+
+    private void ageHistory(){
+        for (int[] counts : history){
+            for (int cell = 0; cell < counts.length; cell++){
+                counts[cell] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * This method returns the score of the position for the side to move.
+     * @param depth how many more plies to search
+     * @param ply how many moves deep the search is
+     * @param alpha the score the side to move is already guaranteed
+     * @param beta the score the opponent is already guaranteed
+     * @param followPv true while every move so far is the last principal variation
+     * @return int the score
+     */
+    private int negamax(int depth, int ply, int alpha, int beta, boolean followPv){
+        nodes += 1;
+        pvLength[ply] = ply;
+        if (nodes > nodeLimit || ((nodes & 1023) == 0
+                && (token.isCancelled() || System.nanoTime() > deadline))){
+            aborted = true;
+            return 0;
+        }
+        // only the player who just moved can have made a line
+        if (scratch.getWinner() != GridBoard.EMPTY){
+            return -(WIN_SCORE - ply);
+        }
+        if (scratch.isFull()){
+            return 0;
+        }
+        if (depth == 0){
+            return evaluator.evaluate(scratch);
+        }
+
+        long hash = scratch.getHash();
+        int originalAlpha = alpha;
+        int hashMove = -1;
+        long entry = table.probe(hash);
+        if (entry != 0){
+            hashMove = TranspositionTable.moveOf(entry);
+            // the root always searches, so that it has a principal variation to give back
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth){
+                int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.BOUND_EXACT){
+                    return score;
+                }
+                if (bound == TranspositionTable.BOUND_LOWER && score > alpha){
+                    alpha = score;
+                }
+                else if (bound == TranspositionTable.BOUND_UPPER && score < beta){
+                    beta = score;
+                }
+                if (alpha >= beta){
+                    return score;
+                }
+            }
+        }
+
+        int pvMove = followPv && ply < previousPv.length ? previousPv[ply] : -1;
+        int count = generateMoves(ply, hashMove, pvMove);
+        int[] list = moves[ply];
+        int best = -INFINITY;
+        int bestMove = list[1];
+        for (int i = 1; i <= count; i++){
+            int cell = list[i];
+            play(cell);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, followPv && cell == pvMove);
+            undo();
+            if (aborted){
+                return 0;
+            }
+            if (score > best){
+                best = score;
+                bestMove = cell;
+            }
+            if (best > alpha){
+                alpha = best;
+                // the line through this move is the new principal variation
+                pv[ply][ply] = cell;
+                System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1,
+                        pvLength[ply + 1] - ply - 1);
+                pvLength[ply] = Math.max(ply + 1, pvLength[ply + 1]);
+            }
+            if (alpha >= beta){
+                if (useHistory){
+                    addCutoff(ply, depth, cell);
+                }
+                break;
+            }
+        }
+        if (ply == 0 && pvLength[0] == 0){
+            // every move failed low, so the best of them stands in for the line
+            pv[0][0] = bestMove;
+            pvLength[0] = 1;
+        }
+
+        int bound;
+        if (best <= originalAlpha){
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        else if (best >= beta){
+            bound = TranspositionTable.BOUND_LOWER;
+        }
+        else {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        table.store(hash, bestMove, toTable(best, ply), Math.min(depth, 255), bound);
+        return best;
+    }
+
+    /**
+     * Win and loss scores depend on how deep in the search they were found. In the table they are
+     * stored relative to the position itself so they can be reused at any depth.
+     */
+    private static int toTable(int score, int ply){
+        if (score > WIN_THRESHOLD){
+            return score + ply;
+        }
+        if (score < -WIN_THRESHOLD){
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply){
+        if (score > WIN_THRESHOLD){
+            return score - ply;
+        }
+        if (score < -WIN_THRESHOLD){
+            return score + ply;
+        }
+        return score;
+    }
+
+    public long getNodeLimit(){
+        return nodeLimit;
+    }
+
+    /**
+     * @param nodeLimit the most positions a single search may visit, or UNLIMITED_NODES
+     */
+    public void setNodeLimit(long nodeLimit){
+        this.nodeLimit = nodeLimit;
+    }
+
+    public int getDepthLimit(){
+        return depthLimit;
+    }
+
+    /**
+     * @param depthLimit the deepest iteration, or UNLIMITED_DEPTH
+     */
+    public void setDepthLimit(int depthLimit){
+        this.depthLimit = depthLimit;
+    }
+
+    /**
+     * @param useHistory false to order the moves only from the centre outwards, which is only
+     *                   useful to measure how much the killer moves and history counts save
+     */
+    public void setUseHistory(boolean useHistory){
+        this.useHistory = useHistory;
+    }
+
+    public TranspositionTable getTable(){
+        return table;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * This class finds the computer's move on boards bigger than the classic one. A quarter of the
+ * level's time goes to looking for a forced win through threats, as many threats deep as the level
+ * looks ahead, and the rest to iterative deepening if there is none. Both searches keep their
+ * tables between moves, sized for the level, so the game screen and the tournament tool play the
+ * same computer by sharing this class.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+public class BigBoardSearch {
+
+    private final Difficulty level;
+    private final AlphaBetaEngine deepeningEngine;
+    private final ThreatSpaceSearch threatSearch;
+
+    /**
+     * @param level how strong the computer plays
+     */
+    public BigBoardSearch(Difficulty level){
+        this.level = level;
+        deepeningEngine = level.createDeepeningEngine();
+        threatSearch = level.createThreatSearch();
+    }
+
+    /**
+     * This method finds the move within the level's time ceiling. The board is not changed.
+     * @param position the current position, the game must not be over
+     * @param token the token that can cancel the search
+     * @return SearchResult the move, a ThreatResult if it wins by threats
+     */
+    public SearchResult search(GridBoard position, CancelToken token){
+        long threatMillis = 0;
+        if (ThreatSpaceSearch.supports(position.getVariant())){
+            threatMillis = level.getMaxMillis() / 4;
+            ThreatResult threats = threatSearch.search(position,
+                    Math.min(level.getDepthLimit(), ThreatSpaceSearch.DEFAULT_DEPTH),
+                    threatMillis, token);
+            if (threats.isWin()){
+                return threats;
+            }
+        }
+        return deepeningEngine.search(position, level.getMaxMillis() - threatMillis, token);
+    }
+
+    public Difficulty getLevel(){
+        return level;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * This class lets another thread ask a running search to stop. The engines check the token every so
+ * often and give back what they have so far, marked as not complete.
+ */
+package com.example.jensu.tictactoe.ai;
+
+public class CancelToken {
+
+    // A token for searches that are never cancelled.
+    public static final CancelToken NONE = new CancelToken();
+
+    private volatile boolean cancelled;
+
+    public void cancel(){
+        if (this != NONE){
+            cancelled = true;
+        }
+    }
+
+    public boolean isCancelled(){
+        return cancelled;
+    }
+}
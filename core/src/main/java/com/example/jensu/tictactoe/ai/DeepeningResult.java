@@ -0,0 +1,76 @@
+/**
+ * This class is the result of an iterative deepening search, with what it took to get there: the
+ * deepest search that finished, the nodes of every iteration and the effective branching factor,
+ * which is how many times more nodes each extra ply costs.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class DeepeningResult extends SearchResult {
+
+    private final int depth;
+    private final long[] iterationNodes;
+    private final int researches;
+    private final int[] principalVariation;
+
+    /**
+     * @param move the best move of the deepest finished iteration
+     * @param score its score
+     * @param nodes the nodes of all iterations, including the one that was stopped
+     * @param elapsedNanos how long the whole search took
+     * @param complete false if the search was cancelled
+     * @param depth the depth of the deepest finished iteration, 0 if none finished
+     * @param iterationNodes the nodes of each finished iteration, from depth 1
+     * @param researches how many times an aspiration window failed and was searched again
+     * @param principalVariation the expected line of play from the position
+     */
+    public DeepeningResult(int move, int score, long nodes, long elapsedNanos, boolean complete,
+                           int depth, long[] iterationNodes, int researches,
+                           int[] principalVariation){
+        super(move, score, nodes, elapsedNanos, complete);
+        this.depth = depth;
+        this.iterationNodes = iterationNodes;
+        this.researches = researches;
+        this.principalVariation = principalVariation;
+    }
+
+    public int getDepth(){
+        return depth;
+    }
+
+    /**
+     * @param depth an iteration that finished, from 1
+     * @return long the nodes it took
+     */
+    public long getIterationNodes(int depth){
+        return iterationNodes[depth - 1];
+    }
+
+    /**
+     * @return double the nodes of the last finished iteration over the one before, or 0 if fewer
+     * than two finished
+     */
+    public double getEffectiveBranchingFactor(){
+        if (depth < 2 || iterationNodes[depth - 2] == 0){
+            return 0;
+        }
+        return (double) iterationNodes[depth - 1] / iterationNodes[depth - 2];
+    }
+
+    public int getResearches(){
+        return researches;
+    }
+
+    public int[] getPrincipalVariation(){
+        return principalVariation.clone();
+    }
+
+    @Override
+    public String toString(){
+        return super.toString() + " depth=" + depth + " ebf="
+                + String.format(Locale.ROOT, "%.2f", getEffectiveBranchingFactor())
+                + " researches=" + researches + " pv=" + Arrays.toString(principalVariation);
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * This class describes how strong the computer plays. Each level is a search budget rather than a
+ * different algorithm: how many positions or playouts the engine may visit, how many moves ahead
+ * negamax looks, how often the computer plays a random move instead of searching, and a hard time
+ * ceiling so a move never takes longer than that, even on a slow phone.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+import java.util.Random;
+
+public class Difficulty {
+
+    // The bounds of the transposition tables made for a level, as powers of 2.
+    private static final int MIN_TABLE_BITS = 10;
+    private static final int MAX_TABLE_BITS = 20;
+    private static final int MAX_THREAT_TABLE_BITS = 18;
+    // About how many positions the threat-space search visits in a millisecond, rounded up from a
+    // desktop JVM, so that a phone never fills its table faster.
+    private static final long THREAT_NODES_PER_MILLI = 300;
+
+    public static final Difficulty EASY = new Difficulty(50, 1, 0.35, 50);
+    public static final Difficulty MEDIUM = new Difficulty(500, 3, 0.15, 200);
+    public static final Difficulty HARD = new Difficulty(20000, 6, 0.03, 500);
+    public static final Difficulty PERFECT = new Difficulty(NegamaxEngine.DEFAULT_NODE_LIMIT,
+            NegamaxEngine.UNLIMITED_DEPTH, 0, 1000);
+
+    // The levels offered in the options menu, in the same order as R.array.difficulty_array.
+    public static final Difficulty[] PRESETS = {EASY, MEDIUM, HARD, PERFECT};
+    public static final int DEFAULT_PRESET = 3;
+
+    private final long nodeLimit;
+    private final int depthLimit;
+    private final double noise;
+    private final long maxMillis;
+
+    /**
+     * @param nodeLimit the most negamax positions or MCTS playouts per move
+     * @param depthLimit how many moves ahead negamax looks
+     * @param noise the chance of a random move, from 0 to 1
+     * @param maxMillis the longest a move may take, in milliseconds
+     */
+    public Difficulty(long nodeLimit, int depthLimit, double noise, long maxMillis){
+        if (nodeLimit < 1 || depthLimit < 1 || noise < 0 || noise > 1 || maxMillis < 1){
+            throw new IllegalArgumentException("Invalid difficulty");
+        }
+        this.nodeLimit = nodeLimit;
+        this.depthLimit = depthLimit;
+        this.noise = noise;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * @param position the position of the level in PRESETS
+     * @return Difficulty the preset, or PERFECT if the position is not valid
+     */
+    public static Difficulty fromPreset(int position){
+        if (position < 0 || position >= PRESETS.length){
+            return PERFECT;
+        }
+        return PRESETS[position];
+    }
+
+    /**
+     * This method makes a negamax engine that plays at this level.
+     * @return NegamaxEngine the engine, with its own transposition table
+     */
+    public NegamaxEngine createEngine(){
+        NegamaxEngine engine = new NegamaxEngine(nodeLimit);
+        engine.setDepthLimit(depthLimit);
+        engine.setTimeLimitMillis(maxMillis);
+        return engine;
+    }
+
+    /**
+     * This method makes an iterative deepening engine for boards bigger than the classic one.
+     * @return AlphaBetaEngine the engine, with its own transposition table of getTableBits()
+     */
+    public AlphaBetaEngine createDeepeningEngine(){
+        AlphaBetaEngine engine = new AlphaBetaEngine(new TranspositionTable(getTableBits()),
+                new IncrementalEvaluator());
+        engine.setNodeLimit(nodeLimit);
+        engine.setDepthLimit(depthLimit);
+        return engine;
+    }
+
+    /**
+     * This method makes a threat-space search for the boards with four to six in a row.
+     * @return ThreatSpaceSearch the search, with its own transposition table of getThreatTableBits()
+     */
+    public ThreatSpaceSearch createThreatSearch(){
+        return new ThreatSpaceSearch(new TranspositionTable(getThreatTableBits()));
+    }
+
+    /**
+     * One search visits at most nodeLimit positions, so the table has twice that many slots, and
+     * the easy levels need kilobytes instead of megabytes. Pondering searches many replies into the
+     * same table, and then the entries of older searches give way to the current one's.
+     * @return int the size of the deepening engine's transposition table, as a power of 2
+     */
+    public int getTableBits(){
+        return tableBits(2 * nodeLimit, MAX_TABLE_BITS);
+    }
+
+    /**
+     * The threat-space search has no node limit, only its quarter of maxMillis, and its table is
+     * cleared before every search. So the table has room for twice the positions it can visit in
+     * that time.
+     * @return int the size of the threat-space search's transposition table, as a power of 2
+     */
+    public int getThreatTableBits(){
+        return tableBits(2 * THREAT_NODES_PER_MILLI * (maxMillis / 4), MAX_THREAT_TABLE_BITS);
+    }
+
+    private static int tableBits(long entries, int maxBits){
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, entries - 1));
+        return Math.max(MIN_TABLE_BITS, Math.min(maxBits, bits));
+    }
+
+    /**
+     * This method decides if the next move is a random one. The decision is made before searching,
+     * so a random move costs nothing.
+     * @param random the random number generator
+     * @return boolean true if the computer should play randomMove() instead of searching
+     */
+    public boolean isRandomMove(Random random){
+        return noise > 0 && random.nextDouble() < noise;
+    }
+
+    /**
+     * @param board the position, the game must not be over
+     * @param random the random number generator
+     * @return int an empty cell, every one equally likely
+     */
+    public static int randomMove(GridBoard board, Random random){
+        int empty = board.getCells() - board.getTurnCount();
+        int pick = random.nextInt(empty);
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (board.isEmpty(cell)){
+                if (pick == 0){
+                    return cell;
+                }
+                pick -= 1;
+            }
+        }
+        throw new IllegalStateException("The board is full");
+    }
+
+    public long getNodeLimit(){
+        return nodeLimit;
+    }
+
+    public int getDepthLimit(){
+        return depthLimit;
+    }
+
+    public double getNoise(){
+        return noise;
+    }
+
+    public long getMaxMillis(){
+        return maxMillis;
+    }
+
+    /**
+     * @return boolean true if the computer never makes a mistake on purpose at this level, so it can
+     * use the solved game table
+     */
+    public boolean isPerfect(){
+        return noise == 0 && depthLimit >= NegamaxEngine.UNLIMITED_DEPTH;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * This interface scores a position that the search stops at before the game is over. Bigger boards
+ * cannot be searched to the end, so the search needs a guess of who is better. The search tells
+ * the evaluator about every move it makes and takes back, so an evaluator can keep its score up to
+ * date as it goes instead of reading the whole board again at every leaf.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+public interface Evaluator {
+
+    // Evaluations stay inside this range, well away from the win scores of the search.
+    int MAX_SCORE = 10000;
+
+    /**
+     * @param board the position, the game is not over
+     * @return int the score for the side to move, from -MAX_SCORE to MAX_SCORE
+     */
+    int evaluate(GridBoard board);
+
+    /**
+     * This method is called when a search starts, with the board it will play its moves on.
+     * @param board the position the search starts from
+     */
+    void reset(GridBoard board);
+
+    /**
+     * This method is called after a mark is placed on the board.
+     * @param cell the cell index
+     * @param side PLAYER_1 or PLAYER_2
+     */
+    void play(int cell, int side);
+
+    /**
+     * This method is called after the mark is taken back.
+     * @param cell the cell index
+     * @param side PLAYER_1 or PLAYER_2
+     */
+    void undo(int cell, int side);
+}
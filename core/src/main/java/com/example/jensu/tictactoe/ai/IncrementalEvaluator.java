@@ -0,0 +1,175 @@
+/**
+ * This class scores positions the same way as WindowEvaluator, by the windows of k cells that only
+ * one side has marks in, but keeps the score up to date move by move instead of rescanning the
+ * board. Every window has a pattern code, its k cells read as a base 3 number where a digit is 0
+ * for an empty cell, 1 for player 1 and 2 for player 2, and a lookup table made once per k holds
+ * the score of every code. A move changes only the windows through its cell, at most k in each of
+ * the four directions, so making or taking back a move takes O(4k) table lookups and evaluating is
+ * free.
+ *
+ * The table has 3^k entries, so for k above MAX_K the evaluator falls back to rescanning.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.util.Arrays;
+
+public class IncrementalEvaluator implements Evaluator {
+
+    // 3^12 codes are 2 MB of table, which is about as much as is worth it.
+    public static final int MAX_K = 12;
+
+    private Variant variant;
+    // codes[w] is the pattern code of window w
+    private int[] codes;
+    // scores[code] is the score for player 1 of a window with that code
+    private int[] scores;
+    // the windows through each cell, and the value of the cell's digit in each of them
+    private int[][] cellWindows;
+    private int[][] cellDigits;
+    private WindowEvaluator rescan;
+
+    // the sum of the window scores for player 1
+    private int total;
+    // the board that was reset and how many moves it had when last told about one
+    private GridBoard board;
+    private int turnCount;
+
+    @Override
+    public int evaluate(GridBoard board){
+        if (rescan != null){
+            return rescan.evaluate(board);
+        }
+        if (board != this.board || board.getTurnCount() != turnCount){
+            // the board changed without being told, so the codes are read off it again
+            reset(board);
+        }
+        int score = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, total));
+        return board.getSideToMove() == GridBoard.PLAYER_1 ? score : -score;
+    }
+
+    @Override
+    public void reset(GridBoard board){
+        if (!board.getVariant().equals(variant)){
+            prepare(board.getVariant());
+        }
+        this.board = board;
+        if (rescan != null){
+            return;
+        }
+        Arrays.fill(codes, 0);
+        total = 0;
+        turnCount = 0;
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (!board.isEmpty(cell)){
+                play(cell, board.get(cell));
+            }
+        }
+        turnCount = board.getTurnCount();
+    }
+
+    @Override
+    public void play(int cell, int side){
+        if (rescan != null){
+            return;
+        }
+        int digit = side == GridBoard.PLAYER_1 ? 1 : 2;
+        int[] windows = cellWindows[cell];
+        int[] digits = cellDigits[cell];
+        for (int i = 0; i < windows.length; i++){
+            int window = windows[i];
+            total -= scores[codes[window]];
+            codes[window] += digit * digits[i];
+            total += scores[codes[window]];
+        }
+        turnCount += 1;
+    }
+
+    @Override
+    public void undo(int cell, int side){
+        if (rescan != null){
+            return;
+        }
+        int digit = side == GridBoard.PLAYER_1 ? 1 : 2;
+        int[] windows = cellWindows[cell];
+        int[] digits = cellDigits[cell];
+        for (int i = 0; i < windows.length; i++){
+            int window = windows[i];
+            total -= scores[codes[window]];
+            codes[window] -= digit * digits[i];
+            total += scores[codes[window]];
+        }
+        turnCount -= 1;
+    }
+
+    /**
+     * This method finds the windows of the variant and makes the score table for its k.
+     */
+    private void prepare(Variant variant){
+        this.variant = variant;
+        int k = variant.getK();
+        if (k > MAX_K){
+            rescan = new WindowEvaluator();
+            return;
+        }
+        rescan = null;
+        int[][] windows = WindowEvaluator.findWindows(variant);
+        codes = new int[windows.length];
+        scores = scoreTable(k);
+
+        int[] counts = new int[variant.getCells()];
+        for (int[] window : windows){
+            for (int cell : window){
+                counts[cell] += 1;
+            }
+        }
+        cellWindows = new int[variant.getCells()][];
+        cellDigits = new int[variant.getCells()][];
+        for (int cell = 0; cell < counts.length; cell++){
+            cellWindows[cell] = new int[counts[cell]];
+            cellDigits[cell] = new int[counts[cell]];
+            counts[cell] = 0;
+        }
+        for (int w = 0; w < windows.length; w++){
+            int power = 1;
+            for (int cell : windows[w]){
+                cellWindows[cell][counts[cell]] = w;
+                cellDigits[cell][counts[cell]] = power;
+                counts[cell] += 1;
+                power *= 3;
+            }
+        }
+    }
+
+    /**
+     * @return int[] the score for player 1 of every window code of k cells
+     */
+    static int[] scoreTable(int k){
+        int size = 1;
+        for (int i = 0; i < k; i++){
+            size *= 3;
+        }
+        int[] table = new int[size];
+        for (int code = 0; code < size; code++){
+            int player1 = 0;
+            int player2 = 0;
+            for (int rest = code; rest > 0; rest /= 3){
+                if (rest % 3 == 1){
+                    player1 += 1;
+                }
+                else if (rest % 3 == 2){
+                    player2 += 1;
+                }
+            }
+            if (player2 == 0){
+                table[code] = WindowEvaluator.weight(player1);
+            }
+            else if (player1 == 0){
+                table[code] = -WindowEvaluator.weight(player2);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * This class keeps, for every cell of the board and each of the four directions, the pattern of
+ * the k - 1 cells on either side of it along that line, from the point of view of each side. A
+ * pattern is a 4(k - 1) bit key: one bit per neighbour for the side's own marks, and one for the
+ * cells that are blocked, either by the other side's marks or by the edge of the board. The cell
+ * itself is not part of the key.
+ *
+ * Playing or taking back a mark only changes the keys of the cells that can see it, which is
+ * 2(k - 1) cells in each direction, so the keys are kept up to date in O(k) per direction instead
+ * of being read off the board again. ThreatTable turns a key into the threat that playing the
+ * cell would make.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+final class LinePatterns {
+
+    static final int DIRECTIONS = 4;
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+
+    private final int rows;
+    private final int cols;
+    private final int cells;
+    private final int span;
+    // keys[side][direction * cells + cell] is the pattern around the cell
+    private final int[][] keys;
+
+    LinePatterns(Variant variant){
+        rows = variant.getRows();
+        cols = variant.getCols();
+        cells = variant.getCells();
+        span = variant.getK() - 1;
+        keys = new int[2][DIRECTIONS * cells];
+        clear();
+    }
+
+    /**
+     * This method empties the board, so only the edges block.
+     */
+    void clear(){
+        for (int d = 0; d < DIRECTIONS; d++){
+            for (int cell = 0; cell < cells; cell++){
+                int blocked = 0;
+                for (int offset = -span; offset <= span; offset++){
+                    if (offset != 0 && !isOnBoard(cell, d, offset)){
+                        blocked |= bit(offset);
+                    }
+                }
+                keys[GridBoard.PLAYER_1][d * cells + cell] = blocked << (2 * span);
+                keys[GridBoard.PLAYER_2][d * cells + cell] = blocked << (2 * span);
+            }
+        }
+    }
+
+    /**
+     * This method sets the keys to the marks on a board.
+     */
+    void load(GridBoard board){
+        clear();
+        for (int cell = 0; cell < cells; cell++){
+            if (!board.isEmpty(cell)){
+                play(cell, board.get(cell));
+            }
+        }
+    }
+
+    void play(int cell, int side){
+        update(cell, side, true);
+    }
+
+    void undo(int cell, int side){
+        update(cell, side, false);
+    }
+
+    private void update(int cell, int side, boolean set){
+        int[] own = keys[side];
+        int[] other = keys[side == GridBoard.PLAYER_1 ? GridBoard.PLAYER_2 : GridBoard.PLAYER_1];
+        int x = cell / cols;
+        int y = cell % cols;
+        for (int d = 0; d < DIRECTIONS; d++){
+            int base = d * cells;
+            for (int offset = -span; offset <= span; offset++){
+                // the neighbour that sees this cell at the given offset
+                int nx = x - offset * DIRECTION_ROWS[d];
+                int ny = y - offset * DIRECTION_COLS[d];
+                if (offset == 0 || nx < 0 || nx >= rows || ny < 0 || ny >= cols){
+                    continue;
+                }
+                int neighbour = base + nx * cols + ny;
+                int ownBit = bit(offset);
+                int blockedBit = ownBit << (2 * span);
+                if (set){
+                    own[neighbour] |= ownBit;
+                    other[neighbour] |= blockedBit;
+                }
+                else {
+                    own[neighbour] &= ~ownBit;
+                    other[neighbour] &= ~blockedBit;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return int the pattern around the cell along the direction, for the side
+     */
+    int key(int side, int direction, int cell){
+        return keys[side][direction * cells + cell];
+    }
+
+    /**
+     * @return int the cell at the offset from the given cell along the direction, which must be on
+     * the board
+     */
+    int cellAt(int cell, int direction, int offset){
+        return cell + offset * (DIRECTION_ROWS[direction] * cols + DIRECTION_COLS[direction]);
+    }
+
+    private boolean isOnBoard(int cell, int direction, int offset){
+        int x = cell / cols + offset * DIRECTION_ROWS[direction];
+        int y = cell % cols + offset * DIRECTION_COLS[direction];
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    /**
+     * @return int the bit of the neighbour at the offset, -span to span without 0
+     */
+    private int bit(int offset){
+        return 1 << (offset < 0 ? offset + span : offset + span - 1);
+    }
+}
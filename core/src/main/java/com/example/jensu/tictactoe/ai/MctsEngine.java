@@ -0,0 +1,323 @@
+/**
+ * This class finds a move on boards that are too big to search to the end, using Monte Carlo Tree
+ * Search. It grows a tree of moves, picking which branch to explore with UCT (the upper confidence
+ * bound applied to trees), and scores each new leaf by playing random moves until the game ends.
+ * When the time budget runs out it plays the root move that was explored the most.
+ *
+ * The tree is not made of node objects. Every node is an index into a set of int arrays that are
+ * allocated once, and the random games are played on a scratch board that is reset by copying, so
+ * a search does not allocate anything.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+public class MctsEngine {
+
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+    // How much UCT favours rarely visited moves over moves that have done well so far.
+    public static final double DEFAULT_EXPLORATION = 1.0;
+
+    private final int capacity;
+    private final double exploration;
+
+    // The node pool. The children of a node are stored next to each other, starting at
+    // firstChild[node]. Scores are in half points (win 2, draw 1, loss 0) for the player who
+    // played the node's move.
+    private final int[] moves;
+    private final int[] parents;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] visits;
+    private final int[] scores;
+    private int size;
+
+    private GridBoard scratch;
+    private int[] emptyCells;
+    private long randomState;
+
+    public MctsEngine(){
+        this(DEFAULT_CAPACITY, DEFAULT_EXPLORATION, System.nanoTime());
+    }
+
+    /**
+     * @param capacity the most nodes the tree can hold, the tree stops growing once it is full
+     * @param exploration the UCT exploration constant
+     * @param seed the seed of the random playouts
+     */
+    public MctsEngine(int capacity, double exploration, long seed){
+        this.capacity = capacity;
+        this.exploration = exploration;
+        moves = new int[capacity];
+        parents = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        visits = new int[capacity];
+        scores = new int[capacity];
+        // xorshift needs a state that is not 0
+        randomState = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    /**
+     * This method searches for a move until the time budget runs out. The board is not changed.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @return SearchResult the most explored move, its win rate in percent as the score, and the
+     * number of playouts as the nodes
+     */
+    public SearchResult search(GridBoard board, long budgetMillis){
+        return search(board, budgetMillis, CancelToken.NONE);
+    }
+
+    /**
+     * This method searches for a move until the time budget runs out or the token is cancelled.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param token the token that can cancel the search
+     * @return SearchResult the most explored move, marked incomplete if the search was cancelled
+     */
+    public SearchResult search(GridBoard board, long budgetMillis, CancelToken token){
+        return search(board, budgetMillis, Long.MAX_VALUE, token);
+    }
+
+    /**
+     * This method searches for a move until the time budget or the playout limit runs out, or the
+     * token is cancelled. The limit is checked every 16 playouts, so it can be passed by up to 15.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param playoutLimit the most playouts the search may run
+     * @param token the token that can cancel the search
+     * @return SearchResult the most explored move, marked incomplete if the search was cancelled
+     */
+    public SearchResult search(GridBoard board, long budgetMillis, long playoutLimit,
+                               CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1000000L;
+
+        // a move that wins now, or the only move that stops the opponent winning, needs no search
+        int forced = findForcedMove(board);
+        if (forced >= 0){
+            // the tree of the last position must not be taken for this one's
+            clearTree();
+            return new SearchResult(forced, 100, 0, System.nanoTime() - start, true);
+        }
+
+        if (scratch == null || !scratch.getVariant().equals(board.getVariant())){
+            scratch = new GridBoard(board.getVariant());
+            emptyCells = new int[board.getCells()];
+        }
+        size = 0;
+        int root = newNode(-1, -1);
+
+        long playouts = 0;
+        do {
+            scratch.copyFrom(board);
+            int node = root;
+            // selection: walk down the tree picking children with UCT
+            while (childCount[node] > 0){
+                node = select(node);
+                scratch.play(moves[node]);
+            }
+            // expansion: a leaf gets its children the second time it is reached
+            if (!scratch.isGameOver() && visits[node] > 0 && expand(node)){
+                node = firstChild[node] + nextInt(childCount[node]);
+                scratch.play(moves[node]);
+            }
+            // the player who played the leaf's move is the one who is not to move now
+            int mover = scratch.getSideToMove() ^ 1;
+            int winner = scratch.isGameOver() ? scratch.getWinner() : playout();
+            backPropagate(node, mover, winner);
+            playouts += 1;
+        } while ((playouts & 15) != 0 || (playouts < playoutLimit
+                && System.nanoTime() < deadline && !token.isCancelled()));
+
+        if (childCount[root] == 0){
+            // the pool was too small to even hold the root's children
+            return new SearchResult(firstEmptyCell(board), 0, playouts, System.nanoTime() - start,
+                    false);
+        }
+        int best = firstChild[root];
+        for (int child = firstChild[root]; child < firstChild[root] + childCount[root]; child++){
+            if (visits[child] > visits[best]){
+                best = child;
+            }
+        }
+        int score = visits[best] == 0 ? 0 : scores[best] * 50 / visits[best];
+        return new SearchResult(moves[best], score, playouts, System.nanoTime() - start,
+                !token.isCancelled());
+    }
+
+    /**
+     * @return int the cell of a move that wins at once, else the cell that blocks the opponent's
+     * win, else -1
+     */
+    static int findForcedMove(GridBoard board){
+        int side = board.getSideToMove();
+        int block = -1;
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (!board.isEmpty(cell)){
+                continue;
+            }
+            // isLineThrough treats the cell as already taken by the side it is asked about
+            if (board.isLineThrough(cell, side)){
+                return cell;
+            }
+            if (block == -1 && board.isLineThrough(cell, side ^ 1)){
+                block = cell;
+            }
+        }
+        return block;
+    }
+
+    private static int firstEmptyCell(GridBoard board){
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (board.isEmpty(cell)){
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private int newNode(int parent, int move){
+        int node = size;
+        size += 1;
+        parents[node] = parent;
+        moves[node] = move;
+        firstChild[node] = -1;
+        childCount[node] = 0;
+        visits[node] = 0;
+        scores[node] = 0;
+        return node;
+    }
+
+    /**
+     * This method picks the child with the highest UCT value. Children that were never visited
+     * come first.
+     */
+    private int select(int node){
+        double logVisits = Math.log(visits[node]);
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int end = firstChild[node] + childCount[node];
+        for (int child = firstChild[node]; child < end; child++){
+            if (visits[child] == 0){
+                return child;
+            }
+            double value = scores[child] / (2.0 * visits[child])
+                    + exploration * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue){
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method adds a child for every empty cell of the scratch board.
+     * @return boolean false if the pool is too full to hold them
+     */
+    private boolean expand(int node){
+        int count = scratch.getCells() - scratch.getTurnCount();
+        if (size + count > capacity){
+            return false;
+        }
+        firstChild[node] = size;
+        childCount[node] = count;
+        for (int cell = 0; cell < scratch.getCells(); cell++){
+            if (scratch.isEmpty(cell)){
+                newNode(node, cell);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method plays random moves on the scratch board until the game is over.
+     * @return int the winner, or EMPTY for a tie
+     */
+    private int playout(){
+        int count = 0;
+        for (int cell = 0; cell < scratch.getCells(); cell++){
+            if (scratch.isEmpty(cell)){
+                emptyCells[count] = cell;
+                count += 1;
+            }
+        }
+        while (!scratch.isGameOver()){
+            // take a random empty cell and fill its place in the list with the last one
+            int i = nextInt(count);
+            int cell = emptyCells[i];
+            count -= 1;
+            emptyCells[i] = emptyCells[count];
+            scratch.play(cell);
+        }
+        return scratch.getWinner();
+    }
+
+    /**
+     * This method adds the result of a playout to the leaf and every node above it.
+     * @param node the leaf
+     * @param mover the player who played the leaf's move
+     * @param winner the winner of the playout, or EMPTY for a tie
+     */
+    private void backPropagate(int node, int mover, int winner){
+        while (node != -1){
+            visits[node] += 1;
+            if (winner == GridBoard.EMPTY){
+                scores[node] += 1;
+            }
+            else if (winner == mover){
+                scores[node] += 2;
+            }
+            mover ^= 1;
+            node = parents[node];
+        }
+    }
+
+    /**
+     * This method is a xorshift random number generator, which is faster than java.util.Random
+     * and does not allocate.
+     */
+    private int nextInt(int bound){
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) ((randomState >>> 1) % bound);
+    }
+
+    /**
+     * This method adds how often each root move was visited in the last search to a total, so the
+     * results of several independent searches can be merged.
+     * @param totals the visit totals, indexed by cell
+     */
+    public void addRootVisits(long[] totals){
+        if (size == 0){
+            return;
+        }
+        for (int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++){
+            totals[moves[child]] += visits[child];
+        }
+    }
+
+    /**
+     * This method forgets the tree of the last search, so addRootVisits() adds nothing.
+     */
+    void clearTree(){
+        size = 0;
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * @return int how many nodes the last search used
+     */
+    public int getSize(){
+        return size;
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * This class finds the best move for the computer. It uses negamax (minimax where each side
+ * maximises its own score) with alpha-beta pruning over the bitboard model. Moves are tried centre
+ * first, then corners, then edges, since those are the strongest moves in Tic-Tac-Toe and good
+ * moves first makes alpha-beta cut off much more of the tree. Results are kept in a transposition
+ * table, so positions seen in an earlier move or round are not searched again. The table is keyed
+ * by the canonical hash, so a position and its rotations and reflections share one entry.
+ *
+ * Weaker play comes from a depth limit, where positions that are not decided by then count as a
+ * draw, and every search can also be given a time limit on top of its node limit.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.Symmetry;
+
+public class NegamaxEngine {
+
+    // A win is worth less the longer it takes, so the engine prefers quick wins and slow losses.
+    public static final int WIN_SCORE = 100;
+    private static final int INFINITY = 1000;
+
+    public static final long DEFAULT_NODE_LIMIT = 100000;
+    public static final int UNLIMITED_DEPTH = Board.CELLS;
+    public static final long UNLIMITED_TIME = Long.MAX_VALUE;
+
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    // Scores this close to WIN_SCORE are wins or losses a number of moves away.
+    private static final int WIN_THRESHOLD = WIN_SCORE - Board.CELLS - 1;
+
+    private final long nodeLimit;
+    private final TranspositionTable table;
+    private boolean useSymmetry = true;
+    private int depthLimit = UNLIMITED_DEPTH;
+    private long timeLimitMillis = UNLIMITED_TIME;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private CancelToken token = CancelToken.NONE;
+
+    public NegamaxEngine(){
+        this(DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * @param nodeLimit the most positions a single search is allowed to visit
+     */
+    public NegamaxEngine(long nodeLimit){
+        this(nodeLimit, new TranspositionTable());
+    }
+
+    /**
+     * @param nodeLimit the most positions a single search is allowed to visit
+     * @param table the transposition table, it is kept between searches
+     */
+    public NegamaxEngine(long nodeLimit, TranspositionTable table){
+        this.nodeLimit = nodeLimit;
+        this.table = table;
+    }
+
+    /**
+     * This method searches for the best move of the side to move. The board is changed during the
+     * search but is always put back the way it was.
+     * @param board the current position, the game must not be over
+     * @return SearchResult the best move, its score and the search statistics
+     */
+    public SearchResult search(Board board){
+        return search(board, CancelToken.NONE);
+    }
+
+    /**
+     * This method searches for the best move of the side to move, stopping early if the token is
+     * cancelled.
+     * @param board the current position, the game must not be over
+     * @param token the token that can cancel the search
+     * @return SearchResult the best move found, marked incomplete if the search was stopped
+     */
+    public SearchResult search(Board board, CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        deadline = timeLimitMillis == UNLIMITED_TIME ? Long.MAX_VALUE
+                : start + timeLimitMillis * 1000000L;
+        nodes = 0;
+        aborted = false;
+        this.token = token;
+        table.newSearch();
+
+        int bestMove = -1;
+        int bestScore = -INFINITY;
+        int alpha = -INFINITY;
+        int empty = board.getEmptyMask();
+        for (int cell : MOVE_ORDER){
+            if ((empty & (1 << cell)) == 0){
+                continue;
+            }
+            // always have a legal move to give back, even if the budget runs out straight away
+            if (bestMove == -1){
+                bestMove = cell;
+            }
+            board.play(cell);
+            int score = -negamax(board, 1, -INFINITY, -alpha);
+            board.undo(cell);
+            if (aborted){
+                break;
+            }
+            if (score > bestScore){
+                bestScore = score;
+                bestMove = cell;
+            }
+            if (score > alpha){
+                alpha = score;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, nodes, System.nanoTime() - start, !aborted);
+    }
+
+    /**
+     * This method returns the score of the position for the side to move.
+     * @param board the position
+     * @param ply how many moves deep the search is
+     * @param alpha the score the side to move is already guaranteed
+     * @param beta the score the opponent is already guaranteed
+     * @return int the score
+     */
+    private int negamax(Board board, int ply, int alpha, int beta){
+        nodes += 1;
+        if (nodes > nodeLimit || ((nodes & 1023) == 0
+                && (token.isCancelled() || System.nanoTime() > deadline))){
+            aborted = true;
+            return 0;
+        }
+        int side = board.getSideToMove();
+        // only the player who just moved can have made a line
+        if (board.hasWon(side ^ 1)){
+            return -(WIN_SCORE - ply);
+        }
+        if (board.isFull()){
+            return 0;
+        }
+
+        // without a depth limit the search goes to the end of the game, so the depth is the number
+        // of empty cells. A shallower result is stored with its real depth, so a deeper search
+        // never trusts it.
+        int depth = Math.min(Board.CELLS - board.getTurnCount(), depthLimit - ply);
+        if (depth <= 0){
+            return 0;
+        }
+        // the table only holds canonical positions, so the stored move has to be turned back into
+        // a move on this board
+        int transform = useSymmetry ? board.getCanonicalTransform() : Symmetry.IDENTITY;
+        long hash = board.getHash(transform);
+        int originalAlpha = alpha;
+        int hashMove = -1;
+        long entry = table.probe(hash);
+        if (entry != 0){
+            hashMove = TranspositionTable.moveOf(entry);
+            if (hashMove >= 0){
+                hashMove = Symmetry.inverseCell(transform, hashMove);
+            }
+            if (TranspositionTable.depthOf(entry) >= depth){
+                int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.BOUND_EXACT){
+                    return score;
+                }
+                if (bound == TranspositionTable.BOUND_LOWER && score > alpha){
+                    alpha = score;
+                }
+                else if (bound == TranspositionTable.BOUND_UPPER && score < beta){
+                    beta = score;
+                }
+                if (alpha >= beta){
+                    return score;
+                }
+            }
+        }
+
+        int best = -INFINITY;
+        int bestMove = -1;
+        int empty = board.getEmptyMask();
+        // the move that was best last time is tried first, then the normal order
+        for (int i = -1; i < MOVE_ORDER.length; i++){
+            int cell = i < 0 ? hashMove : MOVE_ORDER[i];
+            if (cell < 0 || (empty & (1 << cell)) == 0 || (i >= 0 && cell == hashMove)){
+                continue;
+            }
+            board.play(cell);
+            int score = -negamax(board, ply + 1, -beta, -alpha);
+            board.undo(cell);
+            if (aborted){
+                return 0;
+            }
+            if (score > best){
+                best = score;
+                bestMove = cell;
+            }
+            if (best > alpha){
+                alpha = best;
+            }
+            if (alpha >= beta){
+                break;
+            }
+        }
+
+        int bound;
+        if (best <= originalAlpha){
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        else if (best >= beta){
+            bound = TranspositionTable.BOUND_LOWER;
+        }
+        else {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        table.store(hash, Symmetry.transformCell(transform, bestMove), toTable(best, ply), depth,
+                bound);
+        return best;
+    }
+
+    /**
+     * Win and loss scores depend on how deep in the search they were found. In the table they are
+     * stored relative to the position itself so they can be reused at any depth.
+     */
+    private static int toTable(int score, int ply){
+        if (score > WIN_THRESHOLD){
+            return score + ply;
+        }
+        if (score < -WIN_THRESHOLD){
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply){
+        if (score > WIN_THRESHOLD){
+            return score - ply;
+        }
+        if (score < -WIN_THRESHOLD){
+            return score + ply;
+        }
+        return score;
+    }
+
+    public long getNodeLimit(){
+        return nodeLimit;
+    }
+
+    public int getDepthLimit(){
+        return depthLimit;
+    }
+
+    /**
+     * @param depthLimit how many moves ahead the engine looks, UNLIMITED_DEPTH to play perfectly
+     */
+    public void setDepthLimit(int depthLimit){
+        this.depthLimit = depthLimit;
+    }
+
+    public long getTimeLimitMillis(){
+        return timeLimitMillis;
+    }
+
+    /**
+     * @param timeLimitMillis how long a search may take, in milliseconds, or UNLIMITED_TIME
+     */
+    public void setTimeLimitMillis(long timeLimitMillis){
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public TranspositionTable getTable(){
+        return table;
+    }
+
+    /**
+     * @param useSymmetry false to key the table by the plain hash, which is only useful to measure
+     *                    how much the symmetries save
+     */
+    public void setUseSymmetry(boolean useSymmetry){
+        this.useSymmetry = useSymmetry;
+    }
+}
@@ -0,0 +1,448 @@
+/**
+ * This class runs Monte Carlo Tree Search on several threads of a ForkJoinPool. It has two modes:
+ *
+ * Root parallel: every thread grows its own independent tree with its own MctsEngine, and at the
+ * end the visit counts of the root moves are added up. The threads share nothing while searching.
+ *
+ * Tree parallel: all threads grow one shared tree. Node statistics are updated with lock-free
+ * atomic adds, and a thread walking down the tree adds a virtual loss to every node it passes so
+ * that the other threads are steered towards different branches until its playout is counted.
+ *
+ * With one thread both modes are the same as a plain MctsEngine.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ParallelMctsEngine {
+
+    public static final int MODE_ROOT = 0;
+    public static final int MODE_TREE = 1;
+
+    // How many visits (counted as losses) a thread adds to the nodes on its path while it plays out.
+    private static final int VIRTUAL_LOSS = 1;
+
+    private final int threads;
+    private final int mode;
+    private final ForkJoinPool pool;
+    private final MctsEngine[] rootEngines;
+    private final SharedTree tree;
+
+    /**
+     * @param threads how many threads search at the same time
+     * @param mode MODE_ROOT or MODE_TREE
+     */
+    public ParallelMctsEngine(int threads, int mode){
+        this(threads, mode, MctsEngine.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param threads how many threads search at the same time
+     * @param mode MODE_ROOT or MODE_TREE
+     * @param capacity the most nodes of each tree in root mode, or of the shared tree in tree mode
+     */
+    public ParallelMctsEngine(int threads, int mode, int capacity){
+        if (threads < 1){
+            throw new IllegalArgumentException("There must be at least one thread");
+        }
+        if (mode != MODE_ROOT && mode != MODE_TREE){
+            throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+        this.threads = threads;
+        this.mode = mode;
+        pool = new ForkJoinPool(threads);
+        if (mode == MODE_ROOT){
+            rootEngines = new MctsEngine[threads];
+            for (int i = 0; i < threads; i++){
+                rootEngines[i] = new MctsEngine(capacity, MctsEngine.DEFAULT_EXPLORATION,
+                        System.nanoTime() + i * 0x9E3779B97F4A7C15L);
+            }
+            tree = null;
+        }
+        else {
+            rootEngines = null;
+            tree = new SharedTree(capacity);
+        }
+    }
+
+    /**
+     * This method searches on all threads until the time budget runs out. The board is not changed.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @return SearchResult the chosen move, and the playouts of all threads together as the nodes
+     */
+    public SearchResult search(GridBoard board, long budgetMillis){
+        return search(board, budgetMillis, CancelToken.NONE);
+    }
+
+    /**
+     * This method searches on all threads until the time budget runs out or the token is
+     * cancelled.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param token the token that can cancel the search
+     * @return SearchResult the chosen move, marked incomplete if the search was cancelled
+     */
+    public SearchResult search(GridBoard board, long budgetMillis, CancelToken token){
+        return search(board, budgetMillis, Long.MAX_VALUE, token);
+    }
+
+    /**
+     * This method searches on all threads until the time budget or the playout limit runs out, or
+     * the token is cancelled. The limit is shared out evenly between the threads.
+     * @param board the current position, the game must not be over
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param playoutLimit the most playouts of all threads together
+     * @param token the token that can cancel the search
+     * @return SearchResult the chosen move, marked incomplete if the search was cancelled
+     */
+    public SearchResult search(GridBoard board, long budgetMillis, long playoutLimit,
+                               CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        int forced = MctsEngine.findForcedMove(board);
+        if (forced >= 0){
+            // the trees of the last position must not be taken for this one's
+            if (mode == MODE_ROOT){
+                for (MctsEngine engine : rootEngines){
+                    engine.clearTree();
+                }
+            }
+            else {
+                tree.reset();
+            }
+            return new SearchResult(forced, 100, 0, System.nanoTime() - start, true);
+        }
+        long threadLimit = Math.max(1, playoutLimit / threads);
+        if (mode == MODE_ROOT){
+            return searchRoots(board, budgetMillis, threadLimit, token, start);
+        }
+        return searchTree(board, budgetMillis, threadLimit, token, start);
+    }
+
+    private SearchResult searchRoots(final GridBoard board, final long budgetMillis,
+                                     final long threadLimit, final CancelToken token, long start){
+        List<Callable<SearchResult>> tasks = new ArrayList<>();
+        for (final MctsEngine engine : rootEngines){
+            tasks.add(new Callable<SearchResult>() {
+                @Override
+                public SearchResult call(){
+                    return engine.search(board, budgetMillis, threadLimit, token);
+                }
+            });
+        }
+        long playouts = 0;
+        for (Future<SearchResult> future : pool.invokeAll(tasks)){
+            playouts += getResult(future).getNodes();
+        }
+
+        long[] totals = new long[board.getCells()];
+        for (MctsEngine engine : rootEngines){
+            engine.addRootVisits(totals);
+        }
+        int best = -1;
+        for (int cell = 0; cell < totals.length; cell++){
+            if (board.isEmpty(cell) && (best == -1 || totals[cell] > totals[best])){
+                best = cell;
+            }
+        }
+        return new SearchResult(best, 0, playouts, System.nanoTime() - start,
+                !token.isCancelled());
+    }
+
+    private SearchResult searchTree(GridBoard board, long budgetMillis, final long threadLimit,
+                                    final CancelToken token, long start){
+        final long deadline = start + budgetMillis * 1000000L;
+        tree.reset();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++){
+            final Worker worker = new Worker(tree, board, System.nanoTime() + i * 0x9E3779B97F4A7C15L);
+            tasks.add(new Callable<Long>() {
+                @Override
+                public Long call(){
+                    return worker.run(deadline, threadLimit, token);
+                }
+            });
+        }
+        long playouts = 0;
+        for (Future<Long> future : pool.invokeAll(tasks)){
+            playouts += getResult(future);
+        }
+
+        int best = tree.mostVisitedChild(0);
+        if (best < 0){
+            // the pool was too small to even hold the root's children
+            return new SearchResult(firstEmptyCell(board), 0, playouts, System.nanoTime() - start,
+                    false);
+        }
+        int visits = tree.visits.get(best);
+        int score = visits == 0 ? 0 : tree.scores.get(best) * 50 / visits;
+        return new SearchResult(tree.moves[best], score, playouts, System.nanoTime() - start,
+                !token.isCancelled());
+    }
+
+    private static <T> T getResult(Future<T> future){
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search was interrupted", e);
+        }
+        catch (ExecutionException e){
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    private static int firstEmptyCell(GridBoard board){
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (board.isEmpty(cell)){
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method adds how often each root move was visited in the last search to a total.
+     * @param totals the visit totals, indexed by cell
+     */
+    public void addRootVisits(long[] totals){
+        if (mode == MODE_ROOT){
+            for (MctsEngine engine : rootEngines){
+                engine.addRootVisits(totals);
+            }
+            return;
+        }
+        int count = tree.childCount.get(0);
+        for (int child = tree.firstChild[0]; child < tree.firstChild[0] + count; child++){
+            totals[tree.moves[child]] += tree.visits.get(child);
+        }
+    }
+
+    /**
+     * This method stops the threads. The engine can not be used afterwards.
+     */
+    public void shutdown(){
+        pool.shutdownNow();
+    }
+
+    public int getThreads(){
+        return threads;
+    }
+
+    public int getMode(){
+        return mode;
+    }
+
+    /**
+     * This class is the tree shared by all threads in tree mode. A node's move, parent and first
+     * child are written once, before its child count is published with a volatile write, so a
+     * thread that sees the child count also sees the children. Visits and scores change all the
+     * time and are only changed with atomic adds.
+     */
+    private static class SharedTree {
+
+        private static final int NOT_EXPANDED = 0;
+        private static final int EXPANDING = 1;
+        private static final int EXPANDED = 2;
+
+        private final int capacity;
+        private final int[] moves;
+        private final int[] parents;
+        private final int[] firstChild;
+        private final AtomicIntegerArray childCount;
+        private final AtomicIntegerArray expandState;
+        private final AtomicIntegerArray visits;
+        private final AtomicIntegerArray scores;
+        private final AtomicInteger size = new AtomicInteger();
+
+        SharedTree(int capacity){
+            this.capacity = capacity;
+            moves = new int[capacity];
+            parents = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new AtomicIntegerArray(capacity);
+            expandState = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            scores = new AtomicIntegerArray(capacity);
+        }
+
+        /**
+         * This method empties the tree, leaving only the root. It is only called while no worker
+         * is running.
+         */
+        void reset(){
+            size.set(1);
+            init(0, -1, -1);
+        }
+
+        private void init(int node, int parent, int move){
+            parents[node] = parent;
+            moves[node] = move;
+            firstChild[node] = -1;
+            childCount.set(node, 0);
+            expandState.set(node, NOT_EXPANDED);
+            visits.set(node, 0);
+            scores.set(node, 0);
+        }
+
+        /**
+         * This method lets one thread add the children of a leaf. Threads that lose the race just
+         * play out from the leaf.
+         * @return boolean true if this thread expanded the node
+         */
+        boolean expand(int node, GridBoard board){
+            if (!expandState.compareAndSet(node, NOT_EXPANDED, EXPANDING)){
+                return false;
+            }
+            int count = board.getCells() - board.getTurnCount();
+            int first = size.getAndAdd(count);
+            if (first + count > capacity){
+                // the tree is full, the node stays a leaf for good
+                return false;
+            }
+            int child = first;
+            for (int cell = 0; cell < board.getCells(); cell++){
+                if (board.isEmpty(cell)){
+                    init(child, node, cell);
+                    child += 1;
+                }
+            }
+            firstChild[node] = first;
+            expandState.set(node, EXPANDED);
+            // publishing the count makes the children visible to the other threads
+            childCount.set(node, count);
+            return true;
+        }
+
+        int mostVisitedChild(int node){
+            int count = childCount.get(node);
+            if (count == 0){
+                return -1;
+            }
+            int best = firstChild[node];
+            for (int child = best; child < firstChild[node] + count; child++){
+                if (visits.get(child) > visits.get(best)){
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * This class is the work of one thread in tree mode. It has its own scratch board, empty cell
+     * list and random number generator, so only the tree statistics are shared.
+     */
+    private static class Worker {
+
+        private final SharedTree tree;
+        private final GridBoard root;
+        private final GridBoard scratch;
+        private final int[] emptyCells;
+        private long randomState;
+
+        Worker(SharedTree tree, GridBoard root, long seed){
+            this.tree = tree;
+            this.root = root;
+            scratch = new GridBoard(root.getVariant());
+            emptyCells = new int[root.getCells()];
+            randomState = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        }
+
+        long run(long deadline, long playoutLimit, CancelToken token){
+            long playouts = 0;
+            do {
+                scratch.copyFrom(root);
+                int node = 0;
+                tree.visits.addAndGet(node, VIRTUAL_LOSS);
+                while (tree.childCount.get(node) > 0){
+                    node = select(node);
+                    tree.visits.addAndGet(node, VIRTUAL_LOSS);
+                    scratch.play(tree.moves[node]);
+                }
+                if (!scratch.isGameOver() && tree.visits.get(node) > VIRTUAL_LOSS
+                        && tree.expand(node, scratch)){
+                    node = tree.firstChild[node] + nextInt(tree.childCount.get(node));
+                    tree.visits.addAndGet(node, VIRTUAL_LOSS);
+                    scratch.play(tree.moves[node]);
+                }
+                int mover = scratch.getSideToMove() ^ 1;
+                int winner = scratch.isGameOver() ? scratch.getWinner() : playout();
+                // swap the virtual losses for the real result
+                while (node != -1){
+                    tree.visits.addAndGet(node, 1 - VIRTUAL_LOSS);
+                    if (winner == GridBoard.EMPTY){
+                        tree.scores.addAndGet(node, 1);
+                    }
+                    else if (winner == mover){
+                        tree.scores.addAndGet(node, 2);
+                    }
+                    mover ^= 1;
+                    node = tree.parents[node];
+                }
+                playouts += 1;
+            } while ((playouts & 15) != 0 || (playouts < playoutLimit
+                    && System.nanoTime() < deadline && !token.isCancelled()));
+            return playouts;
+        }
+
+        private int select(int node){
+            double logVisits = Math.log(Math.max(1, tree.visits.get(node)));
+            int first = tree.firstChild[node];
+            int end = first + tree.childCount.get(node);
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++){
+                int childVisits = tree.visits.get(child);
+                if (childVisits == 0){
+                    return child;
+                }
+                double value = tree.scores.get(child) / (2.0 * childVisits)
+                        + MctsEngine.DEFAULT_EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private int playout(){
+            int count = 0;
+            for (int cell = 0; cell < scratch.getCells(); cell++){
+                if (scratch.isEmpty(cell)){
+                    emptyCells[count] = cell;
+                    count += 1;
+                }
+            }
+            while (!scratch.isGameOver()){
+                int i = nextInt(count);
+                int cell = emptyCells[i];
+                count -= 1;
+                emptyCells[i] = emptyCells[count];
+                scratch.play(cell);
+            }
+            return scratch.getWinner();
+        }
+
+        private int nextInt(int bound){
+            randomState ^= randomState << 13;
+            randomState ^= randomState >>> 7;
+            randomState ^= randomState << 17;
+            return (int) ((randomState >>> 1) % bound);
+        }
+    }
+}
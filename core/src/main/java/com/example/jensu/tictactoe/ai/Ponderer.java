@@ -0,0 +1,131 @@
+/**
+ * This class searches on the human's time. While the human is deciding, it goes through the human's
+ * possible moves and searches the computer's reply to each one. When the human's move turns out to
+ * be one that was pondered, the computer can answer straight away with the stored reply.
+ *
+ * Replies are stored by the human's move, together with the hash of the position after it, so a
+ * reply is only used for exactly the position it was searched for. The ponder and the lookups have
+ * to run on the same thread (the AiExecutor's background thread).
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+public class Ponderer {
+
+    /**
+     * This interface searches the computer's reply in a position where the computer is to move.
+     */
+    public interface ReplySearch {
+        SearchResult search(GridBoard position, CancelToken token);
+    }
+
+    private GridBoard scratch;
+    // Indexed by the human's move: the hash after the move, or 0 if there is no reply yet
+    private long[] replyHashes;
+    private SearchResult[] replies;
+    private int[] candidates;
+
+    // These are only written on the background thread but may be read anywhere for logging.
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long savedNanos;
+
+    /**
+     * This method searches replies to the human's moves until every move has a reply or the token
+     * is cancelled. The moves with the highest priority are pondered first.
+     * @param position the position with the human to move, it is not changed
+     * @param priority how likely each cell is to be played, or null to go in cell order
+     * @param search the search for the computer's reply
+     * @param token the token that stops the pondering
+     */
+    public void ponder(GridBoard position, long[] priority, ReplySearch search, CancelToken token){
+        int cells = position.getCells();
+        if (scratch == null || !scratch.getVariant().equals(position.getVariant())){
+            scratch = new GridBoard(position.getVariant());
+            replyHashes = new long[cells];
+            replies = new SearchResult[cells];
+            candidates = new int[cells];
+        }
+        for (int cell = 0; cell < cells; cell++){
+            replyHashes[cell] = 0;
+            replies[cell] = null;
+        }
+        if (position.isGameOver()){
+            return;
+        }
+        scratch.copyFrom(position);
+
+        int count = orderCandidates(priority);
+        for (int i = 0; i < count && !token.isCancelled(); i++){
+            int cell = candidates[i];
+            scratch.play(cell);
+            // a move that ends the game needs no reply
+            if (!scratch.isGameOver()){
+                SearchResult reply = search.search(scratch, token);
+                if (reply.isComplete()){
+                    replyHashes[cell] = scratch.getHash();
+                    replies[cell] = reply;
+                }
+            }
+            scratch.undo();
+        }
+    }
+
+    /**
+     * This method puts the empty cells in order of priority, highest first. It is an insertion
+     * sort, which is plenty for a few hundred cells and does not allocate.
+     * @return int the number of candidates
+     */
+    private int orderCandidates(long[] priority){
+        int count = 0;
+        for (int cell = 0; cell < scratch.getCells(); cell++){
+            if (!scratch.isEmpty(cell)){
+                continue;
+            }
+            int i = count;
+            while (priority != null && i > 0 && priority[candidates[i - 1]] < priority[cell]){
+                candidates[i] = candidates[i - 1];
+                i -= 1;
+            }
+            candidates[i] = cell;
+            count += 1;
+        }
+        return count;
+    }
+
+    /**
+     * This method looks for a pondered reply to the human's last move.
+     * @param position the position after the human's move
+     * @return SearchResult the stored reply, or null if that move was not pondered
+     */
+    public SearchResult lookup(GridBoard position){
+        int move = position.getLastMove();
+        if (replies == null || move < 0 || move >= replies.length
+                || replies[move] == null || replyHashes[move] != position.getHash()
+                || !scratch.getVariant().equals(position.getVariant())){
+            misses += 1;
+            return null;
+        }
+        SearchResult reply = replies[move];
+        hits += 1;
+        savedNanos += reply.getElapsedNanos();
+        return reply;
+    }
+
+    public long getHits(){
+        return hits;
+    }
+
+    public long getMisses(){
+        return misses;
+    }
+
+    /**
+     * @return long the total search time the stored replies would have taken if they had been
+     * searched after the human moved
+     */
+    public long getSavedNanos(){
+        return savedNanos;
+    }
+}
@@ -0,0 +1,293 @@
+/**
+ * This class proves whether a position is won, lost or drawn with depth-first proof-number search
+ * (df-pn). Instead of scoring positions it counts, for every position, how many leaf positions
+ * would still have to be proven to show that the side to move reaches its goal (the proof number),
+ * and how many to show that it does not (the disproof number). It always goes down into the child
+ * that is cheapest to settle, and only comes back up once the numbers there have grown past the
+ * thresholds the parent gave it. That way it follows the forcing lines of k-in-a-row games deeply
+ * and never searches a whole level of a big tree, which minimax with a heuristic can not do.
+ *
+ * A single search proves or disproves a win for one side, the attacker. To tell the three results
+ * apart, the side to move is the attacker first: if it can not force a win, the solver searches
+ * again with the other side as the attacker, and if that fails as well the position is a draw.
+ *
+ * The numbers are kept in a ProofTable of a fixed size. Once a position is solved, the entries of
+ * its unsolved children are removed, since the search will never look at them again. A move that
+ * wins on the spot ends the search at once, and when the opponent threatens to win, blocking is
+ * the only move that is searched.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+public class ProofNumberSolver {
+
+    public static final long UNLIMITED_NODES = Long.MAX_VALUE;
+
+    private static final int INFINITY = ProofTable.INFINITY;
+    private static final long PROVEN = ProofTable.pack(0, INFINITY);
+    private static final long DISPROVEN = ProofTable.pack(INFINITY, 0);
+    // What expand() returns when the side to move wins or loses on the next move.
+    private static final int WINS_NOW = -1;
+    private static final int LOSES_NOW = -2;
+
+    private final ProofTable table;
+    private long nodeLimit = UNLIMITED_NODES;
+
+    private GridBoard scratch;
+    private int[] centreOrder;
+    // moves[ply] holds the moves of the node at that ply, with their hashes and current numbers
+    private int[][] moves;
+    private long[][] hashes;
+    private int[][] proofs;
+    private int[][] disproofs;
+    private int attacker;
+    private int winningMove;
+
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private CancelToken token = CancelToken.NONE;
+
+    public ProofNumberSolver(){
+        this(new ProofTable());
+    }
+
+    /**
+     * @param table the table for the proof and disproof numbers, it is cleared before every search
+     */
+    public ProofNumberSolver(ProofTable table){
+        this.table = table;
+    }
+
+    /**
+     * This method finds out if the side to move wins, loses or draws with best play. The board is
+     * not changed.
+     * @param board the position, the game must not be over
+     * @param budgetMillis how long the whole solve may take, in milliseconds
+     * @param token the token that can cancel the solve
+     * @return ProofResult the result, UNKNOWN if the budget ran out first
+     */
+    public ProofResult solve(GridBoard board, long budgetMillis, CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        deadline = budgetMillis >= Long.MAX_VALUE / 1000000L ? Long.MAX_VALUE
+                : start + budgetMillis * 1000000L;
+        this.token = token;
+        nodes = 0;
+        aborted = false;
+        prepare(board.getVariant());
+
+        int side = board.getSideToMove();
+        int value = ProofResult.UNKNOWN;
+        int move = -1;
+        long root = prove(board, side);
+        int peak = table.getPeakSize();
+        if (ProofTable.proofOf(root) == 0){
+            value = ProofResult.WIN;
+            move = winningMove;
+        }
+        else if (ProofTable.disproofOf(root) == 0){
+            root = prove(board, side == GridBoard.PLAYER_1 ? GridBoard.PLAYER_2 : GridBoard.PLAYER_1);
+            peak = Math.max(peak, table.getPeakSize());
+            // the numbers are still for the side to move, which now only has to stop the opponent
+            if (ProofTable.disproofOf(root) == 0){
+                value = ProofResult.LOSS;
+            }
+            else if (ProofTable.proofOf(root) == 0){
+                value = ProofResult.DRAW;
+            }
+        }
+        return new ProofResult(value, move, nodes, System.nanoTime() - start, peak,
+                table.getCapacity());
+    }
+
+    private void prepare(Variant variant){
+        if (scratch == null || !scratch.getVariant().equals(variant)){
+            int cells = variant.getCells();
+            scratch = new GridBoard(variant);
+            centreOrder = AlphaBetaEngine.centreOrder(variant);
+            moves = new int[cells + 1][cells];
+            hashes = new long[cells + 1][cells];
+            proofs = new int[cells + 1][cells];
+            disproofs = new int[cells + 1][cells];
+        }
+    }
+
+    /**
+     * This method runs one df-pn search. The goal of the attacker is to win, and the goal of the
+     * other side is to stop that, so a draw counts as reaching it.
+     * @return long the packed numbers of the root for the side to move, unsettled if it ran out
+     */
+    private long prove(GridBoard board, int attacker){
+        this.attacker = attacker;
+        table.clear();
+        scratch.copyFrom(board);
+        winningMove = -1;
+        if (aborted){
+            return ProofTable.UNKNOWN;
+        }
+        long root = search(0, INFINITY, INFINITY);
+        return aborted ? ProofTable.UNKNOWN : root;
+    }
+
+    /**
+     * This method searches a position until its numbers reach one of the thresholds, or it is
+     * solved. The numbers are from the point of view of the side to move: a proof number of 0
+     * means it reaches its goal, a disproof number of 0 means it does not.
+     * @param ply how many moves deep the search is
+     * @param proofThreshold the search returns once the proof number is at least this
+     * @param disproofThreshold the search returns once the disproof number is at least this
+     * @return long the packed proof and disproof numbers of the position
+     */
+    private long search(int ply, int proofThreshold, int disproofThreshold){
+        nodes += 1;
+        if (nodes > nodeLimit || ((nodes & 1023) == 0
+                && (token.isCancelled() || System.nanoTime() > deadline))){
+            aborted = true;
+            return ProofTable.UNKNOWN;
+        }
+        // only the player who just moved can have made a line
+        if (scratch.getWinner() != GridBoard.EMPTY){
+            return DISPROVEN;
+        }
+        if (scratch.isFull()){
+            return scratch.getSideToMove() == attacker ? DISPROVEN : PROVEN;
+        }
+
+        long hash = scratch.getHash();
+        int count = expand(ply);
+        if (count == WINS_NOW || count == LOSES_NOW){
+            long numbers = count == WINS_NOW ? PROVEN : DISPROVEN;
+            table.store(hash, ProofTable.proofOf(numbers), ProofTable.disproofOf(numbers), 1);
+            return numbers;
+        }
+        int[] cells = moves[ply];
+        long[] childHashes = hashes[ply];
+        int[] childProofs = proofs[ply];
+        int[] childDisproofs = disproofs[ply];
+
+        long work = table.getWork(hash);
+        long nodesBefore = nodes;
+        int proof;
+        int disproof;
+        int best;
+        while (true){
+            // the side to move needs just one child where the opponent fails, and fails itself
+            // only if the opponent reaches its goal in every child
+            proof = INFINITY;
+            int second = INFINITY;
+            best = 0;
+            long sum = 0;
+            for (int i = 0; i < count; i++){
+                sum += childProofs[i];
+                if (childDisproofs[i] < proof){
+                    second = proof;
+                    proof = childDisproofs[i];
+                    best = i;
+                }
+                else if (childDisproofs[i] < second){
+                    second = childDisproofs[i];
+                }
+            }
+            disproof = proof == 0 ? INFINITY : (int) Math.min(sum, INFINITY - 1);
+            if (proof >= proofThreshold || disproof >= disproofThreshold){
+                break;
+            }
+            // the best child is searched until it is no longer the cheapest, with a little slack
+            // so the search does not keep switching between two children that are about as cheap
+            int childProofThreshold = (int) Math.min(INFINITY,
+                    (long) disproofThreshold - disproof + childProofs[best]);
+            int childDisproofThreshold = (int) Math.min(proofThreshold,
+                    (long) second + second / 4 + 1);
+            scratch.play(cells[best]);
+            long numbers = search(ply + 1, childProofThreshold, childDisproofThreshold);
+            scratch.undo();
+            if (aborted){
+                return ProofTable.UNKNOWN;
+            }
+            childProofs[best] = ProofTable.proofOf(numbers);
+            childDisproofs[best] = ProofTable.disproofOf(numbers);
+        }
+
+        table.store(hash, proof, disproof, work + nodes - nodesBefore);
+        if (proof == 0 || disproof == 0){
+            // nothing below a solved position is needed any more
+            for (int i = 0; i < count; i++){
+                table.removeUnsolved(childHashes[i]);
+            }
+            if (ply == 0 && proof == 0){
+                winningMove = cells[best];
+            }
+        }
+        return ProofTable.pack(proof, disproof);
+    }
+
+    /**
+     * This method fills moves[ply] with the moves of the position and looks up their numbers.
+     * @return int how many moves there are, WINS_NOW if the side to move can make a line right
+     * away, or LOSES_NOW if the opponent threatens two lines at once
+     */
+    private int expand(int ply){
+        int side = scratch.getSideToMove();
+        int other = side == GridBoard.PLAYER_1 ? GridBoard.PLAYER_2 : GridBoard.PLAYER_1;
+        int[] cells = moves[ply];
+        int count = 0;
+        int threat = -1;
+        boolean doubleThreat = false;
+        for (int cell : centreOrder){
+            if (!scratch.isEmpty(cell)){
+                continue;
+            }
+            if (scratch.isLineThrough(cell, side)){
+                if (ply == 0){
+                    winningMove = cell;
+                }
+                return WINS_NOW;
+            }
+            if (scratch.isLineThrough(cell, other)){
+                if (threat >= 0){
+                    doubleThreat = true;
+                }
+                threat = cell;
+            }
+            cells[count] = cell;
+            count += 1;
+        }
+        if (doubleThreat){
+            return LOSES_NOW;
+        }
+        if (threat >= 0){
+            // any other move lets the opponent make its line
+            cells[0] = threat;
+            count = 1;
+        }
+        for (int i = 0; i < count; i++){
+            scratch.play(cells[i]);
+            hashes[ply][i] = scratch.getHash();
+            scratch.undo();
+            long numbers = table.probe(hashes[ply][i]);
+            proofs[ply][i] = ProofTable.proofOf(numbers);
+            disproofs[ply][i] = ProofTable.disproofOf(numbers);
+        }
+        return count;
+    }
+
+    public long getNodeLimit(){
+        return nodeLimit;
+    }
+
+    /**
+     * @param nodeLimit the most positions a solve may visit, or UNLIMITED_NODES
+     */
+    public void setNodeLimit(long nodeLimit){
+        this.nodeLimit = nodeLimit;
+    }
+
+    public ProofTable getTable(){
+        return table;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * This class is what the proof-number solver found out about a position: whether the side to move
+ * wins, loses or draws with best play, or that the budget ran out first, and what it cost.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.util.Locale;
+
+public class ProofResult {
+
+    public static final int UNKNOWN = 0;
+    // The side to move can force a win.
+    public static final int WIN = 1;
+    // The other side can force a win whatever the side to move does.
+    public static final int LOSS = 2;
+    // Neither side can force a win.
+    public static final int DRAW = 3;
+
+    private final int value;
+    private final int move;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final int peakEntries;
+    private final int capacity;
+
+    /**
+     * @param value UNKNOWN, WIN, LOSS or DRAW
+     * @param move a winning move if the value is WIN, otherwise -1
+     * @param nodes the positions searched
+     * @param elapsedNanos how long the solve took
+     * @param peakEntries the most positions the table held at once
+     * @param capacity how many positions the table can hold
+     */
+    public ProofResult(int value, int move, long nodes, long elapsedNanos, int peakEntries,
+                       int capacity){
+        this.value = value;
+        this.move = move;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.peakEntries = peakEntries;
+        this.capacity = capacity;
+    }
+
+    public int getValue(){
+        return value;
+    }
+
+    public boolean isSolved(){
+        return value != UNKNOWN;
+    }
+
+    /**
+     * @return int a move that keeps the win, or -1 if the side to move does not win
+     */
+    public int getMove(){
+        return move;
+    }
+
+    public long getNodes(){
+        return nodes;
+    }
+
+    public long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond(){
+        if (elapsedNanos == 0){
+            return 0;
+        }
+        return nodes * 1e9 / elapsedNanos;
+    }
+
+    public int getPeakEntries(){
+        return peakEntries;
+    }
+
+    /**
+     * @return long the most memory the table entries took at once, in bytes
+     */
+    public long getPeakBytes(){
+        return (long) peakEntries * ProofTable.BYTES_PER_ENTRY;
+    }
+
+    /**
+     * @return long the memory set aside for the table, in bytes
+     */
+    public long getTableBytes(){
+        return (long) capacity * ProofTable.BYTES_PER_ENTRY;
+    }
+
+    /**
+     * @param value UNKNOWN, WIN, LOSS or DRAW
+     * @return String the value the way it is printed
+     */
+    public static String valueName(int value){
+        switch (value){
+            case WIN:
+                return "win";
+            case LOSS:
+                return "loss";
+            case DRAW:
+                return "draw";
+            default:
+                return "unknown";
+        }
+    }
+
+    @Override
+    public String toString(){
+        return String.format(Locale.ROOT,
+                "result=%s move=%d nodes=%d nanos=%d nodes/s=%.0f peak=%d entries (%d KB of %d KB)",
+                valueName(value), move, nodes, elapsedNanos, getNodesPerSecond(), peakEntries,
+                getPeakBytes() / 1024, getTableBytes() / 1024);
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * This class remembers the proof and disproof numbers of the positions the proof-number solver has
+ * visited. It never grows: the slots are grouped in buckets of four, and when a new position finds
+ * its bucket full it takes the place of the entry that cost the least work to compute, so that big
+ * subtrees and solved positions stay in the table the longest. The solver also removes the entries
+ * it no longer needs once a position is solved.
+ *
+ * Every slot is three longs in one array: the position hash, the proof and disproof numbers packed
+ * into one long, and the work, which is how many nodes were searched below the position. A work of
+ * 0 marks an empty slot.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.util.Arrays;
+
+public class ProofTable {
+
+    // A proof or disproof number this big means the position can never be proven or disproven.
+    public static final int INFINITY = 1 << 30;
+    // The entry of a position the table does not hold, with both numbers 1.
+    public static final long UNKNOWN = pack(1, 1);
+
+    public static final int DEFAULT_SIZE_BITS = 20;
+    public static final int BYTES_PER_ENTRY = 24;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int SLOT_LONGS = 3;
+
+    private final long[] table;
+    private final int mask;
+    private int size;
+    private int peakSize;
+
+    private long replacements;
+    private long removals;
+
+    public ProofTable(){
+        this(DEFAULT_SIZE_BITS);
+    }
+
+    /**
+     * @param sizeBits the table has 2^sizeBits slots
+     */
+    public ProofTable(int sizeBits){
+        if (sizeBits < 2 || sizeBits > 26){
+            throw new IllegalArgumentException("sizeBits must be between 2 and 26");
+        }
+        table = new long[SLOT_LONGS << sizeBits];
+        mask = (1 << sizeBits) / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * @param hash the Zobrist hash of the position
+     * @return long the packed proof and disproof numbers, or UNKNOWN if the position is not there
+     */
+    public long probe(long hash){
+        int slot = find(hash);
+        return slot < 0 ? UNKNOWN : table[slot + 1];
+    }
+
+    /**
+     * This method saves the numbers of a position. If its bucket is full, the entry with the least
+     * work is replaced, but a solved position is only replaced by another solved one.
+     * @param hash the Zobrist hash of the position
+     * @param proof the proof number
+     * @param disproof the disproof number
+     * @param work how many nodes were searched below the position, at least 1
+     */
+    public void store(long hash, int proof, int disproof, long work){
+        // the whole bucket is checked for the position before an empty slot is taken, since
+        // removeUnsolved leaves empty slots in front of entries that are still there
+        int victim = find(hash);
+        if (victim < 0){
+            victim = freeSlot(bucket(hash), proof == 0 || disproof == 0);
+        }
+        if (victim < 0){
+            // every entry in the bucket is solved and this one is not
+            return;
+        }
+        if (table[victim + 2] == 0){
+            size += 1;
+            peakSize = Math.max(peakSize, size);
+        }
+        else if (table[victim] != hash){
+            replacements += 1;
+        }
+        table[victim] = hash;
+        table[victim + 1] = pack(proof, disproof);
+        table[victim + 2] = Math.max(1, work);
+    }
+
+    /**
+     * This method drops a position that is not solved. The solver calls it for the children of a
+     * position it has just solved, since their numbers will not be looked at again.
+     * @param hash the Zobrist hash of the position
+     */
+    public void removeUnsolved(long hash){
+        int slot = find(hash);
+        if (slot >= 0 && !isSolved(table[slot + 1])){
+            table[slot + 2] = 0;
+            size -= 1;
+            removals += 1;
+        }
+    }
+
+    /**
+     * @param hash the Zobrist hash of the position
+     * @return long how many nodes were searched below the position, 0 if it is not in the table
+     */
+    public long getWork(long hash){
+        int slot = find(hash);
+        return slot < 0 ? 0 : table[slot + 2];
+    }
+
+    /**
+     * This method empties the table and resets the counters.
+     */
+    public void clear(){
+        Arrays.fill(table, 0);
+        size = 0;
+        peakSize = 0;
+        replacements = 0;
+        removals = 0;
+    }
+
+    private int find(long hash){
+        int bucket = bucket(hash);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE * SLOT_LONGS; slot += SLOT_LONGS){
+            if (table[slot + 2] != 0 && table[slot] == hash){
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return int an empty slot of the bucket, else the entry with the least work that may be
+     * replaced, or -1 if there is none
+     */
+    private int freeSlot(int bucket, boolean solved){
+        int victim = -1;
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE * SLOT_LONGS; slot += SLOT_LONGS){
+            if (table[slot + 2] == 0){
+                return slot;
+            }
+            if (!solved && isSolved(table[slot + 1])){
+                continue;
+            }
+            if (victim < 0 || table[slot + 2] < table[victim + 2]){
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private int bucket(long hash){
+        // mix the high bits in so that the low bits alone do not decide the bucket
+        return ((int) (hash ^ (hash >>> 32)) & mask) * BUCKET_SIZE * SLOT_LONGS;
+    }
+
+    public static long pack(int proof, int disproof){
+        return (long) proof << 32 | disproof & 0xFFFFFFFFL;
+    }
+
+    public static int proofOf(long entry){
+        return (int) (entry >>> 32);
+    }
+
+    public static int disproofOf(long entry){
+        return (int) entry;
+    }
+
+    private static boolean isSolved(long entry){
+        return proofOf(entry) == 0 || disproofOf(entry) == 0;
+    }
+
+    public int getCapacity(){
+        return (mask + 1) * BUCKET_SIZE;
+    }
+
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * @return int the most entries the table held at once since it was made or cleared
+     */
+    public int getPeakSize(){
+        return peakSize;
+    }
+
+    public long getReplacements(){
+        return replacements;
+    }
+
+    public long getRemovals(){
+        return removals;
+    }
+
+    @Override
+    public String toString(){
+        return "size=" + size + " peak=" + peakSize + " capacity=" + getCapacity()
+                + " replacements=" + replacements + " removals=" + removals;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * This class holds what a search engine found for one computer move, along with how much work it
+ * took to find it.
+ */
+package com.example.jensu.tictactoe.ai;
+
+public class SearchResult {
+
+    private final int move;
+    private final int score;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final boolean complete;
+
+    public SearchResult(int move, int score, long nodes, long elapsedNanos, boolean complete){
+        this.move = move;
+        this.score = score;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.complete = complete;
+    }
+
+    /**
+     * @return int the cell index of the chosen move
+     */
+    public int getMove(){
+        return move;
+    }
+
+    /**
+     * @return int the score of the move from the point of view of the side that moves
+     */
+    public int getScore(){
+        return score;
+    }
+
+    public long getNodes(){
+        return nodes;
+    }
+
+    public long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    /**
+     * @return double the nodes (or playouts, for Monte Carlo search) searched per second
+     */
+    public double getNodesPerSecond(){
+        if (elapsedNanos == 0){
+            return 0;
+        }
+        return nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return boolean false if the search ran out of budget before it finished
+     */
+    public boolean isComplete(){
+        return complete;
+    }
+
+    @Override
+    public String toString(){
+        return "move=" + move + " score=" + score + " nodes=" + nodes + " nanos=" + elapsedNanos
+                + (complete ? "" : " (incomplete)");
+    }
+}
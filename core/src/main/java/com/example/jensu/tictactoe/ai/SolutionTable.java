@@ -0,0 +1,208 @@
+/**
+ * This class is the solved game: for every position the computer can face it knows the best move
+ * and whether that move wins, draws or loses. Looking a move up is O(1) and does no searching.
+ *
+ * The table is a binary file made at build time by SolutionTableGenerator and shipped in the APK
+ * assets. It starts with a 16 byte header (magic, version, entry count and a CRC32 of the entries)
+ * so that a stale or damaged asset is noticed when it is loaded. After the header there is one byte
+ * for every base-3 index of the board (3^9 entries), but only canonical positions are filled in,
+ * so every lookup first turns the board into its canonical form.
+ *
+ * Entry layout: the low 4 bits are the best move on the canonical board (NO_MOVE if there is none)
+ * and the next 2 bits are the value for the side to move (VALUE_DRAW, VALUE_WIN or VALUE_LOSS).
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.Symmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class SolutionTable {
+
+    public static final String ASSET_NAME = "solution_table.bin";
+
+    public static final int MAGIC = 0x54545453; // "TTTS"
+    // Change this whenever the entry layout or the engine's choice of moves changes, so old assets
+    // are rejected.
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int ENTRIES = 19683; // 3^9
+
+    public static final int NO_MOVE = 0xF;
+    public static final int VALUE_DRAW = 0;
+    public static final int VALUE_WIN = 1;
+    public static final int VALUE_LOSS = 2;
+
+    // BASE3[mask] is the sum of 3^cell for every cell in the mask
+    private static final int[] BASE3 = new int[1 << Board.CELLS];
+
+    static {
+        for (int mask = 0; mask < BASE3.length; mask++){
+            int value = 0;
+            int power = 1;
+            for (int cell = 0; cell < Board.CELLS; cell++){
+                if ((mask & (1 << cell)) != 0){
+                    value += power;
+                }
+                power *= 3;
+            }
+            BASE3[mask] = value;
+        }
+    }
+
+    // The table is loaded once and then shared by every activity.
+    private static SolutionTable loaded;
+
+    private final ByteBuffer entries;
+
+    private SolutionTable(ByteBuffer entries){
+        this.entries = entries;
+    }
+
+    /**
+     * This method checks the header and the checksum of a table and wraps it. The buffer is not
+     * copied, so a memory-mapped buffer stays memory-mapped.
+     * @param buffer the whole table file
+     * @return SolutionTable the table
+     * @throws IOException if the table is from another version or is damaged
+     */
+    public static SolutionTable load(ByteBuffer buffer) throws IOException{
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC){
+            throw new IOException("Not a solution table");
+        }
+        int version = header.getInt();
+        if (version != VERSION){
+            throw new IOException("Stale solution table: version " + version + ", expected "
+                    + VERSION);
+        }
+        int count = header.getInt();
+        long checksum = header.getInt() & 0xFFFFFFFFL;
+        if (count != ENTRIES || header.remaining() < ENTRIES){
+            throw new IOException("Solution table has the wrong size");
+        }
+        ByteBuffer entries = header.slice();
+        entries.limit(ENTRIES);
+        if (checksum(entries) != checksum){
+            throw new IOException("Solution table checksum does not match");
+        }
+        return new SolutionTable(entries);
+    }
+
+    public static synchronized SolutionTable getLoaded(){
+        return loaded;
+    }
+
+    public static synchronized void setLoaded(SolutionTable table){
+        loaded = table;
+    }
+
+    /**
+     * @param player1Mask the cells of player 1
+     * @param player2Mask the cells of player 2
+     * @return int the base-3 index of the position, where a cell is 0 if empty, 1 for player 1 and
+     * 2 for player 2
+     */
+    public static int index(int player1Mask, int player2Mask){
+        return BASE3[player1Mask] + 2 * BASE3[player2Mask];
+    }
+
+    /**
+     * This method looks up the best move for the side to move.
+     * @param board the current position
+     * @return int the cell index of the best move, or -1 if the table has no move for the position
+     */
+    public int getBestMove(Board board){
+        int player1Mask = board.getMask(Board.PLAYER_1);
+        int player2Mask = board.getMask(Board.PLAYER_2);
+        int transform = Symmetry.canonicalTransform(player1Mask, player2Mask);
+        int entry = entries.get(index(Symmetry.transformMask(transform, player1Mask),
+                Symmetry.transformMask(transform, player2Mask))) & 0xFF;
+        int move = entry & 0xF;
+        if (move == NO_MOVE){
+            return -1;
+        }
+        return Symmetry.inverseCell(transform, move);
+    }
+
+    /**
+     * @param board the current position
+     * @return int VALUE_DRAW, VALUE_WIN or VALUE_LOSS for the side to move
+     */
+    public int getValue(Board board){
+        int player1Mask = board.getMask(Board.PLAYER_1);
+        int player2Mask = board.getMask(Board.PLAYER_2);
+        int transform = Symmetry.canonicalTransform(player1Mask, player2Mask);
+        int entry = entries.get(index(Symmetry.transformMask(transform, player1Mask),
+                Symmetry.transformMask(transform, player2Mask)));
+        return (entry >> 4) & 0x3;
+    }
+
+    static long checksum(ByteBuffer entries){
+        CRC32 crc = new CRC32();
+        ByteBuffer copy = entries.duplicate();
+        byte[] chunk = new byte[4096];
+        while (copy.hasRemaining()){
+            int length = Math.min(chunk.length, copy.remaining());
+            copy.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * This method solves every position and builds the table file. It visits every legal position
+     * once from the empty board and solves the canonical ones that are not over yet.
+     * @return byte[] the whole table file, header included
+     */
+    public static byte[] generate(){
+        byte[] entries = new byte[ENTRIES];
+        Arrays.fill(entries, (byte) NO_MOVE);
+        boolean[] visited = new boolean[ENTRIES];
+        NegamaxEngine engine = new NegamaxEngine(Long.MAX_VALUE, new TranspositionTable(16));
+        solve(new Board(), engine, entries, visited);
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + ENTRIES).order(ByteOrder.BIG_ENDIAN);
+        file.putInt(MAGIC);
+        file.putInt(VERSION);
+        file.putInt(ENTRIES);
+        file.putInt((int) checksum(ByteBuffer.wrap(entries)));
+        file.put(entries);
+        return file.array();
+    }
+
+    private static void solve(Board board, NegamaxEngine engine, byte[] entries,
+                              boolean[] visited){
+        int player1Mask = board.getMask(Board.PLAYER_1);
+        int player2Mask = board.getMask(Board.PLAYER_2);
+        int index = index(player1Mask, player2Mask);
+        if (visited[index] || board.isGameOver()){
+            return;
+        }
+        visited[index] = true;
+        if (Symmetry.canonicalKey(player1Mask, player2Mask)
+                == Symmetry.key(player1Mask, player2Mask)){
+            SearchResult result = engine.search(board);
+            int value = VALUE_DRAW;
+            if (result.getScore() > 0){
+                value = VALUE_WIN;
+            }
+            else if (result.getScore() < 0){
+                value = VALUE_LOSS;
+            }
+            entries[index] = (byte) (result.getMove() | (value << 4));
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++){
+            if (board.isEmpty(cell)){
+                board.play(cell);
+                solve(board, engine, entries, visited);
+                board.undo(cell);
+            }
+        }
+    }
+}
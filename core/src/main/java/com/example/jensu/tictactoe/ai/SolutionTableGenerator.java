@@ -0,0 +1,32 @@
+/**
+ * This class is run at build time (the generateSolutionTable Gradle task) to write the solution
+ * table asset. It only uses plain Java, so it runs on the build machine's JVM.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class SolutionTableGenerator {
+
+    /**
+     * @param args the path of the file to write
+     */
+    public static void main(String[] args) throws IOException{
+        if (args.length != 1){
+            System.err.println("Usage: SolutionTableGenerator <output file>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        byte[] table = SolutionTable.generate();
+        FileOutputStream output = new FileOutputStream(args[0]);
+        try {
+            output.write(table);
+        }
+        finally {
+            output.close();
+        }
+        System.out.println("Wrote " + table.length + " bytes to " + args[0] + " in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * This class is the result of a threat-space search: the first move of a forced win, if one was
+ * found, and how many of the attacker's moves the win takes.
+ */
+package com.example.jensu.tictactoe.ai;
+
+public class ThreatResult extends SearchResult {
+
+    private final boolean win;
+    private final int depth;
+
+    /**
+     * @param move the first move of the win, or -1 if none was found
+     * @param win true if a forced win was found
+     * @param depth the attacker's moves in the win, or the deepest search that finished without one
+     * @param nodes the positions searched
+     * @param elapsedNanos how long the search took
+     * @param complete false if the search ran out of budget before it reached the depth limit
+     */
+    public ThreatResult(int move, boolean win, int depth, long nodes, long elapsedNanos,
+                        boolean complete){
+        super(move, win ? AlphaBetaEngine.WIN_SCORE - (2 * depth - 1) : 0, nodes, elapsedNanos,
+                complete);
+        this.win = win;
+        this.depth = depth;
+    }
+
+    public boolean isWin(){
+        return win;
+    }
+
+    public int getDepth(){
+        return depth;
+    }
+
+    @Override
+    public String toString(){
+        return super.toString() + " win=" + win + " depth=" + depth;
+    }
+}
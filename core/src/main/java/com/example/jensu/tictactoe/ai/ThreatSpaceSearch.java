@@ -0,0 +1,314 @@
+/**
+ * This class looks for a forced win on boards like Gomoku's by searching only threats. The
+ * attacker only plays moves that make a four or a three, so the defender has just a few answers:
+ * the cells that stop the threat, and fours of its own that the attacker then has to block. A
+ * position where the attacker runs out of threats counts as no win. That keeps the branching
+ * factor to a handful instead of the hundreds of empty cells a full-width search has to try, so
+ * wins many moves deep are found in a fraction of the time.
+ *
+ * Threats are read from LinePatterns, whose keys are updated on every move, through ThreatTable.
+ * The search deepens one attacker move at a time, so the shortest win is found first, and
+ * positions that were already searched deep enough are looked up in a transposition table.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+public class ThreatSpaceSearch {
+
+    public static final int DEFAULT_DEPTH = 10;
+
+    // What a search returns.
+    private static final int FAIL = 0;
+    private static final int WIN = 1;
+
+    private final TranspositionTable table;
+
+    private GridBoard scratch;
+    private LinePatterns patterns;
+    private int[] threats;
+    private int k;
+    private int attacker;
+    private int defender;
+    // moves[ply] holds the moves of the node at that ply
+    private int[][] moves;
+    // listed[cell] is true while the cell is in the defender's answers being gathered
+    private boolean[] listed;
+
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private CancelToken token = CancelToken.NONE;
+
+    public ThreatSpaceSearch(){
+        this(new TranspositionTable(18));
+    }
+
+    /**
+     * @param table the transposition table, it is cleared before every search
+     */
+    public ThreatSpaceSearch(TranspositionTable table){
+        this.table = table;
+    }
+
+    /**
+     * @param variant the board size
+     * @return boolean true if threats can be searched with k in a row of this variant
+     */
+    public static boolean supports(Variant variant){
+        return variant.getK() >= ThreatTable.MIN_K && variant.getK() <= ThreatTable.MAX_K;
+    }
+
+    /**
+     * This method looks for a forced win for the side to move. The board is not changed.
+     * @param board the position, the game must not be over
+     * @param maxDepth the most attacker moves the win may take
+     * @param budgetMillis how long the search may take, in milliseconds
+     * @param token the token that can cancel the search
+     * @return ThreatResult the first move of the shortest win that was found, if any
+     */
+    public ThreatResult search(GridBoard board, int maxDepth, long budgetMillis,
+                               CancelToken token){
+        if (board.isGameOver()){
+            throw new IllegalStateException("The game is already over");
+        }
+        long start = System.nanoTime();
+        deadline = budgetMillis >= Long.MAX_VALUE / 1000000L ? Long.MAX_VALUE
+                : start + budgetMillis * 1000000L;
+        this.token = token;
+        nodes = 0;
+        aborted = false;
+        prepare(board);
+        attacker = board.getSideToMove();
+        defender = attacker == GridBoard.PLAYER_1 ? GridBoard.PLAYER_2 : GridBoard.PLAYER_1;
+        table.clear();
+
+        int depth = 0;
+        while (depth < maxDepth){
+            int result = attack(depth + 1, 0);
+            if (aborted){
+                break;
+            }
+            depth += 1;
+            if (result == WIN){
+                int move = TranspositionTable.moveOf(table.probe(scratch.getHash()));
+                return new ThreatResult(move, true, depth, nodes, System.nanoTime() - start, true);
+            }
+        }
+        return new ThreatResult(-1, false, depth, nodes, System.nanoTime() - start, !aborted);
+    }
+
+    private void prepare(GridBoard board){
+        Variant variant = board.getVariant();
+        if (scratch == null || !scratch.getVariant().equals(variant)){
+            k = variant.getK();
+            threats = ThreatTable.forK(k);
+            scratch = new GridBoard(variant);
+            patterns = new LinePatterns(variant);
+            moves = new int[variant.getCells() + 1][variant.getCells() + 1];
+            listed = new boolean[variant.getCells()];
+        }
+        scratch.copyFrom(board);
+        patterns.load(scratch);
+    }
+
+    private void play(int cell){
+        int side = scratch.getSideToMove();
+        scratch.play(cell);
+        patterns.play(cell, side);
+    }
+
+    private void undo(){
+        int cell = scratch.undo();
+        patterns.undo(cell, scratch.getSideToMove());
+    }
+
+    /**
+     * @return int the strongest threat the side makes by playing the empty cell
+     */
+    private int threatAt(int side, int cell){
+        int best = ThreatTable.NONE;
+        for (int d = 0; d < LinePatterns.DIRECTIONS; d++){
+            best = Math.max(best, ThreatTable.typeOf(threats[patterns.key(side, d, cell)]));
+        }
+        return best;
+    }
+
+    /**
+     * This method searches the attacker's threats.
+     * @param depth how many more attacker moves there may be
+     * @param ply how many moves deep the search is
+     * @return int WIN if the attacker can force a win, FAIL if not or if the search was stopped
+     */
+    private int attack(int depth, int ply){
+        if (countNode()){
+            return FAIL;
+        }
+        long hash = scratch.getHash();
+        long entry = table.probe(hash);
+        if (entry != 0 && (TranspositionTable.scoreOf(entry) == WIN
+                || TranspositionTable.depthOf(entry) >= depth)){
+            return TranspositionTable.scoreOf(entry);
+        }
+
+        int[] list = moves[ply];
+        int count = 0;
+        int fives = 0;
+        int block = -1;
+        for (int cell = 0; cell < scratch.getCells(); cell++){
+            if (!scratch.isEmpty(cell)){
+                continue;
+            }
+            int threat = threatAt(attacker, cell);
+            if (threat == ThreatTable.FIVE){
+                table.store(hash, cell, WIN, depth, TranspositionTable.BOUND_EXACT);
+                return WIN;
+            }
+            if (threatAt(defender, cell) == ThreatTable.FIVE){
+                fives += 1;
+                block = cell;
+            }
+            if (threat >= ThreatTable.THREE){
+                count += 1;
+                list[count] = cell;
+            }
+        }
+        if (fives > 1 || depth == 0){
+            return FAIL;
+        }
+        if (fives == 1){
+            // the defender has a four, so blocking it is the only move, threat or not
+            list[1] = block;
+            count = 1;
+        }
+        else {
+            sortByThreat(list, count);
+        }
+
+        int result = FAIL;
+        int bestMove = -1;
+        for (int i = 1; i <= count && result == FAIL; i++){
+            play(list[i]);
+            result = defend(depth - 1, ply + 1);
+            undo();
+            if (aborted){
+                return FAIL;
+            }
+            bestMove = list[i];
+        }
+        table.store(hash, bestMove, result, depth, TranspositionTable.BOUND_EXACT);
+        return result;
+    }
+
+    /**
+     * This method tries every answer of the defender to the attacker's threats.
+     * @return int WIN if the attacker wins against all of them
+     */
+    private int defend(int depth, int ply){
+        if (countNode()){
+            return FAIL;
+        }
+        int[] list = moves[ply];
+        int count = 0;
+        int fives = 0;
+        int block = -1;
+        for (int cell = 0; cell < scratch.getCells(); cell++){
+            if (!scratch.isEmpty(cell)){
+                continue;
+            }
+            if (threatAt(defender, cell) == ThreatTable.FIVE){
+                return FAIL;
+            }
+            if (threatAt(attacker, cell) == ThreatTable.FIVE){
+                fives += 1;
+                block = cell;
+            }
+        }
+        if (fives > 1){
+            return WIN;
+        }
+        if (fives == 1){
+            list[1] = block;
+            count = 1;
+        }
+        else {
+            // every cell that stops one of the attacker's threes, together these hold every
+            // answer that stops all of them
+            for (int cell = 0; cell < scratch.getCells(); cell++){
+                if (scratch.get(cell) != attacker){
+                    continue;
+                }
+                for (int d = 0; d < LinePatterns.DIRECTIONS; d++){
+                    int entry = threats[patterns.key(attacker, d, cell)];
+                    if (ThreatTable.typeOf(entry) != ThreatTable.THREE){
+                        continue;
+                    }
+                    int defence = ThreatTable.defenceOf(entry);
+                    while (defence != 0){
+                        int bit = Integer.numberOfTrailingZeros(defence);
+                        defence &= defence - 1;
+                        int answer = patterns.cellAt(cell, d, ThreatTable.offsetOf(bit, k));
+                        if (!listed[answer]){
+                            listed[answer] = true;
+                            count += 1;
+                            list[count] = answer;
+                        }
+                    }
+                }
+            }
+            if (count == 0){
+                // no threat is left, so the defender has a free move
+                return FAIL;
+            }
+            // a four of the defender's own forces the attacker to answer it first
+            for (int cell = 0; cell < scratch.getCells(); cell++){
+                if (scratch.isEmpty(cell) && !listed[cell]
+                        && threatAt(defender, cell) >= ThreatTable.FOUR){
+                    listed[cell] = true;
+                    count += 1;
+                    list[count] = cell;
+                }
+            }
+            for (int i = 1; i <= count; i++){
+                listed[list[i]] = false;
+            }
+        }
+
+        for (int i = 1; i <= count; i++){
+            play(list[i]);
+            int result = attack(depth, ply + 1);
+            undo();
+            if (aborted || result == FAIL){
+                return FAIL;
+            }
+        }
+        return WIN;
+    }
+
+    /**
+     * This method puts the strongest threats first, fours before threes.
+     */
+    private void sortByThreat(int[] list, int count){
+        int fours = 0;
+        for (int i = 1; i <= count; i++){
+            if (threatAt(attacker, list[i]) >= ThreatTable.FOUR){
+                fours += 1;
+                int cell = list[i];
+                list[i] = list[fours];
+                list[fours] = cell;
+            }
+        }
+    }
+
+    /**
+     * @return boolean true if the search has to stop
+     */
+    private boolean countNode(){
+        nodes += 1;
+        if ((nodes & 1023) == 0 && (token.isCancelled() || System.nanoTime() > deadline)){
+            aborted = true;
+        }
+        return aborted;
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * This class is a lookup table from a LinePatterns key to the threat a mark makes along one line,
+ * in the terms of Gomoku, where k is five. A five is k in a row. A four is a line that one more
+ * mark makes into a five, and a straight four one that two different marks would, so it can not
+ * be stopped. A three is a line that one more mark makes into a straight four; this takes in open
+ * threes as well as split threes with a gap in them. Only lines through the cell count.
+ *
+ * Along with the threat, the table holds the cells that stop it: the one cell that blocks a four,
+ * or every cell that keeps a three from becoming a straight four, as a mask over the neighbours
+ * in the same bit order as the key. The tables are made once for each k the first time they are
+ * needed, by trying every pattern.
+ */
+package com.example.jensu.tictactoe.ai;
+
+final class ThreatTable {
+
+    static final int NONE = 0;
+    static final int THREE = 1;
+    static final int FOUR = 2;
+    static final int STRAIGHT_FOUR = 3;
+    static final int FIVE = 4;
+
+    // The key has 4(k - 1) bits, so bigger k would make the table too big.
+    static final int MIN_K = 4;
+    static final int MAX_K = 6;
+
+    private static final int DEFENCE_SHIFT = 4;
+
+    private static final int EMPTY = 0;
+    private static final int OWN = 1;
+    private static final int BLOCKED = 2;
+
+    private static final int[][] TABLES = new int[MAX_K + 1][];
+
+    private ThreatTable(){
+    }
+
+    /**
+     * @param k how many in a row win, from MIN_K to MAX_K
+     * @return int[] the entry for every key
+     */
+    static synchronized int[] forK(int k){
+        if (k < MIN_K || k > MAX_K){
+            throw new IllegalArgumentException("Threats are only found for " + MIN_K + " to "
+                    + MAX_K + " in a row");
+        }
+        if (TABLES[k] == null){
+            TABLES[k] = build(k);
+        }
+        return TABLES[k];
+    }
+
+    static int typeOf(int entry){
+        return entry & ((1 << DEFENCE_SHIFT) - 1);
+    }
+
+    /**
+     * @return int the neighbours that stop the threat, in the bit order of the key
+     */
+    static int defenceOf(int entry){
+        return entry >>> DEFENCE_SHIFT;
+    }
+
+    /**
+     * @return int the offset along the line of the neighbour with the given bit, from -(k - 1) to
+     * k - 1 without 0
+     */
+    static int offsetOf(int bit, int k){
+        int span = k - 1;
+        return bit < span ? bit - span : bit - span + 1;
+    }
+
+    private static int[] build(int k){
+        int span = k - 1;
+        int neighbours = 2 * span;
+        int[] table = new int[1 << (2 * neighbours)];
+        int[] line = new int[2 * span + 1];
+        for (int key = 0; key < table.length; key++){
+            int own = key & ((1 << neighbours) - 1);
+            int blocked = key >>> neighbours;
+            if ((own & blocked) != 0){
+                continue;
+            }
+            for (int bit = 0; bit < neighbours; bit++){
+                int position = offsetOf(bit, k) + span;
+                line[position] = (own >>> bit & 1) != 0 ? OWN
+                        : (blocked >>> bit & 1) != 0 ? BLOCKED : EMPTY;
+            }
+            line[span] = OWN;
+            table[key] = classify(line, k);
+        }
+        return table;
+    }
+
+    private static int classify(int[] line, int k){
+        if (hasRun(line, k)){
+            return FIVE;
+        }
+        int completion = -1;
+        int completions = 0;
+        for (int i = 0; i < line.length; i++){
+            if (line[i] == EMPTY && makesRun(line, i, k)){
+                completion = i;
+                completions += 1;
+            }
+        }
+        if (completions >= 2){
+            return STRAIGHT_FOUR;
+        }
+        if (completions == 1){
+            return FOUR | maskOf(completion, k) << DEFENCE_SHIFT;
+        }
+        if (!canMakeStraightFour(line, k)){
+            return NONE;
+        }
+        int defence = 0;
+        for (int i = 0; i < line.length; i++){
+            if (line[i] == EMPTY){
+                line[i] = BLOCKED;
+                if (!canMakeStraightFour(line, k)){
+                    defence |= maskOf(i, k);
+                }
+                line[i] = EMPTY;
+            }
+        }
+        return THREE | defence << DEFENCE_SHIFT;
+    }
+
+    /**
+     * @return boolean true if one more mark makes a line that two different marks would complete
+     */
+    private static boolean canMakeStraightFour(int[] line, int k){
+        for (int i = 0; i < line.length; i++){
+            if (line[i] != EMPTY){
+                continue;
+            }
+            line[i] = OWN;
+            int completions = 0;
+            for (int j = 0; j < line.length && completions < 2; j++){
+                if (line[j] == EMPTY && makesRun(line, j, k)){
+                    completions += 1;
+                }
+            }
+            line[i] = EMPTY;
+            if (completions >= 2){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean makesRun(int[] line, int cell, int k){
+        line[cell] = OWN;
+        boolean run = hasRun(line, k);
+        line[cell] = EMPTY;
+        return run;
+    }
+
+    /**
+     * @return boolean true if there are k own marks in a row through the middle of the line
+     */
+    private static boolean hasRun(int[] line, int k){
+        int span = k - 1;
+        for (int start = 0; start <= span; start++){
+            boolean run = true;
+            for (int i = start; i < start + k && run; i++){
+                run = line[i] == OWN;
+            }
+            if (run){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int maskOf(int position, int k){
+        int span = k - 1;
+        return 1 << (position < span ? position : position - 1);
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * This class remembers the results of positions the engine has already searched, so that a
+ * position reached by a different move order (or in a later move or round) is not searched again.
+ * It is a fixed-size table stored in a single long array: every slot is one long for the position
+ * hash and one long for the packed entry.
+ *
+ * A packed entry holds, from the lowest bits up: the best move + 1 (8 bits, 0 means no move), the
+ * score (16 bits, signed), the depth (8 bits), the bound type (2 bits) and the generation (8 bits).
+ */
+package com.example.jensu.tictactoe.ai;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    // The real score is at least the stored score (the search failed high).
+    public static final int BOUND_LOWER = 2;
+    // The real score is at most the stored score (the search failed low).
+    public static final int BOUND_UPPER = 3;
+
+    public static final int DEFAULT_SIZE_BITS = 14;
+
+    private static final int MOVE_SHIFT = 0;
+    private static final int SCORE_SHIFT = 8;
+    private static final int DEPTH_SHIFT = 24;
+    private static final int BOUND_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 34;
+
+    private final long[] table;
+    private final int mask;
+    private int generation;
+
+    private long probes;
+    private long hits;
+    private long misses;
+    private long collisions;
+    private long stores;
+    private long replacements;
+
+    public TranspositionTable(){
+        this(DEFAULT_SIZE_BITS);
+    }
+
+    /**
+     * @param sizeBits the table has 2^sizeBits slots
+     */
+    public TranspositionTable(int sizeBits){
+        if (sizeBits < 1 || sizeBits > 26){
+            throw new IllegalArgumentException("sizeBits must be between 1 and 26");
+        }
+        table = new long[2 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * This method looks up a position.
+     * @param hash the Zobrist hash of the position
+     * @return long the packed entry, or 0 if the position is not in the table
+     */
+    public long probe(long hash){
+        probes += 1;
+        int slot = slot(hash);
+        long data = table[slot + 1];
+        if (data != 0 && table[slot] == hash){
+            hits += 1;
+            return data;
+        }
+        if (data != 0){
+            // another position is using this slot
+            collisions += 1;
+        }
+        misses += 1;
+        return 0;
+    }
+
+    /**
+     * This method saves a search result. An entry of the current search generation is only replaced
+     * by a result from the same or a deeper search, entries from earlier moves are always replaced.
+     * @param hash the Zobrist hash of the position
+     * @param move the best move, or -1 if there is none
+     * @param score the score
+     * @param depth how many moves deep the score was searched
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public void store(long hash, int move, int score, int depth, int bound){
+        int slot = slot(hash);
+        long old = table[slot + 1];
+        if (old != 0 && table[slot] != hash && generationOf(old) == generation
+                && depthOf(old) > depth){
+            return;
+        }
+        if (old != 0 && table[slot] != hash){
+            replacements += 1;
+        }
+        stores += 1;
+        table[slot] = hash;
+        table[slot + 1] = ((long) (move + 1) & 0xFF) << MOVE_SHIFT
+                | ((long) score & 0xFFFF) << SCORE_SHIFT
+                | ((long) depth & 0xFF) << DEPTH_SHIFT
+                | ((long) bound & 0x3) << BOUND_SHIFT
+                | ((long) generation & 0xFF) << GENERATION_SHIFT;
+    }
+
+    /**
+     * This method starts a new search generation. It should be called once before every search so
+     * that old entries can be replaced.
+     */
+    public void newSearch(){
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * This method empties the table and resets the counters.
+     */
+    public void clear(){
+        Arrays.fill(table, 0);
+        generation = 0;
+        probes = 0;
+        hits = 0;
+        misses = 0;
+        collisions = 0;
+        stores = 0;
+        replacements = 0;
+    }
+
+    private int slot(long hash){
+        // mix the high bits in so that the low bits alone do not decide the slot
+        return ((int) (hash ^ (hash >>> 32)) & mask) << 1;
+    }
+
+    public static int moveOf(long data){
+        return (int) ((data >>> MOVE_SHIFT) & 0xFF) - 1;
+    }
+
+    public static int scoreOf(long data){
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depthOf(long data){
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int boundOf(long data){
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generationOf(long data){
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    public int getCapacity(){
+        return mask + 1;
+    }
+
+    public long getProbes(){
+        return probes;
+    }
+
+    public long getHits(){
+        return hits;
+    }
+
+    public long getMisses(){
+        return misses;
+    }
+
+    public long getCollisions(){
+        return collisions;
+    }
+
+    public long getStores(){
+        return stores;
+    }
+
+    public long getReplacements(){
+        return replacements;
+    }
+
+    @Override
+    public String toString(){
+        return "probes=" + probes + " hits=" + hits + " misses=" + misses + " collisions="
+                + collisions + " stores=" + stores + " replacements=" + replacements;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * This class scores a position by looking at every window of k cells in a row, column or diagonal.
+ * A window that holds marks of only one side could still become that side's line, and it is worth
+ * more the more marks it already has. Every window is rescanned on every call, the same way the
+ * original hasWon() rescanned the whole board, so it is simple but slow on big boards.
+ */
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+public class WindowEvaluator implements Evaluator {
+
+    private Variant variant;
+    // windows[w] holds the k cells of window w
+    private int[][] windows;
+
+    @Override
+    public int evaluate(GridBoard board){
+        if (!board.getVariant().equals(variant)){
+            variant = board.getVariant();
+            windows = findWindows(variant);
+        }
+        int score = 0;
+        for (int[] window : windows){
+            int player1 = 0;
+            int player2 = 0;
+            for (int cell : window){
+                int side = board.get(cell);
+                if (side == GridBoard.PLAYER_1){
+                    player1 += 1;
+                }
+                else if (side == GridBoard.PLAYER_2){
+                    player2 += 1;
+                }
+            }
+            if (player2 == 0){
+                score += weight(player1);
+            }
+            else if (player1 == 0){
+                score -= weight(player2);
+            }
+        }
+        score = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+        return board.getSideToMove() == GridBoard.PLAYER_1 ? score : -score;
+    }
+
+    // Every call looks at the whole board, so there is nothing to keep up to date.
+    @Override
+    public void reset(GridBoard board){
+    }
+
+    @Override
+    public void play(int cell, int side){
+    }
+
+    @Override
+    public void undo(int cell, int side){
+    }
+
+    /**
+     * Each mark more in an open window makes it eight times as valuable.
+     * @param marks the marks of one side in a window with none of the other side
+     * @return int the value of the window
+     */
+    static int weight(int marks){
+        return marks == 0 ? 0 : 1 << (3 * (marks - 1));
+    }
+
+    /**
+     * @return int[][] every window of k cells in a line on the board
+     */
+    static int[][] findWindows(Variant variant){
+        int rows = variant.getRows();
+        int cols = variant.getCols();
+        int k = variant.getK();
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int count = 0;
+        int[][] windows = new int[4 * rows * cols][];
+        for (int[] step : steps){
+            for (int x = 0; x < rows; x++){
+                for (int y = 0; y < cols; y++){
+                    int endX = x + step[0] * (k - 1);
+                    int endY = y + step[1] * (k - 1);
+                    if (endX < 0 || endX >= rows || endY < 0 || endY >= cols){
+                        continue;
+                    }
+                    int[] window = new int[k];
+                    for (int i = 0; i < k; i++){
+                        window[i] = (x + step[0] * i) * cols + y + step[1] * i;
+                    }
+                    windows[count] = window;
+                    count += 1;
+                }
+            }
+        }
+        int[][] found = new int[count][];
+        System.arraycopy(windows, 0, found, 0, count);
+        return found;
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * This class is the game state of a Tic-Tac-Toe board. It does not know anything about Android,
+ * so it can be used and tested on a normal JVM. The position is stored as two 9-bit masks, one for
+ * each player, where bit (x * 3 + y) is the cell in row x and column y. The board also keeps the
+ * Zobrist hash of the position up to date on every move, for the position itself and for each of
+ * its seven symmetric copies, so the canonical hash is always available without a rescan.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class Board {
+
+    public static final int SIZE = 3;
+    public static final int CELLS = SIZE * SIZE;
+
+    // Player 1 is always "O" and moves first, player 2 is always "X".
+    public static final int EMPTY = -1;
+    public static final int PLAYER_1 = 0;
+    public static final int PLAYER_2 = 1;
+
+    public static final int FULL_MASK = (1 << CELLS) - 1;
+
+    // The eight winning lines: three rows, three columns and the two diagonals.
+    private static final int[] LINES = {
+            0x007, 0x038, 0x1C0,
+            0x049, 0x092, 0x124,
+            0x111, 0x054
+    };
+
+    private final int[] masks = new int[2];
+    private int turnCount;
+    // hashes[t] is the hash of the position after symmetry t, hashes[0] is the normal hash
+    private final long[] hashes = new long[Symmetry.COUNT];
+
+    /**
+     * This method returns the cell index of the given row and column.
+     * @param x the row
+     * @param y the column
+     * @return int the cell index
+     */
+    public static int index(int x, int y){
+        return x * SIZE + y;
+    }
+
+    /**
+     * This method checks if a mask contains any of the winning lines.
+     * @param mask the cells of one player
+     * @return boolean true if the mask has three in a row
+     */
+    public static boolean isWinningMask(int mask){
+        for (int line : LINES){
+            if ((mask & line) == line){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method places the mark of the player whose turn it is on the given cell.
+     * @param cell the cell index, it must be empty
+     */
+    public void play(int cell){
+        if (!isEmpty(cell)){
+            throw new IllegalArgumentException("Cell " + cell + " is already taken");
+        }
+        int side = getSideToMove();
+        masks[side] |= 1 << cell;
+        updateHashes(side, cell);
+        turnCount += 1;
+    }
+
+    /**
+     * This method removes the mark from the given cell. It has to be the last move played.
+     * @param cell the cell index
+     */
+    public void undo(int cell){
+        turnCount -= 1;
+        int side = getSideToMove();
+        masks[side] &= ~(1 << cell);
+        updateHashes(side, cell);
+    }
+
+    private void updateHashes(int side, int cell){
+        for (int t = 0; t < Symmetry.COUNT; t++){
+            hashes[t] ^= Zobrist.key(side, Symmetry.transformCell(t, cell));
+        }
+    }
+
+    /**
+     * This method sets the whole position at once, for example when a saved game is loaded.
+     * @param player1Mask the cells of player 1
+     * @param player2Mask the cells of player 2
+     */
+    public void setMasks(int player1Mask, int player2Mask){
+        if ((player1Mask & player2Mask) != 0 || ((player1Mask | player2Mask) & ~FULL_MASK) != 0){
+            throw new IllegalArgumentException("Invalid board masks");
+        }
+        masks[PLAYER_1] = player1Mask;
+        masks[PLAYER_2] = player2Mask;
+        turnCount = Integer.bitCount(player1Mask | player2Mask);
+        for (int t = 0; t < Symmetry.COUNT; t++){
+            hashes[t] = Zobrist.hash(Symmetry.transformMask(t, player1Mask),
+                    Symmetry.transformMask(t, player2Mask));
+        }
+    }
+
+    /**
+     * This method empties the board so that a new round can start.
+     */
+    public void clear(){
+        masks[PLAYER_1] = 0;
+        masks[PLAYER_2] = 0;
+        turnCount = 0;
+        for (int t = 0; t < Symmetry.COUNT; t++){
+            hashes[t] = 0;
+        }
+    }
+
+    public boolean isEmpty(int cell){
+        return ((masks[PLAYER_1] | masks[PLAYER_2]) & (1 << cell)) == 0;
+    }
+
+    /**
+     * This method returns who is on the given cell.
+     * @param cell the cell index
+     * @return int PLAYER_1, PLAYER_2 or EMPTY
+     */
+    public int get(int cell){
+        int bit = 1 << cell;
+        if ((masks[PLAYER_1] & bit) != 0){
+            return PLAYER_1;
+        }
+        if ((masks[PLAYER_2] & bit) != 0){
+            return PLAYER_2;
+        }
+        return EMPTY;
+    }
+
+    public int getMask(int side){
+        return masks[side];
+    }
+
+    public int getEmptyMask(){
+        return ~(masks[PLAYER_1] | masks[PLAYER_2]) & FULL_MASK;
+    }
+
+    /**
+     * The side to move is not part of the hash because it always follows from the number of marks.
+     * @return long the Zobrist hash of the position
+     */
+    public long getHash(){
+        return hashes[Symmetry.IDENTITY];
+    }
+
+    /**
+     * @param transform the symmetry
+     * @return long the Zobrist hash of the position after the symmetry is applied
+     */
+    public long getHash(int transform){
+        return hashes[transform];
+    }
+
+    /**
+     * Symmetric positions have the same set of eight hashes, so picking the smallest one gives every
+     * symmetric copy the same canonical hash.
+     * @return int the symmetry whose hash is the canonical hash
+     */
+    public int getCanonicalTransform(){
+        int best = Symmetry.IDENTITY;
+        for (int t = 1; t < Symmetry.COUNT; t++){
+            if (hashes[t] < hashes[best]){
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    public long getCanonicalHash(){
+        return hashes[getCanonicalTransform()];
+    }
+
+    public int getTurnCount(){
+        return turnCount;
+    }
+
+    /**
+     * Since player 1 always starts a round, the side to move only depends on the turn count.
+     * @return int PLAYER_1 or PLAYER_2
+     */
+    public int getSideToMove(){
+        return turnCount & 1;
+    }
+
+    public boolean hasWon(int side){
+        return isWinningMask(masks[side]);
+    }
+
+    public boolean isFull(){
+        return turnCount == CELLS;
+    }
+
+    /**
+     * This method returns the winner of the round, if there is one.
+     * @return int PLAYER_1, PLAYER_2 or EMPTY if nobody has three in a row
+     */
+    public int getWinner(){
+        if (hasWon(PLAYER_1)){
+            return PLAYER_1;
+        }
+        if (hasWon(PLAYER_2)){
+            return PLAYER_2;
+        }
+        return EMPTY;
+    }
+
+    public boolean isGameOver(){
+        return isFull() || getWinner() != EMPTY;
+    }
+}
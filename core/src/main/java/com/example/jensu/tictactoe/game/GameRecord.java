@@ -0,0 +1,187 @@
+/**
+ * This class is the saved state of a game: the board, the round, both players' points and the rules
+ * of the series. It is saved as one short string under a single SharedPreferences key instead of a
+ * key for every value and every cell.
+ *
+ * The string is a list of numbers in base 36, separated by commas. It starts with the version, then
+ * the variant, the series values, whether the game is over and how many moves have been played,
+ * and ends with the moves in the order they were played, followed by the moves that were taken
+ * back and can be redone. The board is rebuilt by playing them again, so undo and redo work the
+ * same after the app was paused. A classic game is saved in about 40 characters.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class GameRecord {
+
+    // Records of any other version are ignored, so the game starts over instead of loading garbage.
+    public static final int VERSION = 2;
+
+    private static final String SEPARATOR = ",";
+    private static final int RADIX = 36;
+    // version, rows, cols, k, rounds, player 1 points, player 2 points, play type, principle, over,
+    // turns
+    private static final int HEADER_FIELDS = 11;
+
+    private final Variant variant;
+    private final int rounds;
+    private final int player1Points;
+    private final int player2Points;
+    private final int playType;
+    private final int principle;
+    private final boolean over;
+    // how many of the moves are on the board, the rest can be redone
+    private final int turns;
+    private final int[] moves;
+
+    /**
+     * This constructor saves a game that is being played.
+     * @param board the board, it is copied
+     * @param rounds the number of rounds that have been finished
+     * @param player1Points the points of player 1
+     * @param player2Points the points of player 2
+     * @param playType 0 to play forever, 1 for best of, 2 for first one to
+     * @param principle the number of rounds or points that ends the game
+     * @param over true if the game has ended
+     */
+    public GameRecord(GridBoard board, int rounds, int player1Points, int player2Points,
+                      int playType, int principle, boolean over){
+        this(board.getVariant(), rounds, player1Points, player2Points, playType, principle, over,
+                board.getTurnCount(), new int[board.getTurnCount() + board.getRedoCount()]);
+        for (int turn = 0; turn < moves.length; turn++){
+            moves[turn] = board.getMove(turn);
+        }
+    }
+
+    private GameRecord(Variant variant, int rounds, int player1Points, int player2Points,
+                       int playType, int principle, boolean over, int turns, int[] moves){
+        this.variant = variant;
+        this.rounds = rounds;
+        this.player1Points = player1Points;
+        this.player2Points = player2Points;
+        this.playType = playType;
+        this.principle = principle;
+        this.over = over;
+        this.turns = turns;
+        this.moves = moves;
+    }
+
+    /**
+     * @param variant the board of the new game
+     * @param playType 0 to play forever, 1 for best of, 2 for first one to
+     * @param principle the number of rounds or points that ends the game
+     * @return GameRecord the record of a game that has not started yet
+     */
+    public static GameRecord newGame(Variant variant, int playType, int principle){
+        return new GameRecord(variant, 0, 0, 0, playType, principle, false, 0, new int[0]);
+    }
+
+    /**
+     * @return String the record as one string
+     */
+    public String encode(){
+        StringBuilder text = new StringBuilder();
+        long[] header = {VERSION, variant.getRows(), variant.getCols(), variant.getK(), rounds,
+                player1Points, player2Points, playType, principle, over ? 1 : 0, turns};
+        for (int i = 0; i < header.length; i++){
+            if (i > 0){
+                text.append(SEPARATOR);
+            }
+            text.append(Long.toString(header[i], RADIX));
+        }
+        for (int move : moves){
+            text.append(SEPARATOR).append(Integer.toString(move, RADIX));
+        }
+        return text.toString();
+    }
+
+    /**
+     * This method reads a record back from its string. Anything that is not a valid record of
+     * this version, including a board that can not come up in a game, gives null.
+     * @param text the string from encode(), or null
+     * @return GameRecord the record, or null if there is no valid record
+     */
+    public static GameRecord decode(String text){
+        if (text == null){
+            return null;
+        }
+        String[] fields = text.split(SEPARATOR);
+        try {
+            if (fields.length < HEADER_FIELDS || parse(fields[0]) != VERSION){
+                return null;
+            }
+            Variant variant = new Variant((int) parse(fields[1]), (int) parse(fields[2]),
+                    (int) parse(fields[3]));
+            int[] moves = new int[fields.length - HEADER_FIELDS];
+            for (int i = 0; i < moves.length; i++){
+                moves[i] = (int) parse(fields[HEADER_FIELDS + i]);
+            }
+            GameRecord record = new GameRecord(variant, (int) parse(fields[4]),
+                    (int) parse(fields[5]), (int) parse(fields[6]), (int) parse(fields[7]),
+                    (int) parse(fields[8]), parse(fields[9]) != 0, (int) parse(fields[10]),
+                    moves);
+            // make sure the board can be loaded before anyone relies on it
+            record.loadBoard(new GridBoard(variant));
+            return record;
+        }
+        catch (IllegalArgumentException e){
+            // this also catches NumberFormatException
+            return null;
+        }
+    }
+
+    private static long parse(String field){
+        return Long.parseLong(field, RADIX);
+    }
+
+    /**
+     * This method plays the saved moves on a board, and takes back the ones that can be redone.
+     * @param board a board of the same variant, it is cleared first
+     */
+    public void loadBoard(GridBoard board){
+        if (!variant.equals(board.getVariant())){
+            throw new IllegalArgumentException("The board is not a " + variant + " board");
+        }
+        if (turns < 0 || turns > moves.length){
+            throw new IllegalArgumentException("There are only " + moves.length + " moves");
+        }
+        board.clear();
+        for (int move : moves){
+            if (move < 0 || move >= variant.getCells()){
+                throw new IllegalArgumentException("Cell " + move + " is not on the board");
+            }
+            // this throws for a cell played twice, or a move after the round was won
+            board.play(move);
+        }
+        while (board.getTurnCount() > turns){
+            board.undo();
+        }
+    }
+
+    public Variant getVariant(){
+        return variant;
+    }
+
+    public int getRounds(){
+        return rounds;
+    }
+
+    public int getPlayer1Points(){
+        return player1Points;
+    }
+
+    public int getPlayer2Points(){
+        return player2Points;
+    }
+
+    public int getPlayType(){
+        return playType;
+    }
+
+    public int getPrinciple(){
+        return principle;
+    }
+
+    public boolean isOver(){
+        return over;
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * This class is the game state of a board of any size where k marks in a row win (an m,n,k-game).
+ * Every cell is kept in a byte array for quick neighbour checks, and each player's cells are also
+ * kept as a bitset in a long array. Cell (x, y) has the index x * cols + y. The moves played so far
+ * are kept in order in an int array, so they can be taken back and played again. Taking back a move
+ * only touches that one cell, its bits and the hash. The engines use the same play() and undo() to
+ * make and unmake moves on their scratch boards.
+ *
+ * A move can only create a line through the cell it was played on, so the win check after a move
+ * only walks the four directions out from that cell. That is O(k) no matter how big the board is.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class GridBoard {
+
+    public static final int EMPTY = Board.EMPTY;
+    public static final int PLAYER_1 = Board.PLAYER_1;
+    public static final int PLAYER_2 = Board.PLAYER_2;
+
+    // Row and column steps of the four line directions: across, down, and the two diagonals.
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+
+    private final Variant variant;
+    private final int rows;
+    private final int cols;
+    private final int cells;
+    private final int k;
+
+    private final byte[] board;
+    private final long[][] bits;
+    private final long[] zobrist;
+    private final int[] moves;
+
+    private int turnCount;
+    // moves[turnCount] up to moves[moveCount - 1] are moves that were taken back and can be redone
+    private int moveCount;
+    private int winner = EMPTY;
+    private long hash;
+
+    public GridBoard(Variant variant){
+        this.variant = variant;
+        rows = variant.getRows();
+        cols = variant.getCols();
+        cells = variant.getCells();
+        k = variant.getK();
+        board = new byte[cells];
+        bits = new long[2][(cells + 63) >>> 6];
+        zobrist = Zobrist.keys(cells);
+        moves = new int[cells];
+        clear();
+    }
+
+    public int index(int x, int y){
+        return x * cols + y;
+    }
+
+    /**
+     * This method places the mark of the player whose turn it is and checks if it won.
+     * @param cell the cell index, it must be empty and the game must not be over
+     */
+    public void play(int cell){
+        if (board[cell] != EMPTY || winner != EMPTY){
+            throw new IllegalArgumentException("Cell " + cell + " can not be played");
+        }
+        int side = getSideToMove();
+        board[cell] = (byte) side;
+        bits[side][cell >>> 6] |= 1L << cell;
+        hash ^= zobrist[side * cells + cell];
+        // playing the move that would be redone keeps the moves after it, anything else drops them,
+        // so a search must work on a copy to leave the redo line alone
+        if (turnCount >= moveCount || moves[turnCount] != cell){
+            moves[turnCount] = cell;
+            moveCount = turnCount + 1;
+        }
+        turnCount += 1;
+        if (isLineThrough(cell, side)){
+            winner = side;
+        }
+    }
+
+    /**
+     * This method takes back the last move. Since nothing can be played after a win, taking back
+     * any move also takes back the win.
+     * @return int the cell of the move that was taken back
+     */
+    public int undo(){
+        if (turnCount == 0){
+            throw new IllegalStateException("There is no move to take back");
+        }
+        turnCount -= 1;
+        int side = getSideToMove();
+        int cell = moves[turnCount];
+        board[cell] = EMPTY;
+        bits[side][cell >>> 6] &= ~(1L << cell);
+        hash ^= zobrist[side * cells + cell];
+        winner = EMPTY;
+        return cell;
+    }
+
+    /**
+     * This method plays the last move that was taken back again.
+     * @return int the cell of the move
+     */
+    public int redo(){
+        int cell = getRedoMove();
+        if (cell < 0){
+            throw new IllegalStateException("There is no move to redo");
+        }
+        play(cell);
+        return cell;
+    }
+
+    public boolean canUndo(){
+        return turnCount > 0;
+    }
+
+    public boolean canRedo(){
+        return turnCount < moveCount;
+    }
+
+    /**
+     * @return int how many moves were taken back and can be redone. getMove() gives them too, on
+     * the turns from getTurnCount() on.
+     */
+    public int getRedoCount(){
+        return moveCount - turnCount;
+    }
+
+    /**
+     * @return int the cell redo() would play, or -1 if there is nothing to redo
+     */
+    public int getRedoMove(){
+        return canRedo() ? moves[turnCount] : -1;
+    }
+
+    /**
+     * This method sets the whole position at once from its marks alone. Their order is not known,
+     * so the move list is made up by taking player 1's and player 2's cells in turn, and undo does
+     * not give back the real moves. Saved games keep their moves instead, see GameRecord.
+     * @param sides the owner of every cell: PLAYER_1, PLAYER_2 or EMPTY
+     */
+    public void load(int[] sides){
+        int[] marks = {0, 0};
+        for (int cell = 0; cell < cells; cell++){
+            if (sides[cell] != EMPTY){
+                marks[sides[cell]] += 1;
+            }
+        }
+        if (marks[PLAYER_1] - marks[PLAYER_2] != 0 && marks[PLAYER_1] - marks[PLAYER_2] != 1){
+            throw new IllegalArgumentException("Player 1 must have as many marks as player 2 or one"
+                    + " more, not " + marks[PLAYER_1] + " and " + marks[PLAYER_2]);
+        }
+        clear();
+        int[] next = {0, 0};
+        for (int cell = 0; cell < cells; cell++){
+            if (sides[cell] != EMPTY){
+                int side = sides[cell];
+                board[cell] = (byte) side;
+                bits[side][cell >>> 6] |= 1L << cell;
+                hash ^= zobrist[side * cells + cell];
+            }
+        }
+        for (turnCount = 0; turnCount < marks[PLAYER_1] + marks[PLAYER_2]; turnCount++){
+            int side = getSideToMove();
+            while (sides[next[side]] != side){
+                next[side] += 1;
+            }
+            moves[turnCount] = next[side];
+            next[side] += 1;
+        }
+        moveCount = turnCount;
+        for (int cell = 0; cell < cells && winner == EMPTY; cell++){
+            if (board[cell] != EMPTY && isLineThrough(cell, board[cell])){
+                winner = board[cell];
+            }
+        }
+    }
+
+    /**
+     * This method makes this board the same as another board of the same variant. It does not
+     * allocate anything, so engines can reset a scratch board many times a second. Moves that can
+     * be redone on the other board are not copied.
+     * @param other the board to copy
+     */
+    public void copyFrom(GridBoard other){
+        if (!variant.equals(other.variant)){
+            throw new IllegalArgumentException("Boards are of different variants");
+        }
+        System.arraycopy(other.board, 0, board, 0, cells);
+        for (int side = 0; side < 2; side++){
+            System.arraycopy(other.bits[side], 0, bits[side], 0, bits[side].length);
+        }
+        System.arraycopy(other.moves, 0, moves, 0, other.turnCount);
+        turnCount = other.turnCount;
+        moveCount = turnCount;
+        winner = other.winner;
+        hash = other.hash;
+    }
+
+    /**
+     * This method empties the board so that a new round can start.
+     */
+    public void clear(){
+        for (int cell = 0; cell < cells; cell++){
+            board[cell] = EMPTY;
+        }
+        for (int word = 0; word < bits[0].length; word++){
+            bits[PLAYER_1][word] = 0;
+            bits[PLAYER_2][word] = 0;
+        }
+        turnCount = 0;
+        moveCount = 0;
+        winner = EMPTY;
+        hash = 0;
+    }
+
+    /**
+     * This method checks if the given side has k in a row through a cell, walking out from the cell
+     * in both ways along each of the four directions.
+     * @param cell the cell index
+     * @param side PLAYER_1 or PLAYER_2
+     * @return boolean true if there is a line of at least k
+     */
+    public boolean isLineThrough(int cell, int side){
+        int x = cell / cols;
+        int y = cell % cols;
+        for (int d = 0; d < 4; d++){
+            int count = 1
+                    + countFrom(x, y, DIRECTION_ROWS[d], DIRECTION_COLS[d], side)
+                    + countFrom(x, y, -DIRECTION_ROWS[d], -DIRECTION_COLS[d], side);
+            if (count >= k){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return int how many marks of the side follow the cell (x, y) in the direction, up to k - 1
+     */
+    private int countFrom(int x, int y, int dx, int dy, int side){
+        int count = 0;
+        x += dx;
+        y += dy;
+        while (count < k - 1 && x >= 0 && x < rows && y >= 0 && y < cols
+                && board[x * cols + y] == side){
+            count += 1;
+            x += dx;
+            y += dy;
+        }
+        return count;
+    }
+
+    public boolean isEmpty(int cell){
+        return board[cell] == EMPTY;
+    }
+
+    /**
+     * @param cell the cell index
+     * @return int PLAYER_1, PLAYER_2 or EMPTY
+     */
+    public int get(int cell){
+        return board[cell];
+    }
+
+    /**
+     * @param side PLAYER_1 or PLAYER_2
+     * @param word which 64 cells, word 0 is cells 0 to 63
+     * @return long the bitset of that side's cells
+     */
+    public long getBits(int side, int word){
+        return bits[side][word];
+    }
+
+    public int getWords(){
+        return bits[0].length;
+    }
+
+    public Variant getVariant(){
+        return variant;
+    }
+
+    public int getRows(){
+        return rows;
+    }
+
+    public int getCols(){
+        return cols;
+    }
+
+    public int getCells(){
+        return cells;
+    }
+
+    public int getK(){
+        return k;
+    }
+
+    public int getTurnCount(){
+        return turnCount;
+    }
+
+    /**
+     * Since player 1 always starts a round, the side to move only depends on the turn count.
+     * @return int PLAYER_1 or PLAYER_2
+     */
+    public int getSideToMove(){
+        return turnCount & 1;
+    }
+
+    /**
+     * @return int the cell of the last move, or -1 if no move has been played
+     */
+    public int getLastMove(){
+        return turnCount == 0 ? -1 : moves[turnCount - 1];
+    }
+
+    /**
+     * @param turn the turn number, starting at 0
+     * @return int the cell played on that turn
+     */
+    public int getMove(int turn){
+        return moves[turn];
+    }
+
+    public long getHash(){
+        return hash;
+    }
+
+    /**
+     * @return int PLAYER_1, PLAYER_2 or EMPTY if nobody has k in a row
+     */
+    public int getWinner(){
+        return winner;
+    }
+
+    public boolean isFull(){
+        return turnCount == cells;
+    }
+
+    public boolean isGameOver(){
+        return winner != EMPTY || turnCount == cells;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * This class keeps the score of a series of rounds and decides when the series is over. A round
+ * is won by one player or tied, and a tie gives nobody a point. There are three types of play:
+ * playing forever, best of a number of rounds, where ties count as rounds, and first one to a
+ * number of points.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class Series {
+
+    // The types of play, in the same order as R.array.play_type_array.
+    public static final int INFINITE = 0;
+    public static final int BEST_OF = 1;
+    public static final int FIRST_TO = 2;
+
+    private final int playType;
+    private final int principle;
+    private int rounds;
+    private final int[] points = new int[2];
+
+    /**
+     * @param playType INFINITE, BEST_OF or FIRST_TO
+     * @param principle the number of rounds for best of, or the points for first one to
+     */
+    public Series(int playType, int principle){
+        if (playType < INFINITE || playType > FIRST_TO || (playType != INFINITE && principle < 1)){
+            throw new IllegalArgumentException("Invalid series " + playType + "/" + principle);
+        }
+        this.playType = playType;
+        this.principle = principle;
+    }
+
+    /**
+     * This method checks if a series has been decided.
+     * @param playType INFINITE, BEST_OF or FIRST_TO
+     * @param principle the number of rounds for best of, or the points for first one to
+     * @param rounds how many rounds have been played, including ties
+     * @param player1Points the rounds won by player 1
+     * @param player2Points the rounds won by player 2
+     * @return boolean true if no more rounds are played
+     */
+    public static boolean isOver(int playType, int principle, int rounds, int player1Points,
+                                 int player2Points){
+        if (playType == BEST_OF){
+            return rounds >= principle;
+        }
+        if (playType == FIRST_TO){
+            return player1Points >= principle || player2Points >= principle;
+        }
+        return false;
+    }
+
+    /**
+     * @return int PLAYER_1 or PLAYER_2 if they have more points, EMPTY if the points are equal
+     */
+    public static int getLeader(int player1Points, int player2Points){
+        if (player1Points > player2Points){
+            return Board.PLAYER_1;
+        }
+        if (player2Points > player1Points){
+            return Board.PLAYER_2;
+        }
+        return Board.EMPTY;
+    }
+
+    /**
+     * This method adds the result of a round.
+     * @param winner PLAYER_1 or PLAYER_2, or EMPTY for a tie
+     */
+    public void addRound(int winner){
+        if (isOver()){
+            throw new IllegalStateException("The series is already over");
+        }
+        rounds += 1;
+        if (winner != Board.EMPTY){
+            points[winner] += 1;
+        }
+    }
+
+    public boolean isOver(){
+        return isOver(playType, principle, rounds, points[Board.PLAYER_1], points[Board.PLAYER_2]);
+    }
+
+    /**
+     * @return int the player with more points, or EMPTY if the points are equal
+     */
+    public int getLeader(){
+        return getLeader(points[Board.PLAYER_1], points[Board.PLAYER_2]);
+    }
+
+    public int getPlayType(){
+        return playType;
+    }
+
+    public int getPrinciple(){
+        return principle;
+    }
+
+    public int getRounds(){
+        return rounds;
+    }
+
+    /**
+     * @param side PLAYER_1 or PLAYER_2
+     * @return int the rounds the side has won
+     */
+    public int getPoints(int side){
+        return points[side];
+    }
+}
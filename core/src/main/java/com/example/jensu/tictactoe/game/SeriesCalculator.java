@@ -0,0 +1,208 @@
+/**
+ * This class works out the exact odds of a best of or first one to series from the chances of a
+ * single round, for any score along the way. Nothing is recursive: every answer is a single sum
+ * over the rounds that are left, so principles in the thousands are no problem.
+ *
+ * A first one to series only moves on when a round is won, so it is a race of decisive rounds:
+ * player 1 needs i more wins before player 2 gets j, each decisive round going to player 1 with
+ * chance s = p1 / (p1 + p2), and that is a sum of negative binomial terms. A best of series has a
+ * fixed number of rounds m left, and splitting them by how many are decisive turns its odds into a
+ * sum of binomial tails, which are walked from one count to the next in constant time each.
+ *
+ * Storing the odds of every score would take memory growing with the square of the principle, so
+ * the log factorials are memoised instead, which makes every term of the sums a few additions. The
+ * table is shared by all calculators and only grows, so the game screen can make a new calculator
+ * after every round without working the logs out again.
+ */
+package com.example.jensu.tictactoe.game;
+
+import java.util.Arrays;
+
+public class SeriesCalculator {
+
+    private final int playType;
+    private final int principle;
+    private final double player1Win;
+    private final double tie;
+    private final double player2Win;
+    // logFactorials[n] is log(n!), for n up to at least 2 * principle
+    private final double[] logFactorials;
+
+    private static double[] sharedLogFactorials = {0, 0};
+
+    /**
+     * @param playType Series.BEST_OF or Series.FIRST_TO
+     * @param principle the number of rounds for best of, or the points for first one to
+     * @param player1Win the chance that player 1 wins a round
+     * @param tie the chance that a round is a tie, player 2 wins the rest
+     */
+    public SeriesCalculator(int playType, int principle, double player1Win, double tie){
+        if ((playType != Series.BEST_OF && playType != Series.FIRST_TO) || principle < 1){
+            throw new IllegalArgumentException("The series never ends");
+        }
+        if (player1Win < 0 || tie < 0 || player1Win + tie > 1 + 1e-9){
+            throw new IllegalArgumentException("Invalid round chances");
+        }
+        this.playType = playType;
+        this.principle = principle;
+        this.player1Win = player1Win;
+        this.tie = tie;
+        this.player2Win = Math.max(0, 1 - player1Win - tie);
+        logFactorials = logFactorials(2 * principle + 1);
+    }
+
+    /**
+     * @param size how many log factorials are needed
+     * @return double[] the shared table, grown to at least that size
+     */
+    private static synchronized double[] logFactorials(int size){
+        int known = sharedLogFactorials.length;
+        if (known < size){
+            double[] grown = Arrays.copyOf(sharedLogFactorials, Math.max(size, 2 * known));
+            for (int n = known; n < grown.length; n++){
+                grown[n] = grown[n - 1] + Math.log(n);
+            }
+            sharedLogFactorials = grown;
+        }
+        return sharedLogFactorials;
+    }
+
+    /**
+     * This method works out the odds of the series from the given score.
+     * @param rounds how many rounds have been played, including ties
+     * @param player1Points the rounds won by player 1
+     * @param player2Points the rounds won by player 2
+     * @return SeriesOdds the odds
+     */
+    public SeriesOdds getOdds(int rounds, int player1Points, int player2Points){
+        if (Series.isOver(playType, principle, rounds, player1Points, player2Points)){
+            int leader = Series.getLeader(player1Points, player2Points);
+            return new SeriesOdds(leader == Board.PLAYER_1 ? 1 : 0, leader == Board.PLAYER_2 ? 1 : 0,
+                    leader == Board.EMPTY ? 1 : 0, rounds, 0);
+        }
+        if (playType == Series.BEST_OF){
+            return getBestOfOdds(rounds, player1Points - player2Points);
+        }
+        return getFirstToOdds(rounds, principle - player1Points, principle - player2Points);
+    }
+
+    /**
+     * Player 1 takes the series when its lead after the last round is above 0. With j decisive
+     * rounds out of the m left, that means at least k_j = floor((j - lead) / 2) + 1 wins, so the
+     * chance is the sum over j of P(j decisive) * P(Bin(j, s) >= k_j). The binomial CDF at k_j - 1
+     * is carried from j to j + 1 with F(j+1, x) = F(j, x) - s * f(j, x), and k_j goes up by one
+     * every second step.
+     */
+    private SeriesOdds getBestOfOdds(int rounds, int lead){
+        int left = principle - rounds;
+        double decisive = player1Win + player2Win;
+        double s = decisive == 0 ? 0.5 : player1Win / decisive;
+        double logDecisive = Math.log(decisive);
+        double logTie = Math.log(tie);
+        double logS = Math.log(s);
+        double logNotS = Math.log(1 - s);
+
+        int k = floorHalf(-lead) + 1;
+        // P(Bin(0, s) <= k - 1)
+        double cdf = k >= 1 ? 1 : 0;
+        double player1 = 0;
+        double player2 = 0;
+        for (int j = 0; j <= left; j++){
+            double weight = binomial(left, j, logDecisive, logTie);
+            double below = cdf;
+            if (((j - lead) & 1) == 0){
+                // the lead can end at exactly 0, with k - 1 wins
+                below -= binomial(j, k - 1, logS, logNotS);
+            }
+            player1 += weight * (1 - clamp(cdf));
+            player2 += weight * clamp(below);
+            if (j == left){
+                break;
+            }
+            cdf -= s * binomial(j, k - 1, logS, logNotS);
+            if (((j + 1 - lead) & 1) == 0){
+                cdf += binomial(j + 1, k, logS, logNotS);
+                k += 1;
+            }
+        }
+        player1 = clamp(player1);
+        player2 = clamp(player2);
+        // every round counts, so the length of the series is already known
+        return new SeriesOdds(player1, player2, clamp(1 - player1 - player2), principle, 0);
+    }
+
+    /**
+     * Player 1 needs i more wins and player 2 needs j. Player 1 takes the series at decisive round
+     * i + t, for t < j, with chance C(i - 1 + t, t) s^i (1 - s)^t, and player 2 the same way round.
+     * Each decisive round takes a geometric number of rounds with mean 1 / c, where c is the
+     * chance that a round is not a tie, which gives the expected rounds and their variance.
+     */
+    private SeriesOdds getFirstToOdds(int rounds, int need1, int need2){
+        double decisive = player1Win + player2Win;
+        if (decisive == 0){
+            // every round is a tie, so nobody ever gets another point
+            return new SeriesOdds(0, 0, 1, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+        double logS = Math.log(player1Win / decisive);
+        double logNotS = Math.log(player2Win / decisive);
+
+        double player1 = 0;
+        double player2 = 0;
+        // the first and second moments of the number of decisive rounds left
+        double moment1 = 0;
+        double moment2 = 0;
+        for (int t = 0; t < need2; t++){
+            double chance = Math.exp(logChoose(need1 - 1 + t, t) + times(need1, logS)
+                    + times(t, logNotS));
+            int length = need1 + t;
+            player1 += chance;
+            moment1 += chance * length;
+            moment2 += chance * length * (double) length;
+        }
+        for (int t = 0; t < need1; t++){
+            double chance = Math.exp(logChoose(need2 - 1 + t, t) + times(need2, logNotS)
+                    + times(t, logS));
+            int length = need2 + t;
+            player2 += chance;
+            moment1 += chance * length;
+            moment2 += chance * length * (double) length;
+        }
+        double variance = Math.max(0, moment2 - moment1 * moment1);
+        double expected = moment1 / decisive;
+        double roundsVariance = moment1 * (1 - decisive) / (decisive * decisive)
+                + variance / (decisive * decisive);
+        player1 = clamp(player1);
+        player2 = clamp(player2);
+        return new SeriesOdds(player1, player2, clamp(1 - player1 - player2), rounds + expected,
+                roundsVariance);
+    }
+
+    /**
+     * @return double the binomial chance C(n, x) a^x b^(n - x), from the logs of a and b
+     */
+    private double binomial(int n, int x, double logA, double logB){
+        if (x < 0 || x > n){
+            return 0;
+        }
+        return Math.exp(logChoose(n, x) + times(x, logA) + times(n - x, logB));
+    }
+
+    private double logChoose(int n, int k){
+        return logFactorials[n] - logFactorials[k] - logFactorials[n - k];
+    }
+
+    /**
+     * A chance of 0 has a log of minus infinity, and 0 times that would be NaN instead of log 1.
+     */
+    private static double times(int count, double log){
+        return count == 0 ? 0 : count * log;
+    }
+
+    private static int floorHalf(int value){
+        return value >= 0 ? value / 2 : -((1 - value) / 2);
+    }
+
+    private static double clamp(double chance){
+        return Math.max(0, Math.min(1, chance));
+    }
+}
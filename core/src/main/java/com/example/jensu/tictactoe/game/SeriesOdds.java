@@ -0,0 +1,65 @@
+/**
+ * This class is the outlook of a series that is still being played: the chance that each player
+ * takes it, the chance that nobody does, and how many rounds the whole series is expected to last.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class SeriesOdds {
+
+    private final double player1;
+    private final double player2;
+    private final double neither;
+    private final double expectedRounds;
+    private final double roundsVariance;
+
+    /**
+     * @param player1 the chance that player 1 takes the series
+     * @param player2 the chance that player 2 takes the series
+     * @param neither the chance that the series ends level, or never ends
+     * @param expectedRounds the expected number of rounds of the whole series
+     * @param roundsVariance the variance of the number of rounds
+     */
+    public SeriesOdds(double player1, double player2, double neither, double expectedRounds,
+                      double roundsVariance){
+        this.player1 = player1;
+        this.player2 = player2;
+        this.neither = neither;
+        this.expectedRounds = expectedRounds;
+        this.roundsVariance = roundsVariance;
+    }
+
+    public double getPlayer1(){
+        return player1;
+    }
+
+    public double getPlayer2(){
+        return player2;
+    }
+
+    /**
+     * A best of series with an even number of rounds can end level. A first one to series only
+     * has no winner if every round is a tie forever.
+     * @return double the chance that neither player takes the series
+     */
+    public double getNeither(){
+        return neither;
+    }
+
+    /**
+     * @return double the expected rounds of the series, counting the ones already played, or
+     * infinity if the series may never end
+     */
+    public double getExpectedRounds(){
+        return expectedRounds;
+    }
+
+    public double getRoundsVariance(){
+        return roundsVariance;
+    }
+
+    @Override
+    public String toString(){
+        return "player1=" + player1 + " player2=" + player2 + " neither=" + neither
+                + " rounds=" + expectedRounds + " variance=" + roundsVariance;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * This class handles the eight symmetries of the board (the four rotations and the four
+ * reflections). Positions that are rotations or reflections of each other have the same value, so
+ * the engine and the tables only need to store one of them: the canonical position, which is the
+ * symmetric copy with the smallest key.
+ *
+ * Everything is done with tables built once when the class loads: where every cell goes under each
+ * symmetry, and what every 9-bit mask turns into under each symmetry.
+ */
+package com.example.jensu.tictactoe.game;
+
+public final class Symmetry {
+
+    public static final int COUNT = 8;
+
+    public static final int IDENTITY = 0;
+    public static final int ROTATE_90 = 1;
+    public static final int ROTATE_180 = 2;
+    public static final int ROTATE_270 = 3;
+    public static final int MIRROR_COLUMNS = 4;
+    public static final int MIRROR_ROWS = 5;
+    public static final int TRANSPOSE = 6;
+    public static final int ANTI_TRANSPOSE = 7;
+
+    private static final int[][] CELLS = new int[COUNT][Board.CELLS];
+    private static final int[][] INVERSE_CELLS = new int[COUNT][Board.CELLS];
+    private static final int[][] MASKS = new int[COUNT][1 << Board.CELLS];
+
+    static {
+        int last = Board.SIZE - 1;
+        for (int x = 0; x < Board.SIZE; x++){
+            for (int y = 0; y < Board.SIZE; y++){
+                int cell = Board.index(x, y);
+                CELLS[IDENTITY][cell] = Board.index(x, y);
+                CELLS[ROTATE_90][cell] = Board.index(y, last - x);
+                CELLS[ROTATE_180][cell] = Board.index(last - x, last - y);
+                CELLS[ROTATE_270][cell] = Board.index(last - y, x);
+                CELLS[MIRROR_COLUMNS][cell] = Board.index(x, last - y);
+                CELLS[MIRROR_ROWS][cell] = Board.index(last - x, y);
+                CELLS[TRANSPOSE][cell] = Board.index(y, x);
+                CELLS[ANTI_TRANSPOSE][cell] = Board.index(last - y, last - x);
+            }
+        }
+        for (int t = 0; t < COUNT; t++){
+            for (int cell = 0; cell < Board.CELLS; cell++){
+                INVERSE_CELLS[t][CELLS[t][cell]] = cell;
+            }
+            for (int mask = 0; mask < (1 << Board.CELLS); mask++){
+                int result = 0;
+                for (int cell = 0; cell < Board.CELLS; cell++){
+                    if ((mask & (1 << cell)) != 0){
+                        result |= 1 << CELLS[t][cell];
+                    }
+                }
+                MASKS[t][mask] = result;
+            }
+        }
+    }
+
+    private Symmetry(){
+    }
+
+    /**
+     * @param transform the symmetry
+     * @param cell a cell index
+     * @return int where the cell ends up under the symmetry
+     */
+    public static int transformCell(int transform, int cell){
+        return CELLS[transform][cell];
+    }
+
+    /**
+     * @param transform the symmetry
+     * @param cell a cell index of the transformed board
+     * @return int the cell of the original board that was moved there
+     */
+    public static int inverseCell(int transform, int cell){
+        return INVERSE_CELLS[transform][cell];
+    }
+
+    public static int transformMask(int transform, int mask){
+        return MASKS[transform][mask];
+    }
+
+    /**
+     * This method packs a position into one 18-bit key: player 1's mask in the low 9 bits and
+     * player 2's mask in the next 9 bits.
+     */
+    public static int key(int player1Mask, int player2Mask){
+        return player1Mask | (player2Mask << Board.CELLS);
+    }
+
+    /**
+     * @param player1Mask the cells of player 1
+     * @param player2Mask the cells of player 2
+     * @return int the symmetry that turns the position into its canonical form
+     */
+    public static int canonicalTransform(int player1Mask, int player2Mask){
+        int best = IDENTITY;
+        int bestKey = key(player1Mask, player2Mask);
+        for (int t = 1; t < COUNT; t++){
+            int key = key(MASKS[t][player1Mask], MASKS[t][player2Mask]);
+            if (key < bestKey){
+                bestKey = key;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param player1Mask the cells of player 1
+     * @param player2Mask the cells of player 2
+     * @return int the key of the canonical form of the position
+     */
+    public static int canonicalKey(int player1Mask, int player2Mask){
+        int t = canonicalTransform(player1Mask, player2Mask);
+        return key(MASKS[t][player1Mask], MASKS[t][player2Mask]);
+    }
+}
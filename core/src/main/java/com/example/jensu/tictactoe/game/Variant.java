@@ -0,0 +1,111 @@
+/**
+ * This class describes which game is played: the number of rows and columns of the board and how
+ * many marks in a row are needed to win. Classic Tic-Tac-Toe is 3 x 3 with three in a row.
+ */
+package com.example.jensu.tictactoe.game;
+
+public class Variant {
+
+    public static final Variant CLASSIC = new Variant(3, 3, 3);
+
+    // The variants offered in the options menu, in the same order as R.array.variant_array.
+    public static final Variant[] PRESETS = {
+            CLASSIC,
+            new Variant(4, 4, 4),
+            new Variant(7, 6, 4),
+            new Variant(15, 15, 5)
+    };
+
+    private final int rows;
+    private final int cols;
+    private final int k;
+
+    /**
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param k how many marks in a row win
+     */
+    public Variant(int rows, int cols, int k){
+        if (rows < 1 || cols < 1 || k < 1 || (k > rows && k > cols)){
+            throw new IllegalArgumentException("Invalid variant " + rows + "x" + cols + "/" + k);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.k = k;
+    }
+
+    /**
+     * @param position the position of the variant in PRESETS
+     * @return Variant the preset, or CLASSIC if the position is not valid
+     */
+    public static Variant fromPreset(int position){
+        if (position < 0 || position >= PRESETS.length){
+            return CLASSIC;
+        }
+        return PRESETS[position];
+    }
+
+    /**
+     * This method reads a variant written the way toString writes it, such as "15x15/5".
+     * @param text the variant as rows x cols / k
+     * @return Variant the variant
+     * @throws IllegalArgumentException if the text is not a valid variant
+     */
+    public static Variant parse(String text){
+        int times = text.indexOf('x');
+        int slash = text.indexOf('/');
+        if (times < 0 || slash < times){
+            throw new IllegalArgumentException("Invalid variant " + text);
+        }
+        try {
+            return new Variant(Integer.parseInt(text.substring(0, times).trim()),
+                    Integer.parseInt(text.substring(times + 1, slash).trim()),
+                    Integer.parseInt(text.substring(slash + 1).trim()));
+        }
+        catch (NumberFormatException e){
+            throw new IllegalArgumentException("Invalid variant " + text);
+        }
+    }
+
+    public int getRows(){
+        return rows;
+    }
+
+    public int getCols(){
+        return cols;
+    }
+
+    public int getK(){
+        return k;
+    }
+
+    public int getCells(){
+        return rows * cols;
+    }
+
+    /**
+     * @return boolean true if this is plain 3 x 3 Tic-Tac-Toe, which has its own faster engine
+     */
+    public boolean isClassic(){
+        return equals(CLASSIC);
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (!(other instanceof Variant)){
+            return false;
+        }
+        Variant variant = (Variant) other;
+        return rows == variant.rows && cols == variant.cols && k == variant.k;
+    }
+
+    @Override
+    public int hashCode(){
+        return (rows * 31 + cols) * 31 + k;
+    }
+
+    @Override
+    public String toString(){
+        return rows + "x" + cols + "/" + k;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * This class holds the random numbers used to hash board positions. The hash of a position is the
+ * XOR of one number for every mark on the board, so it can be updated with a single XOR whenever a
+ * mark is added or removed.
+ */
+package com.example.jensu.tictactoe.game;
+
+import java.util.Random;
+
+public final class Zobrist {
+
+    // A fixed seed keeps the hashes the same on every run, which makes problems reproducible.
+    private static final long SEED = 0x7A0B5715L;
+
+    private static final long[][] KEYS = new long[2][Board.CELLS];
+
+    static {
+        Random random = new Random(SEED);
+        for (int side = 0; side < 2; side++){
+            for (int cell = 0; cell < Board.CELLS; cell++){
+                KEYS[side][cell] = random.nextLong();
+            }
+        }
+    }
+
+    private Zobrist(){
+    }
+
+    /**
+     * @param side PLAYER_1 or PLAYER_2
+     * @param cell the cell index
+     * @return long the number to XOR into the hash for that mark
+     */
+    public static long key(int side, int cell){
+        return KEYS[side][cell];
+    }
+
+    /**
+     * This method makes the keys for a board of any size. The same seed is used every time, so two
+     * boards of the same size always hash the same position the same way.
+     * @param cells the number of cells on the board
+     * @return long[] the keys, the key of side s on cell c is at s * cells + c
+     */
+    public static long[] keys(int cells){
+        long[] keys = new long[2 * cells];
+        Random random = new Random(SEED ^ cells);
+        for (int i = 0; i < keys.length; i++){
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    /**
+     * This method hashes a position from scratch. It is only needed when a whole position is set at
+     * once, normal moves update the hash incrementally.
+     * @param player1Mask the cells of player 1
+     * @param player2Mask the cells of player 2
+     * @return long the hash
+     */
+    public static long hash(int player1Mask, int player2Mask){
+        long hash = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++){
+            if ((player1Mask & (1 << cell)) != 0){
+                hash ^= KEYS[Board.PLAYER_1][cell];
+            }
+            else if ((player2Mask & (1 << cell)) != 0){
+                hash ^= KEYS[Board.PLAYER_2][cell];
+            }
+        }
+        return hash;
+    }
+}
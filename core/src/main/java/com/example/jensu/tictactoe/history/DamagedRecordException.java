@@ -0,0 +1,31 @@
+/**
+ * This exception means a record of the match log does not make sense: its length or one of its
+ * values does not fit the format. It is only thrown when the bytes were read fine, so unlike other
+ * IOExceptions it says the file itself is damaged, and the log can safely be cut off before it.
+ */
+package com.example.jensu.tictactoe.history;
+
+import java.io.IOException;
+
+public class DamagedRecordException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long position;
+
+    /**
+     * @param position where the damaged record starts in the file
+     * @param cause what did not fit, or null
+     */
+    public DamagedRecordException(long position, Throwable cause){
+        super("Damaged match log record at " + position, cause);
+        this.position = position;
+    }
+
+    /**
+     * @return long where the damaged record starts in the file
+     */
+    public long getPosition(){
+        return position;
+    }
+}
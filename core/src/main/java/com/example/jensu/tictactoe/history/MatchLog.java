@@ -0,0 +1,347 @@
+/**
+ * This class is the match history: an append-only binary file with one record for every finished
+ * round. Records are collected in a buffer and written to the file's channel when the buffer is
+ * full or flush() is called, so a round costs a copy into memory rather than a disk write, and the
+ * file is never forced to disk per move or per round.
+ *
+ * The file starts with a header of MAGIC and VERSION. Each record is its length in bytes followed
+ * by the timestamp, flags, play type, principle, variant, winner, both names as UTF-8 and then the
+ * moves at one byte each. Records are only written whole, so a crash can at most leave a torn
+ * record at the end. It is cut off the next time the log is opened, which reads through the log
+ * once to find it, so the log should be opened off the UI thread. A record that is damaged rather
+ * than torn ends the log the same way, but an error reading the file does not cut anything off.
+ *
+ * Reading goes through a Reader, which streams records from the file in chunks, so a history of
+ * any length is read without loading the whole file.
+ */
+package com.example.jensu.tictactoe.history;
+
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+public class MatchLog implements Closeable {
+
+    public static final String FILE_NAME = "match_history.bin";
+
+    static final int MAGIC = 0x5454544C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 1 << 16;
+    // The longest name that is saved, in bytes. Longer names are cut.
+    private static final int MAX_NAME_BYTES = 255;
+    // timestamp, flags, play type, principle, rows, cols, k, winner, two name lengths, move count
+    private static final int FIXED_SIZE = 8 + 1 + 1 + 4 + 1 + 1 + 1 + 1 + 1 + 1 + 2;
+    static final int MAX_RECORD_SIZE = FIXED_SIZE + 2 * MAX_NAME_BYTES + RoundRecord.MAX_CELLS;
+
+    private static final int FLAG_COMPUTER = 1;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long size;
+
+    private MatchLog(RandomAccessFile file, long size){
+        this.file = file;
+        this.channel = file.getChannel();
+        this.size = size;
+    }
+
+    /**
+     * This method opens the log for appending, creating it if it does not exist yet.
+     * @param path the log file
+     * @return MatchLog the open log
+     * @throws IOException if the file can not be opened or is not a match log
+     */
+    public static MatchLog open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            FileChannel channel = file.getChannel();
+            long size;
+            if (channel.size() == 0){
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(channel, header, 0);
+                size = HEADER_SIZE;
+            }
+            else {
+                // find where the last whole record ends, and drop anything after it. A damaged
+                // record ends the log too, since nothing appended after it could be read. Any
+                // other error is passed on, since the rounds after it may well be fine.
+                Reader reader = new Reader(channel);
+                try {
+                    while (reader.next() != null){
+                        // only the position is needed
+                    }
+                }
+                catch (DamagedRecordException e){
+                    // the log ends at the damaged record
+                }
+                size = reader.getValidSize();
+                if (size < channel.size()){
+                    channel.truncate(size);
+                }
+            }
+            return new MatchLog(file, size);
+        }
+        catch (IOException e){
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This method adds a round to the log. It is only in memory until the buffer fills up or
+     * flush() is called.
+     * @param record the round
+     * @throws IOException if the buffer was full and could not be written
+     */
+    public void append(RoundRecord record) throws IOException {
+        byte[] name1 = encodeName(record.getPlayer1());
+        byte[] name2 = encodeName(record.getPlayer2());
+        byte[] moves = record.getPackedMoves();
+        int length = FIXED_SIZE + name1.length + name2.length + moves.length;
+        if (buffer.remaining() < 4 + length){
+            flush();
+        }
+        Variant variant = record.getVariant();
+        buffer.putInt(length);
+        buffer.putLong(record.getTimestamp());
+        buffer.put((byte) (record.isComputer() ? FLAG_COMPUTER : 0));
+        buffer.put((byte) record.getPlayType());
+        buffer.putInt(record.getPrinciple());
+        buffer.put((byte) variant.getRows());
+        buffer.put((byte) variant.getCols());
+        buffer.put((byte) variant.getK());
+        buffer.put((byte) record.getWinner());
+        buffer.put((byte) name1.length);
+        buffer.put(name1);
+        buffer.put((byte) name2.length);
+        buffer.put(name2);
+        buffer.putShort((short) moves.length);
+        buffer.put(moves);
+    }
+
+    private static byte[] encodeName(String name){
+        byte[] bytes = name.getBytes(UTF_8);
+        if (bytes.length <= MAX_NAME_BYTES){
+            return bytes;
+        }
+        byte[] cut = new byte[MAX_NAME_BYTES];
+        System.arraycopy(bytes, 0, cut, 0, MAX_NAME_BYTES);
+        return cut;
+    }
+
+    /**
+     * This method writes the buffered rounds to the file. It does not force them to the disk, the
+     * system does that in its own time.
+     * @throws IOException if the file can not be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        size += writeFully(channel, buffer, size);
+        buffer.clear();
+    }
+
+    /**
+     * This method writes the buffered rounds and forces the file to the disk.
+     * @throws IOException if the file can not be written
+     */
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()){
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * @return long the size of the log in bytes, including rounds that are not flushed yet
+     */
+    public long getSize(){
+        return size + buffer.position();
+    }
+
+    /**
+     * This method writes the buffered rounds and closes the file.
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        finally {
+            file.close();
+        }
+    }
+
+    /**
+     * This method opens a log for reading. Rounds that are still buffered in an open MatchLog are
+     * not seen until it is flushed.
+     * @param path the log file
+     * @return Reader the reader, positioned at the first round
+     * @throws IOException if the file can not be opened or is not a match log
+     */
+    public static Reader read(File path) throws IOException {
+        return read(path, HEADER_SIZE);
+    }
+
+    /**
+     * This method opens a log for reading from the middle, for example to catch up on rounds that
+     * were added after some point.
+     * @param path the log file
+     * @param position where a record starts, such as an earlier getValidSize()
+     * @return Reader the reader, positioned at the given record
+     * @throws IOException if the file can not be opened or is not a match log
+     */
+    public static Reader read(File path, long position) throws IOException {
+        FileInputStream input = new FileInputStream(path);
+        try {
+            Reader reader = new Reader(input.getChannel());
+            reader.seek(position);
+            return reader;
+        }
+        catch (IOException e){
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This class streams the rounds of a log from the first to the last, reading the file in
+     * chunks.
+     */
+    public static class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // where in the file the buffer's data starts
+        private long bufferStart;
+        private long validSize = HEADER_SIZE;
+        private boolean endOfFile;
+
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.limit(0);
+            if (!fill(HEADER_SIZE) || buffer.getInt() != MAGIC){
+                throw new IOException("Not a match log");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION){
+                throw new IOException("Unsupported match log version " + version);
+            }
+        }
+
+        /**
+         * This method moves the reader to a record further on in the file.
+         * @param position where the record starts
+         */
+        void seek(long position){
+            if (position < HEADER_SIZE){
+                throw new IllegalArgumentException("Position " + position + " is in the header");
+            }
+            bufferStart = position;
+            buffer.clear();
+            buffer.limit(0);
+            validSize = position;
+            endOfFile = false;
+        }
+
+        /**
+         * This method makes sure the buffer holds at least the given number of bytes.
+         * @return boolean false if the file ends first
+         */
+        private boolean fill(int needed) throws IOException {
+            if (buffer.remaining() >= needed){
+                return true;
+            }
+            bufferStart += buffer.position();
+            buffer.compact();
+            while (buffer.position() < needed && !endOfFile){
+                if (channel.read(buffer, bufferStart + buffer.position()) < 0){
+                    endOfFile = true;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= needed;
+        }
+
+        /**
+         * This method reads the next round.
+         * @return RoundRecord the round, or null at the end of the log
+         * @throws DamagedRecordException if a record does not fit the format
+         * @throws IOException if the file can not be read
+         */
+        public RoundRecord next() throws IOException {
+            if (!fill(4)){
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length < FIXED_SIZE || length > MAX_RECORD_SIZE){
+                throw new DamagedRecordException(validSize, null);
+            }
+            if (!fill(length)){
+                // a torn record at the end
+                return null;
+            }
+            int end = buffer.position() + length;
+            try {
+                long timestamp = buffer.getLong();
+                int flags = buffer.get();
+                int playType = buffer.get();
+                int principle = buffer.getInt();
+                Variant variant = new Variant(buffer.get() & 0xFF, buffer.get() & 0xFF,
+                        buffer.get() & 0xFF);
+                int winner = buffer.get();
+                String player1 = readName();
+                String player2 = readName();
+                byte[] moves = new byte[buffer.getShort()];
+                buffer.get(moves);
+                if (buffer.position() != end){
+                    throw new DamagedRecordException(validSize, null);
+                }
+                validSize += 4 + length;
+                return new RoundRecord(timestamp, player1, player2,
+                        (flags & FLAG_COMPUTER) != 0, playType, principle, variant, winner, moves);
+            }
+            catch (RuntimeException e){
+                // a length or value that does not fit the record
+                throw new DamagedRecordException(validSize, e);
+            }
+        }
+
+        private String readName(){
+            byte[] bytes = new byte[buffer.get() & 0xFF];
+            buffer.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        /**
+         * @return long how many bytes of the file hold whole records, including the header
+         */
+        public long getValidSize(){
+            return validSize;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * This class is one finished round in the match history: when it was played, by whom, under which
+ * rules, who won and every move in order. Moves are cell indexes, which fit in one byte on every
+ * board of up to 256 cells.
+ */
+package com.example.jensu.tictactoe.history;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+public class RoundRecord {
+
+    // The most cells a board may have for its moves to fit in one byte each.
+    public static final int MAX_CELLS = 256;
+
+    private final long timestamp;
+    private final String player1;
+    private final String player2;
+    private final boolean computer;
+    private final int playType;
+    private final int principle;
+    private final Variant variant;
+    private final int winner;
+    private final byte[] moves;
+
+    /**
+     * @param timestamp when the round ended, in milliseconds since the epoch
+     * @param player1 the name of player 1
+     * @param player2 the name of player 2
+     * @param computer true if player 2 is the computer
+     * @param playType 0 to play forever, 1 for best of, 2 for first one to
+     * @param principle the number of rounds or points that ends the game
+     * @param variant the board
+     * @param winner PLAYER_1, PLAYER_2 or EMPTY for a tie
+     * @param moves the cells played, in order, one per byte
+     */
+    public RoundRecord(long timestamp, String player1, String player2, boolean computer,
+                       int playType, int principle, Variant variant, int winner, byte[] moves){
+        if (variant.getCells() > MAX_CELLS){
+            throw new IllegalArgumentException("Moves on a " + variant + " board do not fit a byte");
+        }
+        this.timestamp = timestamp;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.computer = computer;
+        this.playType = playType;
+        this.principle = principle;
+        this.variant = variant;
+        this.winner = winner;
+        this.moves = moves;
+    }
+
+    /**
+     * This method records a round that has just ended on the given board.
+     * @param timestamp when the round ended, in milliseconds since the epoch
+     * @param player1 the name of player 1
+     * @param player2 the name of player 2
+     * @param computer true if player 2 is the computer
+     * @param playType 0 to play forever, 1 for best of, 2 for first one to
+     * @param principle the number of rounds or points that ends the game
+     * @param board the board of the round, with all of its moves
+     * @return RoundRecord the record
+     */
+    public static RoundRecord of(long timestamp, String player1, String player2, boolean computer,
+                                 int playType, int principle, GridBoard board){
+        byte[] moves = new byte[board.getTurnCount()];
+        for (int turn = 0; turn < moves.length; turn++){
+            moves[turn] = (byte) board.getMove(turn);
+        }
+        return new RoundRecord(timestamp, player1, player2, computer, playType, principle,
+                board.getVariant(), board.getWinner(), moves);
+    }
+
+    public long getTimestamp(){
+        return timestamp;
+    }
+
+    public String getPlayer1(){
+        return player1;
+    }
+
+    public String getPlayer2(){
+        return player2;
+    }
+
+    public boolean isComputer(){
+        return computer;
+    }
+
+    public int getPlayType(){
+        return playType;
+    }
+
+    public int getPrinciple(){
+        return principle;
+    }
+
+    public Variant getVariant(){
+        return variant;
+    }
+
+    /**
+     * @return int PLAYER_1, PLAYER_2 or EMPTY for a tie
+     */
+    public int getWinner(){
+        return winner;
+    }
+
+    public int getMoveCount(){
+        return moves.length;
+    }
+
+    /**
+     * @param turn the turn number, starting at 0
+     * @return int the cell played on that turn
+     */
+    public int getMove(int turn){
+        return moves[turn] & 0xFF;
+    }
+
+    /**
+     * This method plays the round's moves on a board, for example to show it again.
+     * @param board a board of the same variant, it is cleared first
+     */
+    public void replay(GridBoard board){
+        board.clear();
+        for (int turn = 0; turn < moves.length; turn++){
+            board.play(getMove(turn));
+        }
+    }
+
+    /**
+     * The moves are kept packed, so this is only for the log writer.
+     */
+    byte[] getPackedMoves(){
+        return moves;
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * This class keeps the statistics of every player: wins, losses and ties by play type, against
+ * the computer and by the opening move of the round. The numbers live in a small file of fixed
+ * size records that is memory-mapped, so adding a round only changes a few counters in place and
+ * a query is a lookup, however many rounds have been played.
+ *
+ * The index remembers how much of the match log it has counted. When it is opened it counts any
+ * rounds the log has gained since then, and if it is damaged, from another version, or counted
+ * rounds the log does not have, it is rebuilt from the log. That reads the whole log, so the
+ * index should be opened off the UI thread. Its methods are synchronized, so one thread can count
+ * rounds while another reads the counters.
+ *
+ * The file is a header followed by the player records, room for INITIAL_PLAYERS at first. When a
+ * new player does not fit, the file is made twice as long and mapped again, so nobody's rounds are
+ * ever left out. Each player record is the name (a length byte and up to 31 bytes of UTF-8)
+ * followed by int counters, three for every group: one for each play type, one against the
+ * computer, and one for every cell of every preset variant as the opening move.
+ */
+package com.example.jensu.tictactoe.history;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+public class StatsIndex implements Closeable {
+
+    public static final String FILE_NAME = "match_stats.idx";
+
+    public static final int WIN = 0;
+    public static final int LOSS = 1;
+    public static final int TIE = 2;
+    private static final int RESULTS = 3;
+
+    public static final int INITIAL_PLAYERS = 64;
+    public static final int PLAY_TYPES = 3;
+
+    static final int MAGIC = 0x54545349;
+    static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // header: magic, version, dirty flag, player count, rounds, log size
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int DIRTY_OFFSET = 8;
+    private static final int PLAYERS_OFFSET = 12;
+    private static final int ROUNDS_OFFSET = 16;
+    private static final int LOG_SIZE_OFFSET = 24;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int NAME_SIZE = 32;
+    // the first opening counter of each preset variant, in groups of three
+    private static final int[] OPENING_OFFSETS = new int[Variant.PRESETS.length];
+    private static final int OPENING_GROUPS;
+    private static final int PLAY_TYPE_GROUP = 0;
+    private static final int COMPUTER_GROUP = PLAY_TYPES;
+    private static final int OPENING_GROUP = COMPUTER_GROUP + 1;
+    private static final int PLAYER_SIZE;
+
+    static {
+        int groups = 0;
+        for (int i = 0; i < Variant.PRESETS.length; i++){
+            OPENING_OFFSETS[i] = groups;
+            groups += Variant.PRESETS[i].getCells();
+        }
+        OPENING_GROUPS = groups;
+        PLAYER_SIZE = NAME_SIZE + (OPENING_GROUP + OPENING_GROUPS) * RESULTS * 4;
+    }
+
+    private final RandomAccessFile file;
+    private MappedByteBuffer map;
+    // how many player records the file has room for
+    private int capacity;
+
+    private StatsIndex(RandomAccessFile file){
+        this.file = file;
+    }
+
+    /**
+     * This method opens the index, creating it if needed, and brings it up to date with the log.
+     * @param indexPath the index file
+     * @param logPath the match log, it does not have to exist yet
+     * @return StatsIndex the index
+     * @throws IOException if the index can not be opened or the log can not be read
+     */
+    public static StatsIndex open(File indexPath, File logPath) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(indexPath, "rw");
+        try {
+            // a file that was grown keeps its room, anything shorter or far too long starts over
+            long players = (file.length() - HEADER_SIZE) / PLAYER_SIZE;
+            StatsIndex index = new StatsIndex(file);
+            index.map(players < INITIAL_PLAYERS || fileSize(players) > Integer.MAX_VALUE
+                    ? INITIAL_PLAYERS : (int) players);
+            long logSize = logPath.exists() ? logPath.length() : 0;
+            if (!index.isValid() || index.getLogSize() > logSize){
+                index.rebuild(logPath);
+            }
+            else if (index.getLogSize() < logSize){
+                try {
+                    index.catchUp(logPath);
+                }
+                catch (DamagedRecordException e){
+                    // the counted size does not fall on a record of this log
+                    index.rebuild(logPath);
+                }
+            }
+            return index;
+        }
+        catch (IOException e){
+            file.close();
+            throw e;
+        }
+    }
+
+    private static long fileSize(long players){
+        return HEADER_SIZE + players * PLAYER_SIZE;
+    }
+
+    /**
+     * This method sets the length of the file to fit the given number of players and maps all of
+     * it. Room that is added reads as zero.
+     */
+    private void map(int players) throws IOException {
+        int size = (int) fileSize(players);
+        file.setLength(size);
+        map = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = players;
+    }
+
+    private boolean isValid(){
+        return map.getInt(MAGIC_OFFSET) == MAGIC && map.getInt(VERSION_OFFSET) == VERSION
+                && map.getInt(DIRTY_OFFSET) == 0 && map.getInt(PLAYERS_OFFSET) >= 0
+                && map.getInt(PLAYERS_OFFSET) <= capacity;
+    }
+
+    /**
+     * This method throws away all statistics and counts every round of the log again.
+     * @param logPath the match log, it does not have to exist yet
+     * @throws IOException if the log can not be read
+     */
+    public synchronized void rebuild(File logPath) throws IOException {
+        for (int i = 0; i < map.capacity(); i += 4){
+            map.putInt(i, 0);
+        }
+        map.putInt(MAGIC_OFFSET, MAGIC);
+        map.putInt(VERSION_OFFSET, VERSION);
+        map.putLong(LOG_SIZE_OFFSET, MatchLog.HEADER_SIZE);
+        if (logPath.exists() && logPath.length() > 0){
+            catchUp(logPath);
+        }
+    }
+
+    private void catchUp(File logPath) throws IOException {
+        MatchLog.Reader reader = MatchLog.read(logPath, getLogSize());
+        try {
+            RoundRecord record;
+            while ((record = reader.next()) != null){
+                add(record, reader.getValidSize());
+            }
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * This method counts a round. The index is marked as dirty while the counters change, so a
+     * crash halfway through is noticed and the index is rebuilt.
+     * @param record the round
+     * @param logSize the size of the log with this round in it, MatchLog.getSize()
+     * @throws IOException if the file has to grow for a new player and can not
+     */
+    public synchronized void add(RoundRecord record, long logSize) throws IOException {
+        map.putInt(DIRTY_OFFSET, 1);
+        int player1Result = record.getWinner() == GridBoard.PLAYER_1 ? WIN
+                : record.getWinner() == GridBoard.PLAYER_2 ? LOSS : TIE;
+        int player2Result = player1Result == TIE ? TIE : player1Result ^ 1;
+        addResult(record, findOrAddPlayer(record.getPlayer1()), player1Result, false);
+        addResult(record, findOrAddPlayer(record.getPlayer2()), player2Result, record.isComputer());
+        map.putLong(ROUNDS_OFFSET, map.getLong(ROUNDS_OFFSET) + 1);
+        map.putLong(LOG_SIZE_OFFSET, logSize);
+        map.putInt(DIRTY_OFFSET, 0);
+    }
+
+    private void addResult(RoundRecord record, int player, int result, boolean againstComputer){
+        if (record.getPlayType() >= 0 && record.getPlayType() < PLAY_TYPES){
+            increment(player, PLAY_TYPE_GROUP + record.getPlayType(), result);
+        }
+        // the computer is always player 2, so this counts for player 1
+        if (!againstComputer && record.isComputer()){
+            increment(player, COMPUTER_GROUP, result);
+        }
+        if (record.getMoveCount() > 0){
+            int group = getOpeningGroup(record.getVariant(), record.getMove(0));
+            if (group >= 0){
+                increment(player, group, result);
+            }
+        }
+    }
+
+    private void increment(int player, int group, int result){
+        int offset = counterOffset(player, group, result);
+        map.putInt(offset, map.getInt(offset) + 1);
+    }
+
+    private static int counterOffset(int player, int group, int result){
+        return HEADER_SIZE + player * PLAYER_SIZE + NAME_SIZE + (group * RESULTS + result) * 4;
+    }
+
+    private static int getOpeningGroup(Variant variant, int cell){
+        for (int i = 0; i < Variant.PRESETS.length; i++){
+            if (Variant.PRESETS[i].equals(variant)){
+                return OPENING_GROUP + OPENING_OFFSETS[i] + cell;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] encodeName(String name){
+        byte[] bytes = name.getBytes(UTF_8);
+        if (bytes.length < NAME_SIZE){
+            return bytes;
+        }
+        byte[] cut = new byte[NAME_SIZE - 1];
+        System.arraycopy(bytes, 0, cut, 0, cut.length);
+        return cut;
+    }
+
+    private int findOrAddPlayer(String name) throws IOException {
+        int player = findPlayer(name);
+        if (player >= 0){
+            return player;
+        }
+        int count = getPlayerCount();
+        if (count == capacity){
+            if (fileSize(2L * capacity) > Integer.MAX_VALUE){
+                throw new IOException("The stats index has no room for more players");
+            }
+            map(2 * capacity);
+        }
+        byte[] bytes = encodeName(name);
+        int offset = HEADER_SIZE + count * PLAYER_SIZE;
+        map.put(offset, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++){
+            map.put(offset + 1 + i, bytes[i]);
+        }
+        map.putInt(PLAYERS_OFFSET, count + 1);
+        return count;
+    }
+
+    /**
+     * @param name the player's name
+     * @return int the player's number, or -1 if the player has no rounds
+     */
+    public synchronized int findPlayer(String name){
+        byte[] bytes = encodeName(name);
+        for (int player = 0; player < getPlayerCount(); player++){
+            int offset = HEADER_SIZE + player * PLAYER_SIZE;
+            if (map.get(offset) != bytes.length){
+                continue;
+            }
+            int i = 0;
+            while (i < bytes.length && map.get(offset + 1 + i) == bytes[i]){
+                i += 1;
+            }
+            if (i == bytes.length){
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param player the player's number
+     * @return String the player's name
+     */
+    public synchronized String getPlayerName(int player){
+        int offset = HEADER_SIZE + player * PLAYER_SIZE;
+        byte[] bytes = new byte[map.get(offset)];
+        for (int i = 0; i < bytes.length; i++){
+            bytes[i] = map.get(offset + 1 + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * @param player the player's number
+     * @param result WIN, LOSS or TIE
+     * @return int how many rounds the player had that result in
+     */
+    public synchronized int getResults(int player, int result){
+        int total = 0;
+        for (int playType = 0; playType < PLAY_TYPES; playType++){
+            total += getPlayTypeResults(player, playType, result);
+        }
+        return total;
+    }
+
+    /**
+     * @param player the player's number
+     * @param playType 0 to play forever, 1 for best of, 2 for first one to
+     * @param result WIN, LOSS or TIE
+     * @return int how many rounds of that play type the player had that result in
+     */
+    public synchronized int getPlayTypeResults(int player, int playType, int result){
+        return map.getInt(counterOffset(player, PLAY_TYPE_GROUP + playType, result));
+    }
+
+    /**
+     * @param player the player's number
+     * @param result WIN, LOSS or TIE
+     * @return int how many rounds against the computer the player had that result in
+     */
+    public synchronized int getComputerResults(int player, int result){
+        return map.getInt(counterOffset(player, COMPUTER_GROUP, result));
+    }
+
+    /**
+     * @param player the player's number
+     * @param variant one of the preset variants
+     * @param cell the opening move of the round
+     * @param result WIN, LOSS or TIE
+     * @return int how many rounds that opened on the cell the player had that result in, or 0 if
+     * the variant is not a preset
+     */
+    public synchronized int getOpeningResults(int player, Variant variant, int cell, int result){
+        int group = getOpeningGroup(variant, cell);
+        return group < 0 ? 0 : map.getInt(counterOffset(player, group, result));
+    }
+
+    public synchronized int getPlayerCount(){
+        return map.getInt(PLAYERS_OFFSET);
+    }
+
+    public synchronized long getRounds(){
+        return map.getLong(ROUNDS_OFFSET);
+    }
+
+    /**
+     * @return long how much of the match log has been counted, in bytes
+     */
+    public synchronized long getLogSize(){
+        return map.getLong(LOG_SIZE_OFFSET);
+    }
+
+    /**
+     * This method closes the file. The system writes the mapped counters back on its own.
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
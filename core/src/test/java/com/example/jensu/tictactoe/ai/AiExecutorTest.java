@@ -0,0 +1,92 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AiExecutorTest {
+
+    // Stands in for the UI thread: callbacks are queued and run by the test itself.
+    private final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+    private final Executor uiThread = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            uiQueue.add(command);
+        }
+    };
+
+    @Test
+    public void submit_deliversResultWithTimings() throws InterruptedException {
+        AiExecutor executor = new AiExecutor(uiThread);
+        final long[] delivered = new long[3];
+        executor.submit(new AiExecutor.Search() {
+            @Override
+            public SearchResult run(CancelToken token) {
+                return new SearchResult(4, 0, 1, 1, true);
+            }
+        }, new AiExecutor.Callback() {
+            @Override
+            public void onMove(SearchResult result, long queueDelayNanos, long thinkNanos) {
+                delivered[0] = result.getMove();
+                delivered[1] = queueDelayNanos;
+                delivered[2] = thinkNanos;
+            }
+        });
+        assertTrue(executor.isThinking());
+        uiQueue.poll(5, TimeUnit.SECONDS).run();
+        assertEquals(4, delivered[0]);
+        assertTrue(delivered[1] >= 0);
+        assertTrue(delivered[2] >= 0);
+        assertFalse(executor.isThinking());
+        executor.shutdown();
+    }
+
+    @Test
+    public void cancel_stopsSearchAndSkipsCallback() throws InterruptedException {
+        AiExecutor executor = new AiExecutor(uiThread);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        executor.submit(new AiExecutor.Search() {
+            @Override
+            public SearchResult run(CancelToken token) {
+                started.countDown();
+                while (!token.isCancelled()) {
+                    Thread.yield();
+                }
+                stopped.countDown();
+                return new SearchResult(0, 0, 0, 0, false);
+            }
+        }, new AiExecutor.Callback() {
+            @Override
+            public void onMove(SearchResult result, long queueDelayNanos, long thinkNanos) {
+                fail("A cancelled search must not deliver a move");
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.cancel();
+        assertFalse(executor.isThinking());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertNull(uiQueue.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void cancelledEngineSearch_isIncomplete() {
+        CancelToken token = new CancelToken();
+        token.cancel();
+        GridBoard board = new GridBoard(new Variant(7, 6, 4));
+        board.play(20);
+        SearchResult result = new MctsEngine().search(board, 10000, token);
+        assertFalse(result.isComplete());
+        assertTrue(result.getElapsedNanos() < 1000000000L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AlphaBetaEngineTest {
+
+    @Test
+    public void classic_isADraw() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        DeepeningResult result = new AlphaBetaEngine().search(board, 10000, CancelToken.NONE);
+        assertTrue(result.isComplete());
+        assertEquals(9, result.getDepth());
+        assertEquals(0, result.getScore());
+        assertEquals(0, board.getTurnCount());
+    }
+
+    @Test
+    public void bigBoard_takesTheWin() {
+        GridBoard board = new GridBoard(new Variant(9, 9, 4));
+        // X has three in a row with both ends open, O has played elsewhere
+        board.play(board.index(4, 2));
+        board.play(board.index(0, 0));
+        board.play(board.index(4, 3));
+        board.play(board.index(0, 8));
+        board.play(board.index(4, 4));
+        board.play(board.index(8, 0));
+        int move = new AlphaBetaEngine().search(board, 2000, CancelToken.NONE).getMove();
+        assertTrue(move == board.index(4, 1) || move == board.index(4, 5));
+    }
+
+    @Test
+    public void bigBoard_blocksTheLoss() {
+        GridBoard board = new GridBoard(new Variant(9, 9, 4));
+        // O has three in a row with one end blocked, X must take the other end
+        board.play(board.index(4, 4));
+        board.play(board.index(2, 2));
+        board.play(board.index(2, 1));
+        board.play(board.index(2, 3));
+        board.play(board.index(8, 8));
+        board.play(board.index(2, 4));
+        int move = new AlphaBetaEngine().search(board, 2000, CancelToken.NONE).getMove();
+        assertEquals(board.index(2, 5), move);
+    }
+
+    @Test
+    public void deadline_returnsTheLastFinishedDepth() {
+        GridBoard board = new GridBoard(new Variant(15, 15, 5));
+        board.play(board.index(7, 7));
+        board.play(board.index(7, 8));
+        long start = System.nanoTime();
+        DeepeningResult result = new AlphaBetaEngine().search(board, 200, CancelToken.NONE);
+        long millis = (System.nanoTime() - start) / 1000000;
+        assertTrue(millis < 1000);
+        assertTrue(result.isComplete());
+        assertTrue(result.getDepth() >= 1);
+        assertTrue(board.isEmpty(result.getMove()));
+        assertEquals(result.getMove(), result.getPrincipalVariation()[0]);
+        long total = 0;
+        for (int depth = 1; depth <= result.getDepth(); depth++){
+            total += result.getIterationNodes(depth);
+        }
+        assertTrue(total <= result.getNodes());
+    }
+
+    @Test
+    public void depthLimit_stopsTheDeepening() {
+        GridBoard board = new GridBoard(new Variant(7, 7, 4));
+        board.play(24);
+        AlphaBetaEngine engine = new AlphaBetaEngine();
+        engine.setDepthLimit(3);
+        DeepeningResult result = engine.search(board, 10000, CancelToken.NONE);
+        assertEquals(3, result.getDepth());
+        assertTrue(result.getEffectiveBranchingFactor() > 0);
+    }
+
+    @Test
+    public void cancelled_isIncompleteButHasAMove() {
+        GridBoard board = new GridBoard(new Variant(15, 15, 5));
+        CancelToken token = new CancelToken();
+        token.cancel();
+        DeepeningResult result = new AlphaBetaEngine().search(board, 10000, token);
+        assertFalse(result.isComplete());
+        assertEquals(0, result.getDepth());
+        assertEquals(board.index(7, 7), result.getMove());
+    }
+
+    @Test
+    public void historyOrdering_solvesWithFewerNodes() {
+        GridBoard board = new GridBoard(Variant.parse("4x4/4"));
+        board.play(5);
+        board.play(6);
+        AlphaBetaEngine centre = new AlphaBetaEngine();
+        centre.setUseHistory(false);
+        DeepeningResult plain = centre.search(board, Long.MAX_VALUE, CancelToken.NONE);
+        DeepeningResult ordered = new AlphaBetaEngine().search(board, Long.MAX_VALUE,
+                CancelToken.NONE);
+        assertEquals(14, plain.getDepth());
+        assertEquals(14, ordered.getDepth());
+        assertEquals(plain.getScore(), ordered.getScore());
+        assertTrue(ordered.getNodes() < plain.getNodes());
+    }
+
+    @Test
+    public void windowEvaluator_favoursTheSideWithMoreInARow() {
+        GridBoard board = new GridBoard(new Variant(7, 7, 4));
+        board.play(board.index(3, 2));
+        board.play(board.index(0, 0));
+        board.play(board.index(3, 3));
+        // X has two in the middle against one in the corner, so it is bad for O to move
+        WindowEvaluator evaluator = new WindowEvaluator();
+        assertTrue(evaluator.evaluate(board) < 0);
+        board.play(board.index(6, 6));
+        assertTrue(evaluator.evaluate(board) > 0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BigBoardSearchTest {
+
+    private static final Variant GOMOKU = Variant.parse("15x15/5");
+
+    @Test
+    public void openThree_isWonByTheThreatSearch() {
+        GridBoard board = new GridBoard(GOMOKU);
+        int[] corners = {0, 14, 210};
+        for (int i = 0; i < 3; i++){
+            board.play(board.index(7, 5 + i));
+            board.play(corners[i]);
+        }
+        BigBoardSearch search = new BigBoardSearch(Difficulty.MEDIUM);
+        SearchResult result = search.search(board, CancelToken.NONE);
+        assertTrue(result instanceof ThreatResult);
+        assertTrue(((ThreatResult) result).isWin());
+        assertEquals(GridBoard.EMPTY, board.get(result.getMove()));
+        assertSame(Difficulty.MEDIUM, search.getLevel());
+    }
+
+    @Test
+    public void quietBoard_isSearchedByDeepening() {
+        GridBoard board = new GridBoard(GOMOKU);
+        board.play(board.index(7, 7));
+        SearchResult result = new BigBoardSearch(Difficulty.EASY).search(board, CancelToken.NONE);
+        assertFalse(result instanceof ThreatResult);
+        assertEquals(GridBoard.EMPTY, board.get(result.getMove()));
+        assertEquals(1, board.getTurnCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DifficultyTest {
+
+    @Test
+    public void presets_getStrongerAndStayWithinTheirCeiling() {
+        for (int i = 1; i < Difficulty.PRESETS.length; i++) {
+            Difficulty weaker = Difficulty.PRESETS[i - 1];
+            Difficulty stronger = Difficulty.PRESETS[i];
+            assertTrue(stronger.getNodeLimit() > weaker.getNodeLimit());
+            assertTrue(stronger.getDepthLimit() > weaker.getDepthLimit());
+            assertTrue(stronger.getNoise() < weaker.getNoise());
+        }
+        assertTrue(Difficulty.PERFECT.isPerfect());
+        assertFalse(Difficulty.HARD.isPerfect());
+        assertSame(Difficulty.PERFECT, Difficulty.fromPreset(Difficulty.DEFAULT_PRESET));
+        assertSame(Difficulty.PERFECT, Difficulty.fromPreset(-1));
+    }
+
+    @Test
+    public void createEngine_usesTheLevelsLimits() {
+        NegamaxEngine engine = Difficulty.MEDIUM.createEngine();
+        assertEquals(Difficulty.MEDIUM.getNodeLimit(), engine.getNodeLimit());
+        assertEquals(Difficulty.MEDIUM.getDepthLimit(), engine.getDepthLimit());
+        assertEquals(Difficulty.MEDIUM.getMaxMillis(), engine.getTimeLimitMillis());
+    }
+
+    @Test
+    public void tables_growWithTheNodeLimit() {
+        assertEquals(10, Difficulty.EASY.getTableBits());
+        for (int i = 1; i < Difficulty.PRESETS.length; i++) {
+            assertTrue(Difficulty.PRESETS[i].getTableBits()
+                    >= Difficulty.PRESETS[i - 1].getTableBits());
+        }
+        // room for twice the positions of a move
+        assertTrue(1L << Difficulty.PERFECT.getTableBits() >= 2 * Difficulty.PERFECT.getNodeLimit());
+        AlphaBetaEngine engine = Difficulty.HARD.createDeepeningEngine();
+        assertEquals(1 << Difficulty.HARD.getTableBits(), engine.getTable().getCapacity());
+        assertEquals(Difficulty.HARD.getNodeLimit(), engine.getNodeLimit());
+    }
+
+    @Test
+    public void threatTables_growWithTheTimeBudget() {
+        assertEquals(13, Difficulty.EASY.getThreatTableBits());
+        for (int i = 1; i < Difficulty.PRESETS.length; i++) {
+            assertTrue(Difficulty.PRESETS[i].getThreatTableBits()
+                    >= Difficulty.PRESETS[i - 1].getThreatTableBits());
+        }
+        assertEquals(18, Difficulty.PERFECT.getThreatTableBits());
+    }
+
+    @Test
+    public void isRandomMove_followsNoiseRate() {
+        Random random = new Random(1);
+        int randomMoves = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(Difficulty.PERFECT.isRandomMove(random));
+            if (Difficulty.EASY.isRandomMove(random)) {
+                randomMoves += 1;
+            }
+        }
+        assertEquals(Difficulty.EASY.getNoise(), randomMoves / 10000.0, 0.02);
+    }
+
+    @Test
+    public void randomMove_picksEmptyCell() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(0);
+        board.play(1);
+        board.play(2);
+        Random random = new Random(2);
+        for (int i = 0; i < 100; i++) {
+            int move = Difficulty.randomMove(board, random);
+            assertTrue(board.isEmpty(move));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalEvaluatorTest {
+
+    @Test
+    public void randomGames_scoreLikeTheRescan() {
+        checkAgainstRescan(Variant.parse("15x15/5"));
+        checkAgainstRescan(Variant.parse("7x6/4"));
+    }
+
+    private static void checkAgainstRescan(Variant variant) {
+        Random random = new Random(7);
+        WindowEvaluator rescan = new WindowEvaluator();
+        IncrementalEvaluator incremental = new IncrementalEvaluator();
+        GridBoard board = new GridBoard(variant);
+        incremental.reset(board);
+        for (int step = 0; step < 2000; step++){
+            // take moves back now and then, so the codes go down as well as up
+            if (board.isGameOver() || (board.canUndo() && random.nextInt(3) == 0)){
+                int cell = board.undo();
+                incremental.undo(cell, board.getSideToMove());
+            }
+            else {
+                int cell = random.nextInt(board.getCells());
+                if (!board.isEmpty(cell)){
+                    continue;
+                }
+                int side = board.getSideToMove();
+                board.play(cell);
+                incremental.play(cell, side);
+            }
+            if (!board.isGameOver()){
+                assertEquals(rescan.evaluate(board), incremental.evaluate(board));
+            }
+        }
+    }
+
+    @Test
+    public void untoldMoves_areReadOffTheBoard() {
+        GridBoard board = new GridBoard(Variant.parse("9x9/5"));
+        IncrementalEvaluator incremental = new IncrementalEvaluator();
+        incremental.reset(board);
+        board.play(40);
+        board.play(41);
+        board.play(31);
+        assertEquals(new WindowEvaluator().evaluate(board), incremental.evaluate(board));
+    }
+
+    @Test
+    public void scoreTable_matchesTheWindowWeights() {
+        int[] table = IncrementalEvaluator.scoreTable(4);
+        assertEquals(81, table.length);
+        assertEquals(0, table[0]);
+        // player 1, player 1, empty, empty is 1 + 3
+        assertEquals(WindowEvaluator.weight(2), table[4]);
+        // player 2, empty, empty, player 2 is 2 + 2 * 27
+        assertEquals(-WindowEvaluator.weight(2), table[56]);
+        // player 1 next to player 2 is blocked
+        assertEquals(0, table[7]);
+    }
+
+    @Test
+    public void longLines_fallBackToTheRescan() {
+        GridBoard board = new GridBoard(new Variant(14, 14, 13));
+        board.play(0);
+        IncrementalEvaluator incremental = new IncrementalEvaluator();
+        incremental.reset(board);
+        assertEquals(new WindowEvaluator().evaluate(board), incremental.evaluate(board));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MctsEngineTest {
+
+    private static GridBoard play(Variant variant, int... cells) {
+        GridBoard board = new GridBoard(variant);
+        for (int cell : cells) {
+            board.play(cell);
+        }
+        return board;
+    }
+
+    @Test
+    public void search_takesWinningMove() {
+        // player 1 has three in the top row of a 4 x 4 board
+        GridBoard board = play(new Variant(4, 4, 4), 0, 4, 1, 5, 2, 6);
+        assertEquals(3, new MctsEngine().search(board, 50).getMove());
+    }
+
+    @Test
+    public void search_blocksOpponent() {
+        GridBoard board = play(new Variant(4, 4, 4), 0, 4, 1, 5, 2);
+        assertEquals(3, new MctsEngine().search(board, 50).getMove());
+    }
+
+    @Test
+    public void search_findsClassicFork() {
+        // O in two opposite corners and X in the centre: X must not play a corner
+        GridBoard board = play(Variant.CLASSIC, 0, 4, 8);
+        int move = new MctsEngine(MctsEngine.DEFAULT_CAPACITY, MctsEngine.DEFAULT_EXPLORATION, 1)
+                .search(board, 200).getMove();
+        assertTrue(move == 1 || move == 3 || move == 5 || move == 7);
+    }
+
+    @Test
+    public void search_respectsTimeBudgetOnLargeBoard() {
+        GridBoard board = play(new Variant(15, 15, 5), 112);
+        MctsEngine engine = new MctsEngine();
+        SearchResult result = engine.search(board, 100);
+        assertTrue(board.isEmpty(result.getMove()));
+        assertTrue(result.getElapsedNanos() < 1000000000L);
+        assertTrue(result.getNodes() > 0);
+        assertTrue(result.getNodesPerSecond() > 0);
+        // the search does not change the board
+        assertEquals(1, board.getTurnCount());
+    }
+
+    @Test
+    public void search_stopsAtPlayoutLimit() {
+        GridBoard board = play(new Variant(15, 15, 5), 112);
+        MctsEngine engine = new MctsEngine();
+        SearchResult result = engine.search(board, 10000, 100, CancelToken.NONE);
+        // the limit is checked every 16 playouts
+        assertTrue(result.getNodes() >= 100);
+        assertTrue(result.getNodes() < 116);
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    public void search_keepsPlayingWhenPoolIsFull() {
+        GridBoard board = play(new Variant(7, 6, 4), 20);
+        MctsEngine engine = new MctsEngine(200, MctsEngine.DEFAULT_EXPLORATION, 7);
+        SearchResult result = engine.search(board, 20);
+        assertTrue(board.isEmpty(result.getMove()));
+        assertTrue(engine.getSize() <= 200);
+    }
+}
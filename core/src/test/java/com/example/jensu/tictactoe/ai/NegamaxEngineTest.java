@@ -0,0 +1,96 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.Board;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NegamaxEngineTest {
+
+    private static Board play(int... cells) {
+        Board board = new Board();
+        for (int cell : cells) {
+            board.play(cell);
+        }
+        return board;
+    }
+
+    @Test
+    public void search_takesWinningMove() {
+        // O O . / X X . / . . .  with O to move
+        SearchResult result = new NegamaxEngine().search(play(0, 3, 1, 4));
+        assertEquals(2, result.getMove());
+        assertTrue(result.getScore() > 0);
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    public void search_blocksOpponent() {
+        // O O . / X . . / . . .  with X to move
+        SearchResult result = new NegamaxEngine().search(play(0, 3, 1));
+        assertEquals(2, result.getMove());
+    }
+
+    @Test
+    public void selfPlay_isAlwaysATie() {
+        NegamaxEngine engine = new NegamaxEngine();
+        Board board = new Board();
+        while (!board.isGameOver()) {
+            board.play(engine.search(board).getMove());
+        }
+        assertEquals(Board.EMPTY, board.getWinner());
+    }
+
+    @Test
+    public void search_reportsStatistics() {
+        Board board = new Board();
+        SearchResult result = new NegamaxEngine().search(board);
+        assertEquals(0, result.getScore());
+        assertTrue(result.getNodes() > 0);
+        assertTrue(result.getElapsedNanos() > 0);
+        // the board is put back after the search
+        assertEquals(0, board.getTurnCount());
+    }
+
+    @Test
+    public void search_reusesTableBetweenMoves() {
+        NegamaxEngine engine = new NegamaxEngine();
+        long first = engine.search(new Board()).getNodes();
+        long second = engine.search(new Board()).getNodes();
+        assertTrue(second < first);
+        assertTrue(engine.getTable().getHits() > 0);
+    }
+
+    @Test
+    public void search_stopsAtNodeLimit() {
+        SearchResult result = new NegamaxEngine(10).search(new Board());
+        assertFalse(result.isComplete());
+        assertTrue(result.getNodes() <= 11);
+        assertTrue(new Board().isEmpty(result.getMove()));
+    }
+
+    @Test
+    public void search_withDepthLimit_seesOnlyThatFarAhead() {
+        NegamaxEngine engine = new NegamaxEngine();
+        engine.setDepthLimit(2);
+        // two moves ahead is enough to see the threat
+        assertEquals(2, engine.search(play(0, 3, 1)).getMove());
+
+        SearchResult shallow = engine.search(new Board());
+        SearchResult full = new NegamaxEngine().search(new Board());
+        assertTrue(shallow.isComplete());
+        assertTrue(shallow.getNodes() < full.getNodes());
+    }
+
+    @Test
+    public void search_afterDepthLimitedSearch_doesNotTrustShallowEntries() {
+        NegamaxEngine engine = new NegamaxEngine();
+        engine.setDepthLimit(1);
+        engine.search(play(4));
+        engine.setDepthLimit(NegamaxEngine.UNLIMITED_DEPTH);
+        // X has to answer the centre with a corner, an edge loses
+        int move = engine.search(play(4)).getMove();
+        assertTrue(move == 0 || move == 2 || move == 6 || move == 8);
+    }
+}
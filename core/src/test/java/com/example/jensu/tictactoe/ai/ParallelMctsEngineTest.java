@@ -0,0 +1,84 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParallelMctsEngineTest {
+
+    @Test
+    public void rootMode_findsClassicFork() {
+        checkClassicFork(ParallelMctsEngine.MODE_ROOT);
+    }
+
+    @Test
+    public void treeMode_findsClassicFork() {
+        checkClassicFork(ParallelMctsEngine.MODE_TREE);
+    }
+
+    private static void checkClassicFork(int mode) {
+        // O in two opposite corners and X in the centre: X must not play a corner
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(0);
+        board.play(4);
+        board.play(8);
+        ParallelMctsEngine engine = new ParallelMctsEngine(4, mode);
+        try {
+            int move = engine.search(board, 200).getMove();
+            assertTrue(move == 1 || move == 3 || move == 5 || move == 7);
+        }
+        finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void treeMode_countsPlayoutsOfAllThreads() {
+        GridBoard board = new GridBoard(new Variant(7, 6, 4));
+        board.play(20);
+        ParallelMctsEngine engine = new ParallelMctsEngine(2, ParallelMctsEngine.MODE_TREE);
+        try {
+            SearchResult result = engine.search(board, 100);
+            assertTrue(board.isEmpty(result.getMove()));
+            assertTrue(result.getNodes() > 0);
+            assertEquals(1, board.getTurnCount());
+        }
+        finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void forcedMove_leavesNoRootVisitsOfTheLastPosition() {
+        for (int mode : new int[]{ParallelMctsEngine.MODE_ROOT, ParallelMctsEngine.MODE_TREE}) {
+            ParallelMctsEngine engine = new ParallelMctsEngine(2, mode);
+            try {
+                GridBoard board = new GridBoard(Variant.CLASSIC);
+                board.play(4);
+                engine.search(board, 50);
+                // player 1 threatens 0, 4, 8, so player 2 has to block
+                board.play(1);
+                board.play(0);
+                SearchResult result = engine.search(board, 50);
+                assertEquals(8, result.getMove());
+                assertEquals(0, result.getNodes());
+                long[] visits = new long[board.getCells()];
+                engine.addRootVisits(visits);
+                for (long count : visits) {
+                    assertEquals(0, count);
+                }
+            }
+            finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroThreads_isRejected() {
+        new ParallelMctsEngine(0, ParallelMctsEngine.MODE_ROOT);
+    }
+}
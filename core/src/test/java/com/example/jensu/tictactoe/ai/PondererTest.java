@@ -0,0 +1,98 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PondererTest {
+
+    // Searches the classic reply with the negamax engine, like the game screen does.
+    private final Ponderer.ReplySearch classicSearch = new Ponderer.ReplySearch() {
+        private final NegamaxEngine engine = new NegamaxEngine();
+        private final Board classic = new Board();
+
+        @Override
+        public SearchResult search(GridBoard position, CancelToken token) {
+            classic.setMasks((int) position.getBits(GridBoard.PLAYER_1, 0),
+                    (int) position.getBits(GridBoard.PLAYER_2, 0));
+            return engine.search(classic, token);
+        }
+    };
+
+    @Test
+    public void lookup_afterPonderedMove_returnsSameReplyAsSearch() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(4);
+        board.play(0);
+        Ponderer ponderer = new Ponderer();
+        ponderer.ponder(board, null, classicSearch, new CancelToken());
+
+        for (int cell = 0; cell < board.getCells(); cell++) {
+            if (!board.isEmpty(cell)) {
+                continue;
+            }
+            board.play(cell);
+            if (!board.isGameOver()) {
+                SearchResult pondered = ponderer.lookup(board);
+                assertNotNull(pondered);
+                assertEquals(classicSearch.search(board, CancelToken.NONE).getScore(),
+                        pondered.getScore());
+            }
+            board.undo();
+        }
+        assertEquals(0, ponderer.getMisses());
+        assertTrue(ponderer.getHits() > 0);
+    }
+
+    @Test
+    public void lookup_inDifferentPosition_misses() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(4);
+        Ponderer ponderer = new Ponderer();
+        ponderer.ponder(board, null, classicSearch, new CancelToken());
+
+        // same last move, but another position
+        GridBoard other = new GridBoard(Variant.CLASSIC);
+        other.play(0);
+        other.play(2);
+        assertNull(ponderer.lookup(other));
+        assertEquals(1, ponderer.getMisses());
+        assertEquals(0, ponderer.getSavedNanos());
+    }
+
+    @Test
+    public void ponder_visitsHighestPriorityFirstAndStopsWhenCancelled() {
+        GridBoard board = new GridBoard(new Variant(4, 4, 4));
+        long[] priority = new long[board.getCells()];
+        priority[9] = 50;
+        priority[3] = 10;
+        final CancelToken token = new CancelToken();
+        final int[] searched = new int[2];
+        Ponderer ponderer = new Ponderer();
+        ponderer.ponder(board, priority, new Ponderer.ReplySearch() {
+            private int count;
+
+            @Override
+            public SearchResult search(GridBoard position, CancelToken ignored) {
+                searched[count] = position.getLastMove();
+                count += 1;
+                if (count == 2) {
+                    token.cancel();
+                }
+                return new SearchResult(0, 0, 1, 1, true);
+            }
+        }, token);
+        assertEquals(9, searched[0]);
+        assertEquals(3, searched[1]);
+
+        board.play(9);
+        assertNotNull(ponderer.lookup(board));
+        board.undo();
+        board.play(5);
+        assertNull(ponderer.lookup(board));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProofNumberSolverTest {
+
+    private static final long BUDGET = 60000;
+
+    private static GridBoard position(String variant, int... moves) {
+        GridBoard board = new GridBoard(Variant.parse(variant));
+        for (int move : moves){
+            board.play(move);
+        }
+        return board;
+    }
+
+    @Test
+    public void classic_isADraw() {
+        GridBoard board = position("3x3/3");
+        ProofResult result = new ProofNumberSolver(new ProofTable(12)).solve(board, BUDGET,
+                CancelToken.NONE);
+        assertEquals(ProofResult.DRAW, result.getValue());
+        assertEquals(-1, result.getMove());
+        assertEquals(0, board.getTurnCount());
+    }
+
+    @Test
+    public void classic_cornerAgainstEdgeIsAWin() {
+        // X in a corner and O next to it: taking the centre wins for X
+        ProofResult result = new ProofNumberSolver(new ProofTable(12)).solve(
+                position("3x3/3", 0, 1), BUDGET, CancelToken.NONE);
+        assertEquals(ProofResult.WIN, result.getValue());
+        assertEquals(4, result.getMove());
+    }
+
+    @Test
+    public void openTwo_isAWinTwoMovesAhead() {
+        // X has 11 and 12 in the middle row, and 13 makes two ends that can not both be blocked
+        ProofResult result = new ProofNumberSolver(new ProofTable(16)).solve(
+                position("5x5/4", 11, 0, 12, 4), BUDGET, CancelToken.NONE);
+        assertEquals(ProofResult.WIN, result.getValue());
+        assertEquals(13, result.getMove());
+        assertTrue(result.getPeakEntries() > 0);
+    }
+
+    @Test
+    public void openThree_isALossForTheSideToMove() {
+        ProofResult result = new ProofNumberSolver(new ProofTable(12)).solve(
+                position("5x5/4", 11, 0, 12, 4, 13), BUDGET, CancelToken.NONE);
+        assertEquals(ProofResult.LOSS, result.getValue());
+    }
+
+    @Test
+    public void nodeLimit_leavesItUnknown() {
+        ProofNumberSolver solver = new ProofNumberSolver(new ProofTable(12));
+        solver.setNodeLimit(100);
+        ProofResult result = solver.solve(position("5x5/4"), BUDGET, CancelToken.NONE);
+        assertEquals(ProofResult.UNKNOWN, result.getValue());
+        assertFalse(result.isSolved());
+        assertTrue(result.getNodes() <= 101);
+    }
+
+    @Test
+    public void smallTable_stillSolves() {
+        // far more positions than slots, so entries are replaced all the time
+        ProofResult result = new ProofNumberSolver(new ProofTable(6)).solve(position("3x3/3"),
+                BUDGET, CancelToken.NONE);
+        assertEquals(ProofResult.DRAW, result.getValue());
+        assertTrue(result.getPeakEntries() <= 64);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.jensu.tictactoe.ai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProofTableTest {
+
+    @Test
+    public void storeAndProbe_roundTripsNumbers() {
+        ProofTable table = new ProofTable(4);
+        assertEquals(ProofTable.UNKNOWN, table.probe(0L));
+        table.store(0L, 3, ProofTable.INFINITY, 10);
+        long entry = table.probe(0L);
+        assertEquals(3, ProofTable.proofOf(entry));
+        assertEquals(ProofTable.INFINITY, ProofTable.disproofOf(entry));
+        assertEquals(10, table.getWork(0L));
+        assertEquals(1, table.getSize());
+    }
+
+    @Test
+    public void fullBucket_replacesTheLeastWork() {
+        // four slots in a single bucket
+        ProofTable table = new ProofTable(2);
+        for (int i = 1; i <= 4; i++){
+            table.store(i, 1, 1, 10 * i);
+        }
+        table.store(5L, 2, 2, 100);
+        assertEquals(ProofTable.UNKNOWN, table.probe(1L));
+        assertEquals(ProofTable.pack(2, 2), table.probe(5L));
+        assertEquals(4, table.getSize());
+        assertEquals(1, table.getReplacements());
+    }
+
+    @Test
+    public void solvedEntries_areOnlyReplacedBySolvedOnes() {
+        ProofTable table = new ProofTable(2);
+        for (int i = 1; i <= 4; i++){
+            table.store(i, 0, ProofTable.INFINITY, i);
+        }
+        table.store(5L, 1, 1, 1000);
+        assertEquals(ProofTable.UNKNOWN, table.probe(5L));
+        table.store(6L, ProofTable.INFINITY, 0, 1000);
+        assertEquals(ProofTable.UNKNOWN, table.probe(1L));
+        assertEquals(0, ProofTable.disproofOf(table.probe(6L)));
+    }
+
+    @Test
+    public void removeUnsolved_keepsSolvedAndTracksPeak() {
+        ProofTable table = new ProofTable(4);
+        table.store(1L, 4, 2, 1);
+        table.store(2L, 0, ProofTable.INFINITY, 1);
+        table.removeUnsolved(1L);
+        table.removeUnsolved(2L);
+        assertEquals(ProofTable.UNKNOWN, table.probe(1L));
+        assertEquals(0, ProofTable.proofOf(table.probe(2L)));
+        assertEquals(1, table.getSize());
+        assertEquals(2, table.getPeakSize());
+        assertEquals(1, table.getRemovals());
+    }
+
+    @Test
+    public void storeAfterRemove_updatesTheEntryBehindTheHole() {
+        // four slots in a single bucket
+        ProofTable table = new ProofTable(2);
+        table.store(1L, 3, 3, 1);
+        table.store(2L, 2, 2, 1);
+        table.removeUnsolved(1L);
+        table.store(2L, 5, 1, 7);
+        assertEquals(ProofTable.pack(5, 1), table.probe(2L));
+        assertEquals(7, table.getWork(2L));
+        assertEquals(1, table.getSize());
+        assertEquals(2, table.getPeakSize());
+        table.removeUnsolved(2L);
+        assertEquals(ProofTable.UNKNOWN, table.probe(2L));
+        assertEquals(0, table.getSize());
+    }
+}
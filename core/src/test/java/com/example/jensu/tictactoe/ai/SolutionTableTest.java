@@ -0,0 +1,69 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.Board;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class SolutionTableTest {
+
+    private static SolutionTable generated() throws IOException {
+        return SolutionTable.load(ByteBuffer.wrap(SolutionTable.generate()));
+    }
+
+    @Test
+    public void emptyBoard_isADraw() throws IOException {
+        SolutionTable table = generated();
+        Board board = new Board();
+        assertEquals(SolutionTable.VALUE_DRAW, table.getValue(board));
+        assertTrue(board.isEmpty(table.getBestMove(board)));
+    }
+
+    @Test
+    public void lookup_matchesSearchValueOnEveryPosition() throws IOException {
+        SolutionTable table = generated();
+        NegamaxEngine engine = new NegamaxEngine();
+        checkAll(new Board(), table, engine);
+    }
+
+    private static void checkAll(Board board, SolutionTable table, NegamaxEngine engine) {
+        if (board.isGameOver()) {
+            return;
+        }
+        int move = table.getBestMove(board);
+        assertTrue(board.isEmpty(move));
+        int expected = Integer.signum(engine.search(board).getScore());
+        // playing the table's move must keep the solved value
+        board.play(move);
+        int after = board.isGameOver() ? (board.getWinner() == Board.EMPTY ? 0 : 1)
+                : -Integer.signum(engine.search(board).getScore());
+        board.undo(move);
+        assertEquals(expected, after);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.play(cell);
+                checkAll(board, table, engine);
+                board.undo(cell);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsOtherVersion() throws IOException {
+        byte[] file = SolutionTable.generate();
+        ByteBuffer.wrap(file).order(ByteOrder.BIG_ENDIAN).putInt(4, SolutionTable.VERSION + 1);
+        SolutionTable.load(ByteBuffer.wrap(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsDamagedEntries() throws IOException {
+        byte[] file = SolutionTable.generate();
+        file[SolutionTable.HEADER_SIZE + 100] ^= 1;
+        SolutionTable.load(ByteBuffer.wrap(file));
+    }
+}
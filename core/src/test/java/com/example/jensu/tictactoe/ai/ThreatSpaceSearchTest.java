@@ -0,0 +1,121 @@
+package com.example.jensu.tictactoe.ai;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ThreatSpaceSearchTest {
+
+    private static final Variant GOMOKU = Variant.parse("15x15/5");
+    private static final int ROW = 0;
+
+    /**
+     * @return GridBoard a board with X on the x cells and O on the o cells of row 7, played in turn
+     * and filled up with moves far away in the corners
+     */
+    private static GridBoard row(int[] x, int[] o) {
+        GridBoard board = new GridBoard(GOMOKU);
+        int filler = 0;
+        int[] corners = {0, 14, 210, 224, 2, 12, 212, 222};
+        for (int i = 0; i < Math.max(x.length, o.length); i++){
+            board.play(i < x.length ? board.index(7, x[i]) : corners[filler++]);
+            board.play(i < o.length ? board.index(7, o[i]) : corners[filler++]);
+        }
+        return board;
+    }
+
+    private static int threatEntry(GridBoard board, int side, int column) {
+        LinePatterns patterns = new LinePatterns(GOMOKU);
+        patterns.load(board);
+        return ThreatTable.forK(5)[patterns.key(side, ROW, board.index(7, column))];
+    }
+
+    private static int[] defenceColumns(int entry) {
+        int defence = ThreatTable.defenceOf(entry);
+        int[] columns = new int[Integer.bitCount(defence)];
+        for (int i = 0; defence != 0; i++){
+            int bit = Integer.numberOfTrailingZeros(defence);
+            defence &= defence - 1;
+            columns[i] = 7 + ThreatTable.offsetOf(bit, 5);
+        }
+        Arrays.sort(columns);
+        return columns;
+    }
+
+    @Test
+    public void openThree_isStoppedNextToItsEnds() {
+        int entry = threatEntry(row(new int[]{5, 6}, new int[0]), GridBoard.PLAYER_1, 7);
+        assertEquals(ThreatTable.THREE, ThreatTable.typeOf(entry));
+        assertArrayEquals(new int[]{4, 8}, defenceColumns(entry));
+    }
+
+    @Test
+    public void splitThree_canAlsoBeStoppedInTheGap() {
+        int entry = threatEntry(row(new int[]{5, 8}, new int[0]), GridBoard.PLAYER_1, 7);
+        assertEquals(ThreatTable.THREE, ThreatTable.typeOf(entry));
+        assertArrayEquals(new int[]{4, 6, 9}, defenceColumns(entry));
+    }
+
+    @Test
+    public void fours_areToldApart() {
+        int closed = threatEntry(row(new int[]{4, 5, 6}, new int[]{3}), GridBoard.PLAYER_1, 7);
+        assertEquals(ThreatTable.FOUR, ThreatTable.typeOf(closed));
+        assertArrayEquals(new int[]{8}, defenceColumns(closed));
+        int straight = threatEntry(row(new int[]{5, 6, 7}, new int[0]), GridBoard.PLAYER_1, 8);
+        assertEquals(ThreatTable.STRAIGHT_FOUR, ThreatTable.typeOf(straight));
+        int five = threatEntry(row(new int[]{3, 4, 5, 6}, new int[0]), GridBoard.PLAYER_1, 7);
+        assertEquals(ThreatTable.FIVE, ThreatTable.typeOf(five));
+    }
+
+    @Test
+    public void edge_blocksLikeAMark() {
+        int entry = threatEntry(row(new int[]{0, 1}, new int[0]), GridBoard.PLAYER_1, 2);
+        assertEquals(ThreatTable.NONE, ThreatTable.typeOf(entry));
+    }
+
+    @Test
+    public void openThree_winsInOneThreat() {
+        GridBoard board = row(new int[]{5, 6, 7}, new int[0]);
+        ThreatResult result = new ThreatSpaceSearch().search(board, 4, 10000, CancelToken.NONE);
+        assertTrue(result.isWin());
+        assertEquals(1, result.getDepth());
+        assertTrue(result.getMove() == board.index(7, 4) || result.getMove() == board.index(7, 8));
+    }
+
+    @Test
+    public void randomPosition_findsTheWinInThreeThreats() {
+        GridBoard board = new GridBoard(GOMOKU);
+        for (int move : new int[]{80, 141, 95, 66, 154, 65, 130, 127, 129, 158, 143, 85, 114,
+                145, 112, 156}){
+            board.play(move);
+        }
+        ThreatResult result = new ThreatSpaceSearch().search(board, 6, 60000, CancelToken.NONE);
+        assertTrue(result.isWin());
+        assertEquals(3, result.getDepth());
+        assertEquals(99, result.getMove());
+        assertEquals(16, board.getTurnCount());
+    }
+
+    @Test
+    public void opponentStraightFour_cannotBeBeaten() {
+        // O has four in a row with both ends open, so X's open three is too slow
+        GridBoard board = row(new int[]{3, 4, 5}, new int[]{9, 10, 11, 12});
+        assertEquals(GridBoard.PLAYER_1, board.getSideToMove());
+        ThreatResult result = new ThreatSpaceSearch().search(board, 4, 10000, CancelToken.NONE);
+        assertFalse(result.isWin());
+        assertTrue(result.isComplete());
+        assertEquals(-1, result.getMove());
+    }
+
+    @Test
+    public void supports_onlyFourToSixInARow() {
+        assertFalse(ThreatSpaceSearch.supports(Variant.CLASSIC));
+        assertTrue(ThreatSpaceSearch.supports(Variant.parse("7x6/4")));
+        assertTrue(ThreatSpaceSearch.supports(GOMOKU));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.jensu.tictactoe.ai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storeAndProbe_roundTripsEntry() {
+        TranspositionTable table = new TranspositionTable(4);
+        table.store(12345L, 8, -97, 6, TranspositionTable.BOUND_LOWER);
+        long entry = table.probe(12345L);
+        assertEquals(8, TranspositionTable.moveOf(entry));
+        assertEquals(-97, TranspositionTable.scoreOf(entry));
+        assertEquals(6, TranspositionTable.depthOf(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.boundOf(entry));
+        assertEquals(1, table.getHits());
+    }
+
+    @Test
+    public void probe_countsMissesAndCollisions() {
+        TranspositionTable table = new TranspositionTable(4);
+        assertEquals(0, table.probe(1L));
+        table.store(1L, -1, 0, 1, TranspositionTable.BOUND_EXACT);
+        // same slot, different position
+        assertEquals(0, table.probe(1L + 16));
+        assertEquals(2, table.getMisses());
+        assertEquals(1, table.getCollisions());
+        assertEquals(-1, TranspositionTable.moveOf(table.probe(1L)));
+    }
+
+    @Test
+    public void store_keepsDeeperEntryOfSameSearch() {
+        TranspositionTable table = new TranspositionTable(4);
+        table.store(1L, 0, 5, 7, TranspositionTable.BOUND_EXACT);
+        table.store(17L, 0, 5, 2, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(1L));
+        // a later search may replace it
+        table.newSearch();
+        table.store(17L, 0, 5, 2, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(17L));
+        assertEquals(1, table.getReplacements());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardTest {
+
+    @Test
+    public void newBoard_isEmptyAndPlayer1Starts() {
+        Board board = new Board();
+        assertEquals(Board.PLAYER_1, board.getSideToMove());
+        assertEquals(Board.FULL_MASK, board.getEmptyMask());
+        assertEquals(Board.EMPTY, board.getWinner());
+    }
+
+    @Test
+    public void play_alternatesPlayers() {
+        Board board = new Board();
+        board.play(Board.index(1, 1));
+        board.play(Board.index(0, 0));
+        assertEquals(Board.PLAYER_1, board.get(4));
+        assertEquals(Board.PLAYER_2, board.get(0));
+        assertEquals(2, board.getTurnCount());
+    }
+
+    @Test
+    public void getWinner_findsRowsColumnsAndDiagonals() {
+        int[][] lines = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+                {0, 4, 8}, {2, 4, 6}};
+        for (int[] line : lines) {
+            int mask = 0;
+            for (int cell : line) {
+                mask |= 1 << cell;
+            }
+            Board board = new Board();
+            board.setMasks(mask, 0);
+            assertEquals(Board.PLAYER_1, board.getWinner());
+            board.setMasks(0, mask);
+            assertEquals(Board.PLAYER_2, board.getWinner());
+        }
+    }
+
+    @Test
+    public void fullBoardWithoutLine_isTie() {
+        Board board = new Board();
+        // O X O / O X X / X O O
+        int[] moves = {0, 1, 2, 4, 3, 5, 8, 6, 7};
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        assertTrue(board.isFull());
+        assertEquals(Board.EMPTY, board.getWinner());
+    }
+
+    @Test
+    public void undo_restoresPosition() {
+        Board board = new Board();
+        board.play(4);
+        board.play(0);
+        board.undo(0);
+        assertTrue(board.isEmpty(0));
+        assertEquals(Board.PLAYER_2, board.getSideToMove());
+    }
+
+    @Test
+    public void hash_isUpdatedIncrementally() {
+        Board board = new Board();
+        board.play(4);
+        board.play(0);
+        board.play(8);
+        assertEquals(Zobrist.hash(board.getMask(Board.PLAYER_1), board.getMask(Board.PLAYER_2)),
+                board.getHash());
+        board.undo(8);
+        board.undo(0);
+        board.undo(4);
+        assertEquals(0, board.getHash());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void play_onTakenCell_throws() {
+        Board board = new Board();
+        board.play(4);
+        board.play(4);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameRecordTest {
+
+    @Test
+    public void encodeDecode_keepsEveryValue() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(4);
+        board.play(0);
+        board.play(8);
+        GameRecord record = new GameRecord(board, 3, 2, 1, 1, 5, false);
+        String text = record.encode();
+        // one short string instead of twenty keys
+        assertTrue(text.length() < 40);
+
+        GameRecord loaded = GameRecord.decode(text);
+        assertNotNull(loaded);
+        assertEquals(Variant.CLASSIC, loaded.getVariant());
+        assertEquals(3, loaded.getRounds());
+        assertEquals(2, loaded.getPlayer1Points());
+        assertEquals(1, loaded.getPlayer2Points());
+        assertEquals(1, loaded.getPlayType());
+        assertEquals(5, loaded.getPrinciple());
+        assertFalse(loaded.isOver());
+
+        GridBoard copy = new GridBoard(Variant.CLASSIC);
+        loaded.loadBoard(copy);
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(GridBoard.PLAYER_2, copy.getSideToMove());
+    }
+
+    @Test
+    public void encodeDecode_keepsCellsPastTheFirstWord() {
+        Variant variant = new Variant(15, 15, 5);
+        GridBoard board = new GridBoard(variant);
+        board.play(0);
+        board.play(100);
+        board.play(224);
+        GameRecord loaded = GameRecord.decode(new GameRecord(board, 0, 0, 0, 0, 0, true).encode());
+        assertTrue(loaded.isOver());
+        GridBoard copy = new GridBoard(variant);
+        loaded.loadBoard(copy);
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(GridBoard.PLAYER_1, copy.get(224));
+        assertEquals(GridBoard.PLAYER_2, copy.get(100));
+    }
+
+    @Test
+    public void loadBoard_replaysTheMovesInOrder() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        board.play(8);
+        board.play(0);
+        board.play(2);
+        board.play(4);
+        board.undo();
+        GameRecord loaded = GameRecord.decode(new GameRecord(board, 0, 0, 0, 0, 0, false).encode());
+        GridBoard copy = new GridBoard(Variant.CLASSIC);
+        loaded.loadBoard(copy);
+        assertEquals(board.getHash(), copy.getHash());
+        // the redo line is kept, and undo takes back the last move played, not the highest cell
+        assertEquals(4, copy.getRedoMove());
+        assertEquals(2, copy.undo());
+        assertTrue(copy.isEmpty(2));
+        assertEquals(0, copy.undo());
+        assertEquals(8, copy.undo());
+    }
+
+    @Test
+    public void newGame_hasAnEmptyBoard() {
+        Variant variant = new Variant(7, 6, 4);
+        GameRecord loaded = GameRecord.decode(GameRecord.newGame(variant, 2, 3).encode());
+        assertEquals(variant, loaded.getVariant());
+        assertEquals(2, loaded.getPlayType());
+        assertEquals(3, loaded.getPrinciple());
+        GridBoard board = new GridBoard(variant);
+        board.play(5);
+        loaded.loadBoard(board);
+        assertEquals(0, board.getTurnCount());
+    }
+
+    @Test
+    public void decode_rejectsInvalidRecords() {
+        String valid = GameRecord.newGame(Variant.CLASSIC, 0, 1).encode();
+        assertNull(GameRecord.decode(null));
+        assertNull(GameRecord.decode(""));
+        assertNull(GameRecord.decode("not a record"));
+        // another version
+        assertNull(GameRecord.decode("1" + valid.substring(1)));
+        // a missing header field
+        assertNull(GameRecord.decode(valid.substring(0, valid.lastIndexOf(','))));
+        // a cell that is played twice
+        assertNull(GameRecord.decode(valid.substring(0, valid.length() - 1) + "2,4,4"));
+        // a cell that is not on the board
+        assertNull(GameRecord.decode(valid.substring(0, valid.length() - 1) + "1,9"));
+        // more moves on the board than there are
+        assertNull(GameRecord.decode(valid.substring(0, valid.length() - 1) + "2,4"));
+        // a move after the round was won
+        assertNull(GameRecord.decode(valid.substring(0, valid.length() - 1) + "6,0,3,1,4,2,5"));
+    }
+}
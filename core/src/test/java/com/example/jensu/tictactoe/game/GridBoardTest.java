@@ -0,0 +1,134 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GridBoardTest {
+
+    @Test
+    public void classicVariant_agreesWithBitboard() {
+        GridBoard grid = new GridBoard(Variant.CLASSIC);
+        Board board = new Board();
+        int[] moves = {4, 1, 8, 2, 0};
+        for (int cell : moves) {
+            grid.play(cell);
+            board.play(cell);
+            assertEquals(board.getWinner(), grid.getWinner());
+            assertEquals(board.getMask(Board.PLAYER_1), grid.getBits(GridBoard.PLAYER_1, 0));
+        }
+        assertEquals(GridBoard.PLAYER_1, grid.getWinner());
+    }
+
+    @Test
+    public void largeBoard_findsLinesInAllDirections() {
+        Variant gomoku = new Variant(15, 15, 5);
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] step : steps) {
+            GridBoard board = new GridBoard(gomoku);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(GridBoard.EMPTY, board.getWinner());
+                board.play(board.index(7 + step[0] * (i - 2), 7 + step[1] * (i - 2)));
+                if (i < 4) {
+                    // player 2 plays far away in the corner rows
+                    board.play(board.index(i % 2 == 0 ? 0 : 14, i));
+                }
+            }
+            assertEquals(GridBoard.PLAYER_1, board.getWinner());
+        }
+    }
+
+    @Test
+    public void lineDoesNotWrapAroundRows() {
+        GridBoard board = new GridBoard(new Variant(4, 4, 4));
+        // cells 2, 3 end row 0 and cells 4, 5 start row 1
+        int[] moves = {2, 8, 3, 9, 4, 14, 5};
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        assertEquals(GridBoard.EMPTY, board.getWinner());
+    }
+
+    @Test
+    public void undo_restoresHashAndWinner() {
+        GridBoard board = new GridBoard(new Variant(7, 6, 4));
+        long empty = board.getHash();
+        int[] moves = {0, 6, 1, 7, 2, 8, 3};
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        assertEquals(GridBoard.PLAYER_1, board.getWinner());
+        assertEquals(3, board.undo());
+        assertEquals(GridBoard.EMPTY, board.getWinner());
+        while (board.getTurnCount() > 0) {
+            board.undo();
+        }
+        assertEquals(empty, board.getHash());
+    }
+
+    @Test
+    public void redo_replaysUndoneMovesUntilANewMoveIsPlayed() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        int[] moves = {0, 3, 1, 4, 2};
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        long hash = board.getHash();
+        assertFalse(board.canRedo());
+        board.undo();
+        board.undo();
+        assertEquals(4, board.getRedoMove());
+        assertEquals(4, board.redo());
+        assertEquals(2, board.redo());
+        assertEquals(hash, board.getHash());
+        assertEquals(GridBoard.PLAYER_1, board.getWinner());
+
+        // playing the redo move keeps the rest
+        board.undo();
+        board.undo();
+        board.play(4);
+        assertEquals(2, board.getRedoMove());
+        // any other move drops it
+        board.undo();
+        board.play(6);
+        assertFalse(board.canRedo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undo_onEmptyBoard_throws() {
+        new GridBoard(Variant.CLASSIC).undo();
+    }
+
+    @Test
+    public void load_rebuildsPositionAndWinner() {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        int e = GridBoard.EMPTY;
+        board.load(new int[]{0, 0, 0, 1, 1, e, e, e, e});
+        assertEquals(5, board.getTurnCount());
+        assertEquals(GridBoard.PLAYER_1, board.getWinner());
+        assertEquals(GridBoard.PLAYER_2, board.getSideToMove());
+    }
+
+    @Test
+    public void load_rejectsImpossibleMarkCounts() {
+        int e = GridBoard.EMPTY;
+        int[][] positions = {
+                // player 2 ahead
+                {1, e, e, e, e, e, e, e, e},
+                // player 1 two marks ahead
+                {0, 0, e, e, e, e, e, e, e}
+        };
+        for (int[] sides : positions) {
+            GridBoard board = new GridBoard(Variant.CLASSIC);
+            board.play(4);
+            try {
+                board.load(sides);
+                fail();
+            }
+            catch (IllegalArgumentException expected) {
+                // the board is left as it was
+                assertEquals(1, board.getTurnCount());
+            }
+        }
+    }
+}
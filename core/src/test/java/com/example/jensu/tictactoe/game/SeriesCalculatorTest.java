@@ -0,0 +1,127 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesCalculatorTest {
+
+    private static final double[][] CHANCES = {{0.3, 0.5}, {0.45, 0.1}, {0.1, 0.0}, {0.0, 0.6},
+            {0.25, 0.75}, {0.7, 0.3}};
+
+    @Test
+    public void bestOf_matchesPlayingOutEveryRound() {
+        for (double[] chances : CHANCES) {
+            for (int principle = 1; principle <= 6; principle++) {
+                SeriesCalculator calculator = new SeriesCalculator(Series.BEST_OF, principle,
+                        chances[0], chances[1]);
+                for (int rounds = 0; rounds < principle; rounds++) {
+                    for (int lead = -rounds; lead <= rounds; lead++) {
+                        int p1 = Math.max(0, lead);
+                        int p2 = Math.max(0, -lead);
+                        SeriesOdds odds = calculator.getOdds(rounds, p1, p2);
+                        double[] expected = bestOf(principle - rounds, lead, chances[0],
+                                chances[1]);
+                        assertEquals(expected[0], odds.getPlayer1(), 1e-12);
+                        assertEquals(expected[1], odds.getPlayer2(), 1e-12);
+                        assertEquals(principle, odds.getExpectedRounds(), 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void firstTo_matchesTheRoundByRoundRecursion() {
+        for (double[] chances : CHANCES) {
+            if (chances[1] == 1) {
+                continue;
+            }
+            int principle = 5;
+            SeriesCalculator calculator = new SeriesCalculator(Series.FIRST_TO, principle,
+                    chances[0], chances[1]);
+            for (int p1 = 0; p1 < principle; p1++) {
+                for (int p2 = 0; p2 < principle; p2++) {
+                    SeriesOdds odds = calculator.getOdds(p1 + p2 + 3, p1, p2);
+                    double[] expected = firstTo(principle - p1, principle - p2, chances[0],
+                            chances[1]);
+                    assertEquals(expected[0], odds.getPlayer1(), 1e-12);
+                    assertEquals(expected[1], odds.getPlayer2(), 1e-12);
+                    assertEquals(p1 + p2 + 3 + expected[2], odds.getExpectedRounds(), 1e-9);
+                    assertEquals(expected[3] - expected[2] * expected[2],
+                            odds.getRoundsVariance(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void firstTo_onlyTies_neverEnds() {
+        SeriesCalculator calculator = new SeriesCalculator(Series.FIRST_TO, 3, 0, 1);
+        SeriesOdds odds = calculator.getOdds(4, 1, 2);
+        assertEquals(1, odds.getNeither(), 0);
+        assertTrue(Double.isInfinite(odds.getExpectedRounds()));
+    }
+
+    @Test
+    public void finishedSeries_isCertain() {
+        SeriesCalculator calculator = new SeriesCalculator(Series.FIRST_TO, 3, 0.5, 0.2);
+        SeriesOdds odds = calculator.getOdds(7, 1, 3);
+        assertEquals(1, odds.getPlayer2(), 0);
+        assertEquals(7, odds.getExpectedRounds(), 0);
+    }
+
+    @Test
+    public void largePrinciples_stayExact() {
+        SeriesCalculator bestOf = new SeriesCalculator(Series.BEST_OF, 10000, 0.3, 0.4);
+        SeriesOdds even = bestOf.getOdds(0, 0, 0);
+        assertEquals(even.getPlayer1(), even.getPlayer2(), 1e-9);
+        assertEquals(1, even.getPlayer1() + even.getPlayer2() + even.getNeither(), 1e-9);
+
+        SeriesCalculator firstTo = new SeriesCalculator(Series.FIRST_TO, 10000, 0.31, 0.4);
+        SeriesOdds odds = firstTo.getOdds(0, 0, 0);
+        assertEquals(1, odds.getPlayer1() + odds.getPlayer2(), 1e-9);
+        // a small edge in each round is almost certain to win a series that long
+        assertTrue(odds.getPlayer1() > 0.99);
+        // player 2 gets about 0.29 / 0.31 of 10000 points by then, at 0.6 decisive rounds a round
+        assertEquals(10000 * (1 + 0.29 / 0.31) / 0.6, odds.getExpectedRounds(), 400);
+    }
+
+    /**
+     * @return double[] the chances of player 1 and player 2 by playing out every round
+     */
+    private static double[] bestOf(int left, int lead, double win, double tie) {
+        if (left == 0) {
+            return new double[]{lead > 0 ? 1 : 0, lead < 0 ? 1 : 0};
+        }
+        double loss = 1 - win - tie;
+        double[] up = bestOf(left - 1, lead + 1, win, tie);
+        double[] same = bestOf(left - 1, lead, win, tie);
+        double[] down = bestOf(left - 1, lead - 1, win, tie);
+        return new double[]{win * up[0] + tie * same[0] + loss * down[0],
+                win * up[1] + tie * same[1] + loss * down[1]};
+    }
+
+    /**
+     * @return double[] the chances of player 1 and player 2, and the first and second moments of
+     * the rounds left, from E = 1 + win E1 + tie E + loss E2 solved for E
+     */
+    private static double[] firstTo(int need1, int need2, double win, double tie) {
+        if (need1 == 0) {
+            return new double[]{1, 0, 0, 0};
+        }
+        if (need2 == 0) {
+            return new double[]{0, 1, 0, 0};
+        }
+        double loss = 1 - win - tie;
+        double decisive = win + loss;
+        double[] a = firstTo(need1 - 1, need2, win, tie);
+        double[] b = firstTo(need1, need2 - 1, win, tie);
+        double player1 = (win * a[0] + loss * b[0]) / decisive;
+        double player2 = (win * a[1] + loss * b[1]) / decisive;
+        double mean = (1 + win * a[2] + loss * b[2]) / decisive;
+        double square = (1 + 2 * (win * a[2] + tie * mean + loss * b[2]) + win * a[3]
+                + loss * b[3]) / decisive;
+        return new double[]{player1, player2, mean, square};
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesTest {
+
+    @Test
+    public void bestOf_countsTiesAsRounds() {
+        Series series = new Series(Series.BEST_OF, 3);
+        series.addRound(Board.PLAYER_1);
+        series.addRound(Board.EMPTY);
+        assertFalse(series.isOver());
+        series.addRound(Board.PLAYER_2);
+        assertTrue(series.isOver());
+        assertEquals(Board.EMPTY, series.getLeader());
+    }
+
+    @Test
+    public void firstTo_ignoresTies() {
+        Series series = new Series(Series.FIRST_TO, 2);
+        series.addRound(Board.EMPTY);
+        series.addRound(Board.PLAYER_2);
+        series.addRound(Board.EMPTY);
+        series.addRound(Board.EMPTY);
+        assertFalse(series.isOver());
+        series.addRound(Board.PLAYER_2);
+        assertTrue(series.isOver());
+        assertEquals(Board.PLAYER_2, series.getLeader());
+        assertEquals(5, series.getRounds());
+    }
+
+    @Test
+    public void infinite_isNeverOver() {
+        Series series = new Series(Series.INFINITE, 0);
+        for (int i = 0; i < 100; i++) {
+            series.addRound(Board.PLAYER_1);
+        }
+        assertFalse(series.isOver());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addRound_afterTheEnd_throws() {
+        Series series = new Series(Series.BEST_OF, 1);
+        series.addRound(Board.PLAYER_1);
+        series.addRound(Board.PLAYER_1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.jensu.tictactoe.game;
+
+import com.example.jensu.tictactoe.ai.NegamaxEngine;
+import com.example.jensu.tictactoe.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SymmetryTest {
+
+    private static void collect(Board board, Set<Integer> all, Set<Integer> canonical) {
+        int p1 = board.getMask(Board.PLAYER_1);
+        int p2 = board.getMask(Board.PLAYER_2);
+        if (!all.add(Symmetry.key(p1, p2))) {
+            return;
+        }
+        canonical.add(Symmetry.canonicalKey(p1, p2));
+        if (board.isGameOver()) {
+            return;
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.play(cell);
+                collect(board, all, canonical);
+                board.undo(cell);
+            }
+        }
+    }
+
+    @Test
+    public void canonicalForms_cutLegalPositionsFrom5478To765() {
+        Set<Integer> all = new HashSet<>();
+        Set<Integer> canonical = new HashSet<>();
+        collect(new Board(), all, canonical);
+        assertEquals(5478, all.size());
+        assertEquals(765, canonical.size());
+    }
+
+    @Test
+    public void inverseCell_undoesTransformCell() {
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                assertEquals(cell, Symmetry.inverseCell(t, Symmetry.transformCell(t, cell)));
+            }
+        }
+    }
+
+    @Test
+    public void canonicalHash_isSameForSymmetricPositions() {
+        // O in a corner and X on an adjacent edge, in all eight orientations
+        Board first = new Board();
+        first.play(0);
+        first.play(1);
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            Board board = new Board();
+            board.play(Symmetry.transformCell(t, 0));
+            board.play(Symmetry.transformCell(t, 1));
+            assertEquals(first.getCanonicalHash(), board.getCanonicalHash());
+        }
+    }
+
+    @Test
+    public void canonicalTable_storesFewerPositions() {
+        NegamaxEngine plain = new NegamaxEngine(NegamaxEngine.DEFAULT_NODE_LIMIT,
+                new TranspositionTable());
+        plain.setUseSymmetry(false);
+        NegamaxEngine symmetric = new NegamaxEngine(NegamaxEngine.DEFAULT_NODE_LIMIT,
+                new TranspositionTable());
+        long plainNodes = plain.search(new Board()).getNodes();
+        long symmetricNodes = symmetric.search(new Board()).getNodes();
+        assertTrue(symmetricNodes < plainNodes);
+        assertTrue(symmetric.getTable().getStores() < plain.getTable().getStores());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.jensu.tictactoe.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VariantTest {
+
+    @Test
+    public void parse_readsWhatToStringWrites() {
+        for (Variant variant : Variant.PRESETS) {
+            assertEquals(variant, Variant.parse(variant.toString()));
+        }
+        assertEquals(new Variant(5, 5, 4), Variant.parse("5x5/4"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsMissingK() {
+        Variant.parse("5x5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsImpossibleVariant() {
+        Variant.parse("3x3/4");
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.jensu.tictactoe.history;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class MatchLogTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("match_history", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    private static RoundRecord round(long timestamp, int... moves) {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        return RoundRecord.of(timestamp, "Jenny", "Computer", true, 1, 3, board);
+    }
+
+    @Test
+    public void appendThenRead_givesBackEveryRound() throws IOException {
+        MatchLog log = MatchLog.open(file);
+        log.append(round(1, 4, 0, 8, 1, 3, 2));
+        log.append(round(2, 0, 3, 1, 4, 2));
+        log.close();
+
+        MatchLog.Reader reader = MatchLog.read(file);
+        RoundRecord first = reader.next();
+        assertEquals(1, first.getTimestamp());
+        assertEquals("Jenny", first.getPlayer1());
+        assertEquals("Computer", first.getPlayer2());
+        assertTrue(first.isComputer());
+        assertEquals(1, first.getPlayType());
+        assertEquals(3, first.getPrinciple());
+        assertEquals(Variant.CLASSIC, first.getVariant());
+        assertEquals(GridBoard.PLAYER_2, first.getWinner());
+        assertEquals(6, first.getMoveCount());
+        assertEquals(2, first.getMove(5));
+
+        RoundRecord second = reader.next();
+        assertEquals(GridBoard.PLAYER_1, second.getWinner());
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        second.replay(board);
+        assertEquals(GridBoard.PLAYER_1, board.getWinner());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void open_appendsToExistingLog() throws IOException {
+        MatchLog log = MatchLog.open(file);
+        log.append(round(1, 4));
+        log.close();
+        log = MatchLog.open(file);
+        log.append(round(2, 0));
+        log.close();
+
+        MatchLog.Reader reader = MatchLog.read(file);
+        assertEquals(1, reader.next().getTimestamp());
+        assertEquals(2, reader.next().getTimestamp());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void open_cutsOffTornRecord() throws IOException {
+        MatchLog log = MatchLog.open(file);
+        log.append(round(1, 4, 0));
+        log.append(round(2, 4, 0));
+        log.close();
+        // a crash in the middle of writing the second record
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.setLength(raw.length() - 3);
+        raw.close();
+
+        log = MatchLog.open(file);
+        log.append(round(3, 8));
+        log.close();
+        MatchLog.Reader reader = MatchLog.read(file);
+        assertEquals(1, reader.next().getTimestamp());
+        assertEquals(3, reader.next().getTimestamp());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void open_cutsOffDamagedRecord() throws IOException {
+        MatchLog log = MatchLog.open(file);
+        log.append(round(1, 4, 0));
+        long firstEnd = log.getSize();
+        log.append(round(2, 4, 0));
+        log.append(round(3, 4, 0));
+        log.close();
+        // a length that no record can have
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(firstEnd);
+        raw.writeInt(1);
+        raw.close();
+
+        MatchLog.Reader reader = MatchLog.read(file);
+        assertEquals(1, reader.next().getTimestamp());
+        try {
+            reader.next();
+            fail();
+        }
+        catch (DamagedRecordException e) {
+            assertEquals(firstEnd, e.getPosition());
+        }
+        reader.close();
+
+        MatchLog.open(file).close();
+        assertEquals(firstEnd, file.length());
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherFiles() throws IOException {
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.writeBytes("not a match log");
+        raw.close();
+        MatchLog.read(file);
+    }
+
+    @Test
+    public void read_streamsManyRounds() throws IOException {
+        int rounds = 100000;
+        MatchLog log = MatchLog.open(file);
+        RoundRecord record = round(0, 4, 0, 8, 2, 1, 7);
+        for (int i = 0; i < rounds; i++) {
+            log.append(record);
+        }
+        log.close();
+
+        long start = System.nanoTime();
+        MatchLog.Reader reader = MatchLog.read(file);
+        int count = 0;
+        while (reader.next() != null) {
+            count += 1;
+        }
+        reader.close();
+        assertEquals(rounds, count);
+        assertEquals(file.length(), reader.getValidSize());
+        // well within a second even on a slow machine
+        assertTrue(System.nanoTime() - start < 2000000000L);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.jensu.tictactoe.history;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class StatsIndexTest {
+
+    private File logFile;
+    private File indexFile;
+
+    @Before
+    public void createFiles() throws IOException {
+        logFile = File.createTempFile("match_history", ".bin");
+        indexFile = File.createTempFile("match_stats", ".idx");
+        assertTrue(logFile.delete());
+        assertTrue(indexFile.delete());
+    }
+
+    @After
+    public void deleteFiles() {
+        logFile.delete();
+        indexFile.delete();
+    }
+
+    private static RoundRecord round(String player2, boolean computer, int playType, int... moves) {
+        GridBoard board = new GridBoard(Variant.CLASSIC);
+        for (int cell : moves) {
+            board.play(cell);
+        }
+        return RoundRecord.of(0, "Jenny", player2, computer, playType, 1, board);
+    }
+
+    // Jenny wins opening in the centre, loses opening in a corner and ties once.
+    private static final RoundRecord WIN = round("Computer", true, 1, 4, 0, 3, 1, 5);
+    private static final RoundRecord LOSS = round("Computer", true, 1, 0, 3, 1, 4, 8, 5);
+    private static final RoundRecord TIE = round("Sam", false, 0, 0, 1, 2, 4, 3, 5, 7, 6, 8);
+
+    private void write(RoundRecord... records) throws IOException {
+        MatchLog log = MatchLog.open(logFile);
+        for (RoundRecord record : records) {
+            log.append(record);
+        }
+        log.close();
+    }
+
+    @Test
+    public void add_countsBothPlayers() throws IOException {
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        long size = MatchLog.HEADER_SIZE;
+        for (RoundRecord record : new RoundRecord[]{WIN, LOSS, TIE}) {
+            size += 40;
+            index.add(record, size);
+        }
+        assertEquals(3, index.getRounds());
+        assertEquals(3, index.getPlayerCount());
+
+        int jenny = index.findPlayer("Jenny");
+        assertEquals(1, index.getResults(jenny, StatsIndex.WIN));
+        assertEquals(1, index.getResults(jenny, StatsIndex.LOSS));
+        assertEquals(1, index.getResults(jenny, StatsIndex.TIE));
+        assertEquals(1, index.getComputerResults(jenny, StatsIndex.WIN));
+        assertEquals(0, index.getComputerResults(jenny, StatsIndex.TIE));
+        assertEquals(2, index.getPlayTypeResults(jenny, 1, StatsIndex.WIN)
+                + index.getPlayTypeResults(jenny, 1, StatsIndex.LOSS));
+        assertEquals(1, index.getOpeningResults(jenny, Variant.CLASSIC, 4, StatsIndex.WIN));
+        assertEquals(1, index.getOpeningResults(jenny, Variant.CLASSIC, 0, StatsIndex.LOSS));
+
+        int computer = index.findPlayer("Computer");
+        assertEquals("Computer", index.getPlayerName(computer));
+        assertEquals(1, index.getResults(computer, StatsIndex.WIN));
+        assertEquals(1, index.getResults(computer, StatsIndex.LOSS));
+        assertEquals(-1, index.findPlayer("Nobody"));
+        index.close();
+    }
+
+    @Test
+    public void open_catchesUpWithNewRounds() throws IOException {
+        write(WIN);
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        assertEquals(1, index.getRounds());
+        index.close();
+
+        write(LOSS, TIE);
+        index = StatsIndex.open(indexFile, logFile);
+        assertEquals(3, index.getRounds());
+        assertEquals(logFile.length(), index.getLogSize());
+        index.close();
+    }
+
+    @Test
+    public void open_rebuildsDamagedIndex() throws IOException {
+        write(WIN, LOSS, TIE);
+        StatsIndex.open(indexFile, logFile).close();
+        RandomAccessFile raw = new RandomAccessFile(indexFile, "rw");
+        raw.seek(0);
+        raw.writeInt(0xDEAD);
+        raw.close();
+
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        assertEquals(3, index.getRounds());
+        assertEquals(1, index.getResults(index.findPlayer("Jenny"), StatsIndex.TIE));
+        index.close();
+    }
+
+    @Test
+    public void open_rebuildsIndexThatCountedLostRounds() throws IOException {
+        write(WIN);
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        // a round that was counted but never reached the log before a crash
+        index.add(LOSS, index.getLogSize() + 40);
+        index.close();
+
+        index = StatsIndex.open(indexFile, logFile);
+        assertEquals(1, index.getRounds());
+        assertEquals(0, index.getResults(index.findPlayer("Jenny"), StatsIndex.LOSS));
+        index.close();
+    }
+
+    @Test
+    public void add_growsTheFileForMorePlayers() throws IOException {
+        int players = 3 * StatsIndex.INITIAL_PLAYERS;
+        RoundRecord[] records = new RoundRecord[players];
+        for (int i = 0; i < players; i++) {
+            records[i] = round("Player " + i, false, 0, 4, 0, 3, 1, 5);
+        }
+        write(records);
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        assertEquals(players + 1, index.getPlayerCount());
+        assertEquals(players, index.getResults(index.findPlayer("Jenny"), StatsIndex.WIN));
+        int last = index.findPlayer("Player " + (players - 1));
+        assertEquals(1, index.getResults(last, StatsIndex.LOSS));
+        index.close();
+
+        // the grown file keeps its room when it is opened again
+        long length = indexFile.length();
+        write(round("Player 0", false, 0, 0, 3, 1, 4, 8, 5));
+        index = StatsIndex.open(indexFile, logFile);
+        assertEquals(length, indexFile.length());
+        assertEquals(players + 1, index.getRounds());
+        assertEquals(1, index.getResults(index.findPlayer("Player 0"), StatsIndex.WIN));
+        index.close();
+    }
+
+    @Test
+    public void query_takesUnderAMillisecondAtAMillionRounds() throws IOException {
+        StatsIndex index = StatsIndex.open(indexFile, logFile);
+        RoundRecord[] records = {WIN, LOSS, TIE};
+        for (int i = 0; i < 1000000; i++) {
+            index.add(records[i % 3], MatchLog.HEADER_SIZE);
+        }
+        int queries = 1000;
+        long start = System.nanoTime();
+        int total = 0;
+        for (int i = 0; i < queries; i++) {
+            int jenny = index.findPlayer("Jenny");
+            total += index.getResults(jenny, StatsIndex.WIN) + index.getComputerResults(jenny,
+                    StatsIndex.LOSS);
+        }
+        long perQuery = (System.nanoTime() - start) / queries;
+        assertEquals(queries * (333334 + 333333), total);
+        assertTrue(perQuery < 1000000);
+        index.close();
+    }
+}
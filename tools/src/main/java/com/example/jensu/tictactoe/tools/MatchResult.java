@@ -0,0 +1,81 @@
+/**
+ * This class is the result of one match of a tournament, always seen from player A. Player A plays
+ * first in the even matches and player B in the odd ones, and whoever plays first starts every
+ * round of that match, as player 1 does in the app.
+ */
+package com.example.jensu.tictactoe.tools;
+
+public class MatchResult {
+
+    public static final int A_WINS = 1;
+    public static final int DRAW = 0;
+    public static final int B_WINS = -1;
+
+    private final long index;
+    private final boolean aFirst;
+    private final int rounds;
+    private final int aPoints;
+    private final int bPoints;
+    private final long moves;
+    private final long nanos;
+
+    /**
+     * @param index the number of the match, from 0
+     * @param aFirst true if player A started the rounds
+     * @param rounds how many rounds were played, including ties
+     * @param aPoints the rounds won by player A
+     * @param bPoints the rounds won by player B
+     * @param moves how many moves were played in all the rounds
+     * @param nanos how long the match took
+     */
+    public MatchResult(long index, boolean aFirst, int rounds, int aPoints, int bPoints, long moves,
+                       long nanos){
+        this.index = index;
+        this.aFirst = aFirst;
+        this.rounds = rounds;
+        this.aPoints = aPoints;
+        this.bPoints = bPoints;
+        this.moves = moves;
+        this.nanos = nanos;
+    }
+
+    /**
+     * The player with more points wins the match, the same as the overall winner in the app.
+     * @return int A_WINS, DRAW or B_WINS
+     */
+    public int getOutcome(){
+        return Integer.signum(aPoints - bPoints);
+    }
+
+    public long getIndex(){
+        return index;
+    }
+
+    public boolean isAFirst(){
+        return aFirst;
+    }
+
+    public int getRounds(){
+        return rounds;
+    }
+
+    public int getAPoints(){
+        return aPoints;
+    }
+
+    public int getBPoints(){
+        return bPoints;
+    }
+
+    public int getTies(){
+        return rounds - aPoints - bPoints;
+    }
+
+    public long getMoves(){
+        return moves;
+    }
+
+    public long getNanos(){
+        return nanos;
+    }
+}
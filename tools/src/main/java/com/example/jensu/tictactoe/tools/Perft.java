@@ -0,0 +1,183 @@
+/**
+ * This class walks every line of play from a position down to a fixed depth, the way chess
+ * programs check their move generators with perft. Lines stop early when the game is over. The
+ * counts are checked against the known numbers for classic Tic-Tac-Toe (255,168 games, 549,946
+ * positions in the game tree and 5,478 different positions), and the walk doubles as a benchmark
+ * of playing and taking back moves on the board model.
+ *
+ * The top of the tree is split into fork/join tasks, each with its own copy of the board, and the
+ * last SEQUENTIAL_DEPTH plies of every line are walked in a plain loop, so the tasks stay big
+ * enough to be worth stealing.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public class Perft {
+
+    // lines with this many plies or fewer left are walked without making more tasks
+    static final int SEQUENTIAL_DEPTH = 5;
+
+    private final int threads;
+
+    /**
+     * @param threads how many threads walk the tree
+     */
+    public Perft(int threads){
+        if (threads < 1){
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * This method walks the tree. The board is not changed.
+     * @param start the position to start from
+     * @param depth how many plies to walk
+     * @param countPositions true to also count the different positions, which keeps the hash of
+     *                       every one of them, so it is only meant for small trees
+     * @return PerftResult the counts
+     */
+    public PerftResult run(GridBoard start, int depth, boolean countPositions){
+        long begin = System.nanoTime();
+        Set<Long> positions = countPositions
+                ? Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>()) : null;
+        PerftCounts total = new PerftCounts();
+        PerftCounts[] byFirstMove = new PerftCounts[start.getCells()];
+        GridBoard board = copy(start);
+
+        if (depth == 0 || board.isGameOver()){
+            walk(board, depth, total, positions);
+        }
+        else {
+            total.nodes += 1;
+            if (positions != null){
+                positions.add(board.getHash());
+            }
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<Task> tasks = new ArrayList<>();
+                for (int cell = 0; cell < board.getCells(); cell++){
+                    if (board.isEmpty(cell)){
+                        Task task = new Task(child(board, cell), depth - 1, positions);
+                        pool.execute(task);
+                        tasks.add(task);
+                    }
+                }
+                for (Task task : tasks){
+                    PerftCounts counts = task.join();
+                    byFirstMove[task.board.getLastMove()] = counts;
+                    total.add(counts);
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        return new PerftResult(total, byFirstMove, positions == null ? -1 : positions.size(),
+                System.nanoTime() - begin);
+    }
+
+    /**
+     * This method walks the tree below a position on a single thread, playing and taking back
+     * the moves on the one board.
+     */
+    static void walk(GridBoard board, int depth, PerftCounts counts, Set<Long> positions){
+        counts.nodes += 1;
+        if (positions != null){
+            positions.add(board.getHash());
+        }
+        if (board.isGameOver()){
+            countGame(board, counts);
+            return;
+        }
+        if (depth == 0){
+            counts.leaves += 1;
+            return;
+        }
+        for (int cell = 0; cell < board.getCells(); cell++){
+            if (board.isEmpty(cell)){
+                board.play(cell);
+                walk(board, depth - 1, counts, positions);
+                board.undo();
+            }
+        }
+    }
+
+    private static void countGame(GridBoard board, PerftCounts counts){
+        counts.leaves += 1;
+        int winner = board.getWinner();
+        if (winner == GridBoard.PLAYER_1){
+            counts.player1Wins += 1;
+        }
+        else if (winner == GridBoard.PLAYER_2){
+            counts.player2Wins += 1;
+        }
+        else {
+            counts.draws += 1;
+        }
+    }
+
+    private static GridBoard copy(GridBoard board){
+        GridBoard copy = new GridBoard(board.getVariant());
+        copy.copyFrom(board);
+        return copy;
+    }
+
+    private static GridBoard child(GridBoard board, int cell){
+        GridBoard child = copy(board);
+        child.play(cell);
+        return child;
+    }
+
+    /**
+     * This class walks the tree below one position, splitting it into a task for every move while
+     * the lines are still long.
+     */
+    private static class Task extends RecursiveTask<PerftCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GridBoard board;
+        private final int depth;
+        private final Set<Long> positions;
+
+        Task(GridBoard board, int depth, Set<Long> positions){
+            this.board = board;
+            this.depth = depth;
+            this.positions = positions;
+        }
+
+        @Override
+        protected PerftCounts compute(){
+            PerftCounts counts = new PerftCounts();
+            if (depth <= SEQUENTIAL_DEPTH || board.isGameOver()){
+                walk(board, depth, counts, positions);
+                return counts;
+            }
+            counts.nodes += 1;
+            if (positions != null){
+                positions.add(board.getHash());
+            }
+            List<Task> children = new ArrayList<>();
+            for (int cell = 0; cell < board.getCells(); cell++){
+                if (board.isEmpty(cell)){
+                    children.add(new Task(child(board, cell), depth - 1, positions));
+                }
+            }
+            for (Task child : ForkJoinTask.invokeAll(children)){
+                counts.add(child.join());
+            }
+            return counts;
+        }
+    }
+}
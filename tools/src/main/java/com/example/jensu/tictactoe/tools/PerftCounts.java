@@ -0,0 +1,61 @@
+/**
+ * This class holds what a perft walk found below one position: every position it visited, the
+ * leaves where it stopped, and how the finished games among the leaves ended.
+ */
+package com.example.jensu.tictactoe.tools;
+
+public class PerftCounts {
+
+    long nodes;
+    long leaves;
+    long player1Wins;
+    long player2Wins;
+    long draws;
+
+    void add(PerftCounts other){
+        nodes += other.nodes;
+        leaves += other.leaves;
+        player1Wins += other.player1Wins;
+        player2Wins += other.player2Wins;
+        draws += other.draws;
+    }
+
+    /**
+     * @return long every position visited, counting the start position
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    /**
+     * @return long the positions at the full depth and the finished games before it
+     */
+    public long getLeaves(){
+        return leaves;
+    }
+
+    public long getPlayer1Wins(){
+        return player1Wins;
+    }
+
+    public long getPlayer2Wins(){
+        return player2Wins;
+    }
+
+    public long getDraws(){
+        return draws;
+    }
+
+    /**
+     * @return long the leaves where the game is over
+     */
+    public long getGames(){
+        return player1Wins + player2Wins + draws;
+    }
+
+    @Override
+    public String toString(){
+        return "nodes=" + nodes + " leaves=" + leaves + " games=" + getGames() + " player1Wins="
+                + player1Wins + " player2Wins=" + player2Wins + " draws=" + draws;
+    }
+}
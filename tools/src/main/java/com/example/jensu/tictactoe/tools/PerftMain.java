@@ -0,0 +1,76 @@
+/**
+ * This class runs perft from the command line and prints the counts and the speed, for example
+ * --variant 4x4/4 --depth 8 --split. --positions also counts the different positions, which is
+ * only sensible for small trees.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.util.Locale;
+
+public class PerftMain {
+
+    private static final String USAGE = "Usage: PerftMain [--variant 3x3/3] [--depth N]"
+            + " [--threads N] [--split] [--positions]";
+
+    public static void main(String[] args){
+        Variant variant = Variant.CLASSIC;
+        int depth = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean split = false;
+        boolean countPositions = false;
+        try {
+            for (int i = 0; i < args.length; i++){
+                if (args[i].equals("--split")){
+                    split = true;
+                }
+                else if (args[i].equals("--positions")){
+                    countPositions = true;
+                }
+                else if (i + 1 < args.length && args[i].equals("--variant")){
+                    variant = Variant.parse(args[++i]);
+                }
+                else if (i + 1 < args.length && args[i].equals("--depth")){
+                    depth = Integer.parseInt(args[++i]);
+                }
+                else if (i + 1 < args.length && args[i].equals("--threads")){
+                    threads = Integer.parseInt(args[++i]);
+                }
+                else {
+                    throw new IllegalArgumentException("Bad option " + args[i]);
+                }
+            }
+        }
+        catch (IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        GridBoard board = new GridBoard(variant);
+        if (depth < 0){
+            depth = board.getCells();
+        }
+
+        PerftResult result = new Perft(threads).run(board, depth, countPositions);
+        PerftCounts total = result.getTotal();
+        System.out.println(variant + " depth " + depth + ", " + threads + " threads");
+        System.out.println(total);
+        if (countPositions){
+            System.out.println("positions=" + result.getPositions());
+        }
+        System.out.println(String.format(Locale.ROOT, "%.3f s, %.0f nodes/s",
+                result.getNanos() / 1e9, result.getNodesPerSecond()));
+        if (split){
+            for (int cell = 0; cell < board.getCells(); cell++){
+                PerftCounts counts = result.getFirstMove(cell);
+                if (counts != null){
+                    System.out.println((cell / variant.getCols()) + "," + (cell % variant.getCols())
+                            + ": " + counts);
+                }
+            }
+        }
+    }
+}
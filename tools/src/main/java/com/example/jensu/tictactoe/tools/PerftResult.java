@@ -0,0 +1,48 @@
+/**
+ * This class is the result of a perft run: the totals, the totals below each first move, and how
+ * many different positions were seen if they were counted.
+ */
+package com.example.jensu.tictactoe.tools;
+
+public class PerftResult {
+
+    private final PerftCounts total;
+    private final PerftCounts[] byFirstMove;
+    private final long positions;
+    private final long nanos;
+
+    PerftResult(PerftCounts total, PerftCounts[] byFirstMove, long positions, long nanos){
+        this.total = total;
+        this.byFirstMove = byFirstMove;
+        this.positions = positions;
+        this.nanos = nanos;
+    }
+
+    public PerftCounts getTotal(){
+        return total;
+    }
+
+    /**
+     * @param cell the first move
+     * @return PerftCounts the totals below that move, or null if the move could not be played
+     */
+    public PerftCounts getFirstMove(int cell){
+        return byFirstMove[cell];
+    }
+
+    /**
+     * @return long the different positions seen, counting the start position, or -1 if they
+     * were not counted
+     */
+    public long getPositions(){
+        return positions;
+    }
+
+    public long getNanos(){
+        return nanos;
+    }
+
+    public double getNodesPerSecond(){
+        return nanos == 0 ? 0 : total.getNodes() * 1e9 / nanos;
+    }
+}
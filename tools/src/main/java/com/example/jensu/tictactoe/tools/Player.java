@@ -0,0 +1,80 @@
+/**
+ * This class plays the moves of one tournament player the way the game screen plays the computer:
+ * negamax on the classic board, a BigBoardSearch on the bigger boards, and a random move now and
+ * then at the lower levels. An mcts:N player uses MCTS on every board instead. A player is only
+ * used by one match at a time, so the engines can keep their tables between moves and between
+ * matches.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.ai.BigBoardSearch;
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.Difficulty;
+import com.example.jensu.tictactoe.ai.MctsEngine;
+import com.example.jensu.tictactoe.ai.NegamaxEngine;
+import com.example.jensu.tictactoe.game.Board;
+import com.example.jensu.tictactoe.game.GridBoard;
+
+import java.util.Random;
+
+class Player {
+
+    // the smallest MCTS tree, so that a few playouts still have room to grow
+    private static final int MIN_CAPACITY = 1024;
+
+    private final PlayerSpec spec;
+    private final Difficulty difficulty;
+    private final long seed;
+    private NegamaxEngine negamaxEngine;
+    private BigBoardSearch bigBoardSearch;
+    private MctsEngine mctsEngine;
+    private final Board classicBoard = new Board();
+
+    /**
+     * @param spec the player
+     * @param seed the seed of the MCTS playouts
+     */
+    Player(PlayerSpec spec, long seed){
+        this.spec = spec;
+        this.difficulty = spec.getDifficulty();
+        this.seed = seed;
+    }
+
+    /**
+     * This method picks the move of the side to move. The board is not changed.
+     * @param board the position, the game must not be over
+     * @param random the random numbers of the match
+     * @return int the cell to play
+     */
+    int chooseMove(GridBoard board, Random random){
+        if (difficulty.isRandomMove(random)){
+            return Difficulty.randomMove(board, random);
+        }
+        if (board.getVariant().isClassic() && !spec.isMctsOnly()){
+            if (negamaxEngine == null){
+                negamaxEngine = difficulty.createEngine();
+            }
+            classicBoard.setMasks((int) board.getBits(GridBoard.PLAYER_1, 0),
+                    (int) board.getBits(GridBoard.PLAYER_2, 0));
+            return negamaxEngine.search(classicBoard).getMove();
+        }
+        if (!spec.isMctsOnly()){
+            if (bigBoardSearch == null){
+                bigBoardSearch = new BigBoardSearch(difficulty);
+            }
+            return bigBoardSearch.search(board, CancelToken.NONE).getMove();
+        }
+        if (mctsEngine == null){
+            // each expansion adds at most one node per cell, so the tree never needs more than this
+            long nodes = Math.max(MIN_CAPACITY, difficulty.getNodeLimit() * board.getCells());
+            mctsEngine = new MctsEngine((int) Math.min(MctsEngine.DEFAULT_CAPACITY, nodes),
+                    MctsEngine.DEFAULT_EXPLORATION, seed);
+        }
+        return mctsEngine.search(board, difficulty.getMaxMillis(), difficulty.getNodeLimit(),
+                CancelToken.NONE).getMove();
+    }
+
+    PlayerSpec getSpec(){
+        return spec;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * This class describes one computer player of a tournament, written on the command line as a
+ * difficulty level ("easy", "medium", "hard" or "perfect"), "random" for a player that only plays
+ * random moves, or "mcts:N" for plain MCTS with N playouts a move on every board size.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.ai.Difficulty;
+
+public class PlayerSpec {
+
+    private static final String[] LEVEL_NAMES = {"easy", "medium", "hard", "perfect"};
+    private static final String MCTS_PREFIX = "mcts:";
+    // an MCTS player is stopped by its playouts, the time limit is only a safety net
+    private static final long MCTS_MAX_MILLIS = 60000;
+
+    private final String name;
+    private final Difficulty difficulty;
+    private final boolean mctsOnly;
+
+    private PlayerSpec(String name, Difficulty difficulty, boolean mctsOnly){
+        this.name = name;
+        this.difficulty = difficulty;
+        this.mctsOnly = mctsOnly;
+    }
+
+    /**
+     * @param text the player as written on the command line
+     * @return PlayerSpec the player
+     * @throws IllegalArgumentException if the text is not a known player
+     */
+    public static PlayerSpec parse(String text){
+        String name = text.trim().toLowerCase();
+        for (int level = 0; level < LEVEL_NAMES.length; level++){
+            if (LEVEL_NAMES[level].equals(name)){
+                return new PlayerSpec(name, Difficulty.fromPreset(level), false);
+            }
+        }
+        if (name.equals("random")){
+            return new PlayerSpec(name, new Difficulty(1, 1, 1, 1), false);
+        }
+        if (name.startsWith(MCTS_PREFIX)){
+            try {
+                long playouts = Long.parseLong(name.substring(MCTS_PREFIX.length()));
+                return new PlayerSpec(name, new Difficulty(playouts, 1, 0, MCTS_MAX_MILLIS), true);
+            }
+            catch (NumberFormatException e){
+                // falls through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + text);
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public Difficulty getDifficulty(){
+        return difficulty;
+    }
+
+    /**
+     * @return boolean true if the player uses MCTS on every board, instead of the level's engines
+     */
+    public boolean isMctsOnly(){
+        return mctsOnly;
+    }
+
+    @Override
+    public String toString(){
+        return name;
+    }
+}
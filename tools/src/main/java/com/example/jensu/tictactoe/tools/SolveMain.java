@@ -0,0 +1,89 @@
+/**
+ * This class runs the proof-number solver from the command line, for example
+ * --variant 5x5/4 --moves 12,6 --seconds 600. It prints whether the side to move wins, loses or
+ * draws, or that the budget ran out, with the speed and the most memory the table used.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.ai.CancelToken;
+import com.example.jensu.tictactoe.ai.ProofNumberSolver;
+import com.example.jensu.tictactoe.ai.ProofResult;
+import com.example.jensu.tictactoe.ai.ProofTable;
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.util.Locale;
+
+public class SolveMain {
+
+    private static final String USAGE = "Usage: SolveMain [--variant 5x5/4] [--moves c1,c2,...]"
+            + " [--seconds N] [--nodes N] [--table-bits N]";
+
+    public static void main(String[] args){
+        Variant variant = Variant.parse("5x5/4");
+        String moves = "";
+        long seconds = 60;
+        long nodes = ProofNumberSolver.UNLIMITED_NODES;
+        int tableBits = ProofTable.DEFAULT_SIZE_BITS;
+        try {
+            for (int i = 0; i < args.length; i++){
+                if (i + 1 < args.length && args[i].equals("--variant")){
+                    variant = Variant.parse(args[++i]);
+                }
+                else if (i + 1 < args.length && args[i].equals("--moves")){
+                    moves = args[++i];
+                }
+                else if (i + 1 < args.length && args[i].equals("--seconds")){
+                    seconds = Long.parseLong(args[++i]);
+                }
+                else if (i + 1 < args.length && args[i].equals("--nodes")){
+                    nodes = Long.parseLong(args[++i]);
+                }
+                else if (i + 1 < args.length && args[i].equals("--table-bits")){
+                    tableBits = Integer.parseInt(args[++i]);
+                }
+                else {
+                    throw new IllegalArgumentException("Bad option " + args[i]);
+                }
+            }
+        }
+        catch (IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        GridBoard board = new GridBoard(variant);
+        for (String move : moves.isEmpty() ? new String[0] : moves.split(",")){
+            int cell = Integer.parseInt(move.trim());
+            if (cell < 0 || cell >= board.getCells() || !board.isEmpty(cell) || board.isGameOver()){
+                System.err.println("Move " + cell + " can not be played");
+                System.exit(2);
+                return;
+            }
+            board.play(cell);
+        }
+        if (board.isGameOver()){
+            System.err.println("The game is already over");
+            System.exit(2);
+            return;
+        }
+
+        ProofNumberSolver solver = new ProofNumberSolver(new ProofTable(tableBits));
+        solver.setNodeLimit(nodes);
+        ProofResult result = solver.solve(board, seconds * 1000, CancelToken.NONE);
+        System.out.println(variant + " after " + board.getTurnCount() + " moves, "
+                + (board.getSideToMove() == GridBoard.PLAYER_1 ? "O" : "X") + " to move");
+        System.out.print(ProofResult.valueName(result.getValue()));
+        if (result.getMove() >= 0){
+            System.out.print(" with " + (result.getMove() / variant.getCols()) + ","
+                    + (result.getMove() % variant.getCols()));
+        }
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%d nodes, %.3f s, %.0f nodes/s",
+                result.getNodes(), result.getElapsedNanos() / 1e9, result.getNodesPerSecond()));
+        System.out.println(String.format(Locale.ROOT, "peak %d entries, %.1f MB of a %.1f MB table",
+                result.getPeakEntries(), result.getPeakBytes() / 1048576.0,
+                result.getTableBytes() / 1048576.0));
+    }
+}
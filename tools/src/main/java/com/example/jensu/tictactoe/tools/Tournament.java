@@ -0,0 +1,209 @@
+/**
+ * This class plays matches between two computer players with the same round and series rules as
+ * the game screen. Every match runs as its own task, on a virtual thread when the JVM has them
+ * (Java 21 and later) and on a pool with one thread per core otherwise. Only a bounded number of
+ * matches are started ahead of the ones that are finished, so millions of matches run in constant
+ * memory, and the players are reused between matches instead of making new engines every time.
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Series;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Tournament {
+
+    /**
+     * This interface is told about every finished match. It is called from the match threads, so
+     * it has to be thread safe.
+     */
+    public interface Listener {
+        void onMatch(MatchResult result);
+    }
+
+    private final Variant variant;
+    private final int playType;
+    private final int principle;
+    private final int maxRounds;
+    private final PlayerSpec playerA;
+    private final PlayerSpec playerB;
+    private final long seed;
+
+    private final ConcurrentLinkedQueue<Player> idleA = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Player> idleB = new ConcurrentLinkedQueue<>();
+    private final AtomicLong playersMade = new AtomicLong();
+
+    /**
+     * @param variant the board
+     * @param playType Series.INFINITE, Series.BEST_OF or Series.FIRST_TO
+     * @param principle the number of rounds for best of, or the points for first one to
+     * @param maxRounds the most rounds of a match. Playing forever stops here, and a first one to
+     *                  match that is still going, because every round was a tie, ends here too.
+     * @param playerA the first player
+     * @param playerB the second player
+     * @param seed the seed of the random moves
+     */
+    public Tournament(Variant variant, int playType, int principle, int maxRounds,
+                      PlayerSpec playerA, PlayerSpec playerB, long seed){
+        // checks the rules the same way the series will
+        new Series(playType, principle);
+        if (maxRounds < 1){
+            throw new IllegalArgumentException("maxRounds must be at least 1");
+        }
+        this.variant = variant;
+        this.playType = playType;
+        this.principle = principle;
+        this.maxRounds = maxRounds;
+        this.playerA = playerA;
+        this.playerB = playerB;
+        this.seed = seed;
+    }
+
+    /**
+     * This method plays the matches and waits for all of them to finish.
+     * @param matches how many matches to play
+     * @param maxInFlight the most matches that can be started but not finished
+     * @param listener is told about every match, or null
+     * @return TournamentStats the results
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public TournamentStats run(long matches, int maxInFlight, final Listener listener)
+            throws InterruptedException {
+        final TournamentStats stats = new TournamentStats();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ExecutorService executor = newMatchExecutor();
+        try {
+            for (long i = 0; i < matches && failure.get() == null; i++){
+                inFlight.acquire();
+                final long index = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run(){
+                        try {
+                            MatchResult result = playMatch(index);
+                            stats.add(result);
+                            if (listener != null){
+                                listener.onMatch(result);
+                            }
+                        }
+                        catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        finally {
+                            inFlight.release();
+                        }
+                    }
+                });
+            }
+        }
+        finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        if (failure.get() != null){
+            throw failure.get();
+        }
+        return stats;
+    }
+
+    /**
+     * This method makes a virtual thread per task executor if the JVM has one. It is looked up by
+     * reflection so the tools still build and run on older JVMs.
+     * @return ExecutorService the executor for the matches
+     */
+    static ExecutorService newMatchExecutor(){
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (ReflectiveOperationException e){
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * This method plays one match with players that no other match is using.
+     * @param index the number of the match, which decides who plays first and the random moves
+     * @return MatchResult the result
+     */
+    MatchResult playMatch(long index){
+        Player a = borrow(idleA, playerA);
+        Player b = borrow(idleB, playerB);
+        try {
+            return playMatch(index, a, b);
+        }
+        finally {
+            idleA.add(a);
+            idleB.add(b);
+        }
+    }
+
+    private Player borrow(ConcurrentLinkedQueue<Player> idle, PlayerSpec spec){
+        Player player = idle.poll();
+        if (player == null){
+            player = new Player(spec, seed + playersMade.incrementAndGet());
+        }
+        return player;
+    }
+
+    private MatchResult playMatch(long index, Player a, Player b){
+        long start = System.nanoTime();
+        boolean aFirst = (index & 1) == 0;
+        Player first = aFirst ? a : b;
+        Player second = aFirst ? b : a;
+        // a different stream of random moves for every match, the same one on every run
+        Random random = new Random(seed ^ (index * 0x9E3779B97F4A7C15L));
+        GridBoard board = new GridBoard(variant);
+        Series series = new Series(playType, principle);
+        long moves = 0;
+        while (!series.isOver() && series.getRounds() < maxRounds){
+            board.clear();
+            while (!board.isGameOver()){
+                Player player = board.getSideToMove() == GridBoard.PLAYER_1 ? first : second;
+                board.play(player.chooseMove(board, random));
+                moves += 1;
+            }
+            series.addRound(board.getWinner());
+        }
+        int firstPoints = series.getPoints(GridBoard.PLAYER_1);
+        int secondPoints = series.getPoints(GridBoard.PLAYER_2);
+        return new MatchResult(index, aFirst, series.getRounds(),
+                aFirst ? firstPoints : secondPoints, aFirst ? secondPoints : firstPoints, moves,
+                System.nanoTime() - start);
+    }
+
+    public Variant getVariant(){
+        return variant;
+    }
+
+    public int getPlayType(){
+        return playType;
+    }
+
+    public int getPrinciple(){
+        return principle;
+    }
+
+    public int getMaxRounds(){
+        return maxRounds;
+    }
+
+    public PlayerSpec getPlayerA(){
+        return playerA;
+    }
+
+    public PlayerSpec getPlayerB(){
+        return playerB;
+    }
+}
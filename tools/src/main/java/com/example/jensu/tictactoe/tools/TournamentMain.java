@@ -0,0 +1,220 @@
+/**
+ * This class runs a self-play tournament from the command line. Every finished match can be
+ * streamed to a file, as CSV or, if the file name ends in .jsonl, as one JSON object a line. When
+ * all matches are done a JSON summary is printed, with games per second, the match and round
+ * results with their confidence intervals, and the Elo difference of player A over player B.
+ *
+ * Example: --a hard --b medium --play-type 1 --principle 5 --matches 100000 --out games.csv
+ */
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.Series;
+import com.example.jensu.tictactoe.game.Variant;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class TournamentMain {
+
+    private static final String USAGE = "Usage: TournamentMain --a <player> --b <player>"
+            + " [--variant 3x3/3] [--play-type 0|1|2] [--principle N] [--max-rounds N]"
+            + " [--matches N] [--in-flight N] [--seed N] [--out file.csv|file.jsonl]"
+            + " [--summary file.json]\n"
+            + "Players: easy, medium, hard, perfect, random or mcts:<playouts>";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options;
+        Tournament tournament;
+        long matches;
+        int inFlight;
+        try {
+            options = parseOptions(args);
+            int playType = Integer.parseInt(option(options, "play-type", "1"));
+            int principle = Integer.parseInt(option(options, "principle", "3"));
+            // playing forever is one round a match unless asked otherwise, and the other types
+            // only stop early if every round is a tie
+            int maxRounds = Integer.parseInt(option(options, "max-rounds",
+                    playType == Series.INFINITE ? "1" : "1000"));
+            tournament = new Tournament(Variant.parse(option(options, "variant", "3x3/3")),
+                    playType, principle, maxRounds, PlayerSpec.parse(required(options, "a")),
+                    PlayerSpec.parse(required(options, "b")),
+                    Long.parseLong(option(options, "seed", "1")));
+            matches = Long.parseLong(option(options, "matches", "1000"));
+            inFlight = Integer.parseInt(option(options, "in-flight",
+                    String.valueOf(4 * Runtime.getRuntime().availableProcessors())));
+        }
+        catch (IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String out = options.get("out");
+        final Writer writer = out == null ? null : new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(out), UTF_8));
+        final boolean jsonLines = out != null && out.endsWith(".jsonl");
+        if (writer != null && !jsonLines){
+            writer.write("match,a_first,rounds,a_points,b_points,ties,outcome,moves,micros\n");
+        }
+        final long start = System.nanoTime();
+        final long reportEvery = Math.max(1, matches / 20);
+        final long[] finished = new long[1];
+        TournamentStats stats;
+        try {
+            stats = tournament.run(matches, inFlight, new Tournament.Listener() {
+                @Override
+                public void onMatch(MatchResult result){
+                    synchronized (finished){
+                        finished[0] += 1;
+                        if (writer != null){
+                            try {
+                                writer.write(jsonLines ? toJson(result) : toCsv(result));
+                            }
+                            catch (IOException e){
+                                throw new IllegalStateException("Could not write the results", e);
+                            }
+                        }
+                        if (finished[0] % reportEvery == 0){
+                            double seconds = (System.nanoTime() - start) / 1e9;
+                            System.err.println(String.format(Locale.ROOT,
+                                    "%d matches, %.0f matches/s", finished[0],
+                                    finished[0] / seconds));
+                        }
+                    }
+                }
+            });
+        }
+        finally {
+            if (writer != null){
+                writer.close();
+            }
+        }
+
+        String summary = summarize(tournament, stats, System.nanoTime() - start);
+        System.out.println(summary);
+        String summaryFile = options.get("summary");
+        if (summaryFile != null){
+            try (PrintStream stream = new PrintStream(new FileOutputStream(summaryFile), false,
+                    "UTF-8")){
+                stream.println(summary);
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args){
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2){
+            if (!args[i].startsWith("--") || i + 1 >= args.length){
+                throw new IllegalArgumentException("Bad option " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static String option(Map<String, String> options, String name, String fallback){
+        String value = options.get(name);
+        return value == null ? fallback : value;
+    }
+
+    private static String required(Map<String, String> options, String name){
+        String value = options.get(name);
+        if (value == null){
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    static String toCsv(MatchResult result){
+        return result.getIndex() + "," + result.isAFirst() + "," + result.getRounds() + ","
+                + result.getAPoints() + "," + result.getBPoints() + "," + result.getTies() + ","
+                + result.getOutcome() + "," + result.getMoves() + "," + result.getNanos() / 1000
+                + "\n";
+    }
+
+    static String toJson(MatchResult result){
+        return "{\"match\":" + result.getIndex() + ",\"aFirst\":" + result.isAFirst()
+                + ",\"rounds\":" + result.getRounds() + ",\"aPoints\":" + result.getAPoints()
+                + ",\"bPoints\":" + result.getBPoints() + ",\"ties\":" + result.getTies()
+                + ",\"outcome\":" + result.getOutcome() + ",\"moves\":" + result.getMoves()
+                + ",\"micros\":" + result.getNanos() / 1000 + "}\n";
+    }
+
+    /**
+     * This method writes the summary of a finished tournament as JSON.
+     * @param tournament the tournament
+     * @param stats its results
+     * @param nanos how long it took
+     * @return String the summary
+     */
+    static String summarize(Tournament tournament, TournamentStats stats, long nanos){
+        double seconds = nanos / 1e9;
+        long matches = stats.getMatches();
+        double[] score = stats.getScoreInterval();
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"variant\": \"").append(tournament.getVariant()).append("\",\n");
+        json.append("  \"playType\": ").append(tournament.getPlayType()).append(",\n");
+        json.append("  \"principle\": ").append(tournament.getPrinciple()).append(",\n");
+        json.append("  \"maxRounds\": ").append(tournament.getMaxRounds()).append(",\n");
+        json.append("  \"a\": \"").append(tournament.getPlayerA()).append("\",\n");
+        json.append("  \"b\": \"").append(tournament.getPlayerB()).append("\",\n");
+        json.append("  \"matches\": ").append(matches).append(",\n");
+        json.append("  \"rounds\": ").append(stats.getRounds()).append(",\n");
+        json.append("  \"moves\": ").append(stats.getMoves()).append(",\n");
+        json.append("  \"seconds\": ").append(number(seconds)).append(",\n");
+        json.append("  \"gamesPerSecond\": ").append(number(stats.getRounds() / seconds))
+                .append(",\n");
+        json.append("  \"matchesPerSecond\": ").append(number(matches / seconds)).append(",\n");
+        json.append("  \"matchResults\": ")
+                .append(rates(stats.getWins(), stats.getDraws(), stats.getLosses()))
+                .append(",\n");
+        json.append("  \"roundResults\": ")
+                .append(rates(stats.getRoundWins(), stats.getRoundTies(), stats.getRoundLosses()))
+                .append(",\n");
+        json.append("  \"score\": ").append(interval(stats.getScore(), score[0], score[1]))
+                .append(",\n");
+        json.append("  \"eloAOverB\": ").append(interval(TournamentStats.elo(stats.getScore()),
+                TournamentStats.elo(score[0]), TournamentStats.elo(score[1]))).append("\n");
+        json.append("}");
+        return json.toString();
+    }
+
+    private static String rates(long wins, long draws, long losses){
+        long total = wins + draws + losses;
+        return "{\"wins\": " + wins + ", \"draws\": " + draws + ", \"losses\": " + losses
+                + ", \"winRate\": " + rate(wins, total) + ", \"drawRate\": " + rate(draws, total)
+                + ", \"lossRate\": " + rate(losses, total) + "}";
+    }
+
+    private static String rate(long count, long total){
+        double[] wilson = TournamentStats.wilson(count, total);
+        return interval(total == 0 ? 0 : (double) count / total, wilson[0], wilson[1]);
+    }
+
+    private static String interval(double value, double low, double high){
+        return "{\"value\": " + number(value) + ", \"low\": " + number(low) + ", \"high\": "
+                + number(high) + "}";
+    }
+
+    /**
+     * JSON has no infinity, so an Elo difference from a score of 0 or 1 is written as null.
+     */
+    private static String number(double value){
+        if (Double.isNaN(value) || Double.isInfinite(value)){
+            return "null";
+        }
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
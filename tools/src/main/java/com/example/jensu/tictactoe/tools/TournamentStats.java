@@ -0,0 +1,135 @@
+/**
+ * This class adds up the results of a tournament from player A's side. Matches can be added from
+ * many threads at once. Besides the counts it gives 95% confidence intervals, Wilson intervals for
+ * the win, draw and loss rates and a normal interval for the score, and turns the score into an
+ * Elo difference between the two players.
+ */
+package com.example.jensu.tictactoe.tools;
+
+public class TournamentStats {
+
+    // the normal quantile of a two-sided 95% interval
+    public static final double Z_95 = 1.959964;
+
+    private long wins;
+    private long draws;
+    private long losses;
+    private long rounds;
+    private long roundWins;
+    private long roundLosses;
+    private long moves;
+
+    public synchronized void add(MatchResult result){
+        if (result.getOutcome() == MatchResult.A_WINS){
+            wins += 1;
+        }
+        else if (result.getOutcome() == MatchResult.B_WINS){
+            losses += 1;
+        }
+        else {
+            draws += 1;
+        }
+        rounds += result.getRounds();
+        roundWins += result.getAPoints();
+        roundLosses += result.getBPoints();
+        moves += result.getMoves();
+    }
+
+    public synchronized long getMatches(){
+        return wins + draws + losses;
+    }
+
+    public synchronized long getWins(){
+        return wins;
+    }
+
+    public synchronized long getDraws(){
+        return draws;
+    }
+
+    public synchronized long getLosses(){
+        return losses;
+    }
+
+    public synchronized long getRounds(){
+        return rounds;
+    }
+
+    public synchronized long getRoundWins(){
+        return roundWins;
+    }
+
+    public synchronized long getRoundLosses(){
+        return roundLosses;
+    }
+
+    public synchronized long getRoundTies(){
+        return rounds - roundWins - roundLosses;
+    }
+
+    public synchronized long getMoves(){
+        return moves;
+    }
+
+    /**
+     * @return double player A's average match score, 1 for a win and a half for a draw
+     */
+    public synchronized double getScore(){
+        long matches = getMatches();
+        return matches == 0 ? 0.5 : (wins + 0.5 * draws) / matches;
+    }
+
+    /**
+     * @return double[] the low and high end of the 95% interval of the score
+     */
+    public synchronized double[] getScoreInterval(){
+        long matches = getMatches();
+        if (matches == 0){
+            return new double[]{0, 1};
+        }
+        double score = getScore();
+        // the variance of a single match score around the mean
+        double variance = (wins * square(1 - score) + draws * square(0.5 - score)
+                + losses * square(score)) / matches;
+        double margin = Z_95 * Math.sqrt(variance / matches);
+        return new double[]{Math.max(0, score - margin), Math.min(1, score + margin)};
+    }
+
+    private static double square(double value){
+        return value * value;
+    }
+
+    /**
+     * This method gives the Wilson 95% interval of a rate, which stays inside 0 to 1 and works for
+     * rates close to 0 or 1, unlike the normal interval.
+     * @param count how many times it happened
+     * @param total how many tries there were
+     * @return double[] the low and high end of the interval
+     */
+    public static double[] wilson(long count, long total){
+        if (total == 0){
+            return new double[]{0, 1};
+        }
+        double rate = (double) count / total;
+        double z2 = Z_95 * Z_95;
+        double centre = (rate + z2 / (2 * total)) / (1 + z2 / total);
+        double margin = Z_95 / (1 + z2 / total)
+                * Math.sqrt(rate * (1 - rate) / total + z2 / (4.0 * total * total));
+        return new double[]{Math.max(0, centre - margin), Math.min(1, centre + margin)};
+    }
+
+    /**
+     * This method turns an expected score into the Elo difference that predicts it.
+     * @param score the expected score, from 0 to 1
+     * @return double the Elo difference, infinite when the score is 0 or 1
+     */
+    public static double elo(double score){
+        if (score <= 0){
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1){
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
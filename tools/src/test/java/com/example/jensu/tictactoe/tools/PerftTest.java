@@ -0,0 +1,56 @@
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.GridBoard;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerftTest {
+
+    @Test
+    public void classic_matchesTheKnownTotals() {
+        PerftResult result = new Perft(1).run(new GridBoard(Variant.CLASSIC), 9, true);
+        PerftCounts total = result.getTotal();
+        assertEquals(255168, total.getGames());
+        assertEquals(255168, total.getLeaves());
+        assertEquals(131184, total.getPlayer1Wins());
+        assertEquals(77904, total.getPlayer2Wins());
+        assertEquals(46080, total.getDraws());
+        assertEquals(549946, total.getNodes());
+        assertEquals(5478, result.getPositions());
+    }
+
+    @Test
+    public void splitByFirstMove_addsUpAndFollowsTheSymmetry() {
+        PerftResult result = new Perft(4).run(new GridBoard(Variant.CLASSIC), 9, false);
+        long games = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            games += result.getFirstMove(cell).getGames();
+        }
+        assertEquals(255168, games);
+        assertEquals(result.getFirstMove(0).getGames(), result.getFirstMove(8).getGames());
+        assertEquals(result.getFirstMove(1).getGames(), result.getFirstMove(3).getGames());
+    }
+
+    @Test
+    public void shallowDepth_countsEveryLine() {
+        // no game can be over after four moves, so every line of 16 * 15 * 14 * 13 is a leaf
+        PerftResult result = new Perft(2).run(new GridBoard(new Variant(4, 4, 4)), 4, false);
+        assertEquals(16 * 15 * 14 * 13, result.getTotal().getLeaves());
+        assertEquals(0, result.getTotal().getGames());
+        assertEquals(1 + 16 + 16 * 15 + 16 * 15 * 14 + 16 * 15 * 14 * 13,
+                result.getTotal().getNodes());
+    }
+
+    @Test
+    public void parallelWalk_agreesWithOneThread() {
+        GridBoard board = new GridBoard(new Variant(4, 4, 3));
+        PerftCounts single = new Perft(1).run(board, 7, false).getTotal();
+        PerftCounts parallel = new Perft(4).run(board, 7, false).getTotal();
+        assertEquals(single.getNodes(), parallel.getNodes());
+        assertEquals(single.getPlayer1Wins(), parallel.getPlayer1Wins());
+        assertEquals(single.getDraws(), parallel.getDraws());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.jensu.tictactoe.tools;
+
+import com.example.jensu.tictactoe.game.Series;
+import com.example.jensu.tictactoe.game.Variant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void perfectPlayer_neverLosesARound() throws InterruptedException {
+        Tournament tournament = new Tournament(Variant.CLASSIC, Series.BEST_OF, 3, 1000,
+                PlayerSpec.parse("perfect"), PlayerSpec.parse("random"), 7);
+        TournamentStats stats = tournament.run(200, 8, null);
+        assertEquals(200, stats.getMatches());
+        assertEquals(600, stats.getRounds());
+        assertEquals(0, stats.getRoundLosses());
+        assertEquals(0, stats.getLosses());
+    }
+
+    @Test
+    public void firstTo_stopsAtMaxRoundsWhenEveryRoundIsATie() {
+        Tournament tournament = new Tournament(Variant.CLASSIC, Series.FIRST_TO, 1, 20,
+                PlayerSpec.parse("perfect"), PlayerSpec.parse("perfect"), 7);
+        MatchResult result = tournament.playMatch(0);
+        assertEquals(20, result.getRounds());
+        assertEquals(20, result.getTies());
+        assertEquals(MatchResult.DRAW, result.getOutcome());
+    }
+
+    @Test
+    public void players_takeTurnsToStart() {
+        Tournament tournament = new Tournament(Variant.CLASSIC, Series.INFINITE, 0, 1,
+                PlayerSpec.parse("random"), PlayerSpec.parse("random"), 7);
+        assertTrue(tournament.playMatch(0).isAFirst());
+        assertFalse(tournament.playMatch(1).isAFirst());
+    }
+
+    @Test
+    public void elo_matchesTheScore() {
+        assertEquals(0, TournamentStats.elo(0.5), 1e-9);
+        assertEquals(-TournamentStats.elo(0.75), TournamentStats.elo(0.25), 1e-9);
+        // a 400 point difference is ten to one odds
+        assertEquals(400, TournamentStats.elo(10.0 / 11), 1e-6);
+        assertTrue(Double.isInfinite(TournamentStats.elo(1)));
+    }
+
+    @Test
+    public void wilson_staysInsideZeroAndOne() {
+        double[] none = TournamentStats.wilson(0, 50);
+        assertEquals(0, none[0], 1e-12);
+        assertTrue(none[1] > 0 && none[1] < 0.1);
+        double[] half = TournamentStats.wilson(500, 1000);
+        assertEquals(1 - half[1], half[0], 1e-12);
+        assertTrue(half[0] < 0.5 && half[0] > 0.46);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsUnknownPlayer() {
+        PlayerSpec.parse("grandmaster");
+    }
+}